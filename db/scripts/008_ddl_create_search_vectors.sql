@@ -0,0 +1,17 @@
+--liquibase formatted sql
+
+--changeset dreamjob:008-vacancies-search-vector dbms:postgresql
+alter table vacancies add column search_vector tsvector
+    generated always as (
+        setweight(to_tsvector('russian', coalesce(title, '')), 'A')
+            || setweight(to_tsvector('russian', coalesce(description, '')), 'B')
+    ) stored;
+create index vacancies_search_vector_idx on vacancies using gin (search_vector);
+
+--changeset dreamjob:008-candidates-search-vector dbms:postgresql
+alter table candidates add column search_vector tsvector
+    generated always as (
+        setweight(to_tsvector('russian', coalesce(name, '')), 'A')
+            || setweight(to_tsvector('russian', coalesce(description, '')), 'B')
+    ) stored;
+create index candidates_search_vector_idx on candidates using gin (search_vector);
@@ -0,0 +1,3 @@
+alter table files add column hash varchar;
+alter table files add column ref_count int not null default 1;
+create unique index files_hash_idx on files (hash);
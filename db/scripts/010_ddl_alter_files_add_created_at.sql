@@ -0,0 +1,11 @@
+--liquibase formatted sql
+
+--changeset dreamjob:010-files-created-at
+alter table files add column created_at timestamp not null default now();
+
+--changeset dreamjob:010-files-path-pattern-idx dbms:postgresql
+create index files_path_pattern_idx on files (path varchar_pattern_ops);
+
+--changeset dreamjob:010-file-id-idx
+create index vacancies_file_id_idx on vacancies (file_id);
+create index candidates_file_id_idx on candidates (file_id);
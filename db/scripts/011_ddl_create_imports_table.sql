@@ -0,0 +1,11 @@
+--liquibase formatted sql
+
+--changeset dreamjob:011-imports
+create table imports
+(
+    name           varchar primary key,
+    kind           varchar   not null,
+    committed_rows int       not null default 0,
+    failed_rows    int       not null default 0,
+    updated_at     timestamp not null default now()
+);
@@ -0,0 +1,81 @@
+package ru.job4j.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Сравнивает результат прогона JMH (-rf json) с сохранённым базовым и падает, если
+ * время операции или аллокации на операцию (gc.alloc.rate.norm из -prof gc) выросли
+ * больше чем на допуск.
+ * Аргументы: результат, базовый файл, допуск в процентах, record.
+ * Без базового файла проверка падает: молча пропущенное сравнение выглядело бы как зелёная сборка.
+ * С record=true (-Djmh.record=true) результат прогона записывается как новый базовый.
+ */
+public final class BaselineCheck {
+    /* до JMH 1.36 имена метрик профилировщика начинались с точки-разделителя */
+    private static final String[] ALLOCATION = {"gc.alloc.rate.norm", "\u00b7gc.alloc.rate.norm"};
+
+    private BaselineCheck() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        var result = Path.of(args[0]);
+        var baseline = Path.of(args[1]);
+        var tolerance = Double.parseDouble(args[2]) / 100;
+        var record = args.length > 3 && Boolean.parseBoolean(args[3]);
+        if (record) {
+            Files.copy(result, baseline, StandardCopyOption.REPLACE_EXISTING);
+            System.out.println("Recorded baseline " + baseline);
+            return;
+        }
+        if (!Files.exists(baseline)) {
+            System.out.println("No baseline at " + baseline + ", record one with -Djmh.record=true");
+            System.exit(1);
+        }
+        var current = scores(result);
+        var expected = scores(baseline);
+        var regressions = 0;
+        for (var entry : expected.entrySet()) {
+            var actual = current.get(entry.getKey());
+            if (actual == null) {
+                continue;
+            }
+            var change = entry.getValue() == 0 ? 0 : (actual - entry.getValue()) / entry.getValue();
+            var regressed = change > tolerance;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("%s %-90s %14.3f -> %14.3f (%+.1f%%)%n", regressed ? "REGRESSION" : "ok        ",
+                    entry.getKey(), entry.getValue(), actual, change * 100);
+        }
+        if (regressions > 0) {
+            System.out.println(regressions + " benchmark(s) regressed by more than " + args[2] + "%");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Все бенчмарки в режиме AverageTime, поэтому и время, и аллокации - "меньше - лучше".
+     */
+    private static Map<String, Double> scores(Path file) throws IOException {
+        var scores = new LinkedHashMap<String, Double>();
+        for (JsonNode run : new ObjectMapper().readTree(file.toFile())) {
+            var name = run.get("benchmark").asText() + run.path("params");
+            scores.put(name + " time", run.get("primaryMetric").get("score").asDouble());
+            for (var metric : ALLOCATION) {
+                var allocation = run.path("secondaryMetrics").path(metric);
+                if (!allocation.isMissingNode()) {
+                    scores.put(name + " alloc", allocation.get("score").asDouble());
+                }
+            }
+        }
+        return scores;
+    }
+}
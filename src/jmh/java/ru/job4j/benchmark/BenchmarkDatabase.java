@@ -0,0 +1,27 @@
+package ru.job4j.benchmark;
+
+import org.sql2o.Sql2o;
+import ru.job4j.dreamjob.configuration.DatasourceConfiguration;
+
+import java.io.IOException;
+import java.util.Properties;
+
+/**
+ * Пул и sql2o поверх той же H2, что и у тестов: схему в ней создаёт liquibase при сборке.
+ */
+final class BenchmarkDatabase {
+    private BenchmarkDatabase() {
+    }
+
+    static Sql2o sql2o() throws IOException {
+        var properties = new Properties();
+        try (var inputStream = BenchmarkDatabase.class.getClassLoader().getResourceAsStream("connection.properties")) {
+            properties.load(inputStream);
+        }
+        var configuration = new DatasourceConfiguration();
+        var dataSource = configuration.connectionPool(properties.getProperty("datasource.url"),
+                properties.getProperty("datasource.username"), properties.getProperty("datasource.password"));
+        dataSource.setPoolPreparedStatements(true);
+        return configuration.databaseClient(dataSource);
+    }
+}
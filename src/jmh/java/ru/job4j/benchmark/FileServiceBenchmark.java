@@ -0,0 +1,89 @@
+package ru.job4j.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.job4j.dreamjob.dto.FileDto;
+import ru.job4j.dreamjob.repository.MemoryFileRepository;
+import ru.job4j.dreamjob.repository.UnitOfWork;
+import ru.job4j.dreamjob.service.SimpleFileService;
+import ru.job4j.dreamjob.service.SimpleImageVariantService;
+import ru.job4j.dreamjob.storage.LocalFileStorage;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Сохранение и чтение файлов 10 KB, 1 MB и 10 MB через SimpleFileService на локальном диске.
+ * Каждое сохранение - новое содержимое (первые байты - счётчик), иначе дедупликация
+ * превратила бы замер в поиск по хэшу. Сохранённый файл сразу удаляется, чтобы замер
+ * не заполнял диск, поэтому save меряет загрузку вместе с удалением.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FileServiceBenchmark {
+    @Param({"10240", "1048576", "10485760"})
+    private int size;
+
+    private Path directory;
+    private SimpleFileService fileService;
+    private byte[] content;
+    private long counter;
+    private int storedId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("dreamjob-benchmark");
+        var storage = new LocalFileStorage(directory.toString());
+        var variants = new SimpleImageVariantService(storage, directory, Runnable::run);
+        fileService = new SimpleFileService(new MemoryFileRepository(), storage, variants, UnitOfWork.none(),
+                directory.toString(), true, 100);
+        content = new byte[size];
+        ThreadLocalRandom.current().nextBytes(content);
+        storedId = fileService.save(new FileDto("stored.bin", content.clone())).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public int save() {
+        ByteBuffer.wrap(content).putLong(0, ++counter);
+        var file = fileService.save(new FileDto("upload.bin", content));
+        fileService.deleteById(file.getId());
+        return file.getId();
+    }
+
+    @Benchmark
+    public long read() throws IOException {
+        var file = fileService.getFileById(storedId).orElseThrow();
+        try (var input = file.getContent().getInputStream()) {
+            return input.transferTo(OutputStream.nullOutputStream());
+        }
+    }
+}
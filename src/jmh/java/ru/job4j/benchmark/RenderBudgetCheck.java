@@ -0,0 +1,42 @@
+package ru.job4j.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Проверяет, что отрисовка списков укладывается в бюджет на строку: время
+ * TemplateRenderBenchmark (мкс на отрисовку), делённое на rows, не больше заданного.
+ * Аргументы: результат JMH в json, бюджет в микросекундах на строку.
+ */
+public final class RenderBudgetCheck {
+    private static final String BENCHMARK = TemplateRenderBenchmark.class.getName();
+
+    private RenderBudgetCheck() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        var budget = Double.parseDouble(args[1]);
+        var overBudget = 0;
+        for (JsonNode run : new ObjectMapper().readTree(Path.of(args[0]).toFile())) {
+            var name = run.get("benchmark").asText();
+            if (!name.startsWith(BENCHMARK)) {
+                continue;
+            }
+            var rows = run.path("params").path("rows").asInt();
+            var perRow = run.get("primaryMetric").get("score").asDouble() / rows;
+            var exceeded = perRow > budget;
+            if (exceeded) {
+                overBudget++;
+            }
+            System.out.printf("%s %-70s rows=%-7d %8.3f us/row (budget %.3f)%n", exceeded ? "OVER" : "ok  ",
+                    name, rows, perRow, budget);
+        }
+        if (overBudget > 0) {
+            System.out.println(overBudget + " render(s) over the budget of " + budget + " us per row");
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package ru.job4j.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.thymeleaf.context.WebContext;
+import org.thymeleaf.spring5.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+import ru.job4j.dreamjob.dto.CandidateSummary;
+import ru.job4j.dreamjob.dto.CityFacet;
+import ru.job4j.dreamjob.dto.Page;
+import ru.job4j.dreamjob.dto.VacancySummary;
+import ru.job4j.dreamjob.model.User;
+
+import java.io.Writer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Отрисовка vacancies/list и candidates/list вместе с фрагментами blocks/header и blocks/footer
+ * тем же движком, что и в приложении (SpringTemplateEngine, выражения SpEL), на синтетических
+ * моделях из rows строк. Шаблоны разобраны и закэшированы заранее, меряется только отрисовка;
+ * вывод идёт в Writer, который только считает символы, - размер ответа виден как outputChars.
+ * Бюджет на строку проверяет RenderBudgetCheck.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class TemplateRenderBenchmark {
+    @Param({"100", "10000", "100000"})
+    private int rows;
+
+    private SpringTemplateEngine engine;
+    private WebContext vacancies;
+    private WebContext candidates;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        var resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding("UTF-8");
+        resolver.setCacheable(true);
+        engine = new SpringTemplateEngine();
+        engine.setTemplateResolver(resolver);
+        engine.setEnableSpringELCompiler(true);
+        var creationDate = LocalDateTime.of(2024, 1, 1, 12, 0);
+        var vacancyRows = new ArrayList<VacancySummary>(rows);
+        var candidateRows = new ArrayList<CandidateSummary>(rows);
+        for (int i = 1; i <= rows; i++) {
+            vacancyRows.add(new VacancySummary(i, "Java Developer " + i, i % 3 != 0, creationDate.minusMinutes(i),
+                    "Москва", i, "photo" + i + ".png"));
+            candidateRows.add(new CandidateSummary(i, "Candidate " + i, creationDate.minusMinutes(i),
+                    "Москва", i, "photo" + i + ".png"));
+        }
+        var facets = List.of(new CityFacet(1, "Москва", rows), new CityFacet(2, "Санкт-Петербург", 0));
+        vacancies = context(Map.of("vacancies", vacancyRows, "page", page(vacancyRows), "facets", facets));
+        candidates = context(Map.of("candidates", candidateRows, "page", page(candidateRows), "facets", facets));
+    }
+
+    private static <T> Page<T> page(List<T> items) {
+        return new Page<>(items, "next-token", null);
+    }
+
+    private static WebContext context(Map<String, Object> model) {
+        var servletContext = new MockServletContext();
+        var request = new MockHttpServletRequest(servletContext, "GET", "/");
+        var user = new User();
+        user.setName("Гость");
+        request.setAttribute("user", user);
+        var context = new WebContext(request, new MockHttpServletResponse(), servletContext, Locale.ROOT);
+        context.setVariables(model);
+        context.setVariable("user", user);
+        return context;
+    }
+
+    @Benchmark
+    public long vacanciesList(Output output) {
+        engine.process("vacancies/list", vacancies, output.writer());
+        return output.chars;
+    }
+
+    @Benchmark
+    public long candidatesList(Output output) {
+        engine.process("candidates/list", candidates, output.writer());
+        return output.chars;
+    }
+
+    /**
+     * Размер последнего отрисованного ответа в символах.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Output {
+        public long outputChars;
+
+        private long chars;
+
+        Writer writer() {
+            chars = 0;
+            return new Writer() {
+                @Override
+                public void write(char[] buffer, int offset, int length) {
+                    chars += length;
+                    outputChars = chars;
+                }
+
+                @Override
+                public void write(String string, int offset, int length) {
+                    chars += length;
+                    outputChars = chars;
+                }
+
+                @Override
+                public void flush() {
+                }
+
+                @Override
+                public void close() {
+                }
+            };
+        }
+    }
+}
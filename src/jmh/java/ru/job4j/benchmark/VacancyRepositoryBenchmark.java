@@ -0,0 +1,133 @@
+package ru.job4j.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.job4j.dreamjob.model.File;
+import ru.job4j.dreamjob.model.Vacancy;
+import ru.job4j.dreamjob.repository.MemoryVacancyRepository;
+import ru.job4j.dreamjob.repository.Sql2oFileRepository;
+import ru.job4j.dreamjob.repository.Sql2oUnitOfWork;
+import ru.job4j.dreamjob.repository.Sql2oVacancyRepository;
+import ru.job4j.dreamjob.repository.VacancyRepository;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * findAll, findById, save и update для хранилища в памяти и для sql2o поверх встроенной H2
+ * (та же база ./testdb, что и у тестов). Таблица заполняется rows вакансиями,
+ * всё созданное при замере удаляется после каждой итерации.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VacancyRepositoryBenchmark {
+    @Param({"memory", "sql2o"})
+    private String repository;
+
+    @Param({"1000"})
+    private int rows;
+
+    private VacancyRepository vacancyRepository;
+    private Sql2oFileRepository fileRepository;
+    private File file;
+    private int[] ids;
+    private Set<Integer> seeded;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        int fileId = 1;
+        if ("sql2o".equals(repository)) {
+            var sql2o = BenchmarkDatabase.sql2o();
+            var unitOfWork = new Sql2oUnitOfWork(sql2o);
+            vacancyRepository = new Sql2oVacancyRepository(sql2o, unitOfWork);
+            fileRepository = new Sql2oFileRepository(unitOfWork);
+            file = fileRepository.save(new File("benchmark", "benchmark"));
+            fileId = file.getId();
+        } else {
+            vacancyRepository = new MemoryVacancyRepository();
+        }
+        seeded = new HashSet<>();
+        for (var vacancy : vacancyRepository.findAll()) {
+            seeded.add(vacancy.getId());
+        }
+        ids = new int[rows];
+        for (int i = 0; i < rows; i++) {
+            ids[i] = vacancyRepository.save(vacancy(i, fileId)).getId();
+            seeded.add(ids[i]);
+        }
+    }
+
+    private static Vacancy vacancy(int number, int fileId) {
+        return new Vacancy(0, "Java Developer " + number, "Spring, SQL, " + number,
+                LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS), true, 1, fileId);
+    }
+
+    /**
+     * Без этого save раздувал бы таблицу от итерации к итерации и замеры findAll поплыли бы.
+     */
+    @TearDown(Level.Iteration)
+    public void removeSaved() {
+        for (var vacancy : vacancyRepository.findAll()) {
+            if (!seeded.contains(vacancy.getId())) {
+                vacancyRepository.deleteById(vacancy.getId());
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        for (var id : ids) {
+            vacancyRepository.deleteById(id);
+        }
+        if (file != null) {
+            fileRepository.deleteById(file.getId());
+        }
+    }
+
+    private int randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+
+    @Benchmark
+    public Collection<Vacancy> findAll() {
+        return vacancyRepository.findAll();
+    }
+
+    @Benchmark
+    public Optional<Vacancy> findById() {
+        return vacancyRepository.findById(randomId());
+    }
+
+    @Benchmark
+    public Vacancy save() {
+        return vacancyRepository.save(vacancy(ThreadLocalRandom.current().nextInt(), file == null ? 1 : file.getId()));
+    }
+
+    @Benchmark
+    public boolean update() {
+        var vacancy = vacancy(ThreadLocalRandom.current().nextInt(), file == null ? 1 : file.getId());
+        vacancy.setId(randomId());
+        return vacancyRepository.update(vacancy);
+    }
+}
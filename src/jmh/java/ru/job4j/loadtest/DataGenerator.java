@@ -0,0 +1,283 @@
+package ru.job4j.loadtest;
+
+import ru.job4j.dreamjob.storage.StorageKeys;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Заливает синтетические данные в существующую схему пачками JDBC batch: города, пользователи,
+ * файлы (PNG в хранилище file.directory под ключами ab/cd/sha256), вакансии и кандидаты.
+ * При одном и том же --seed получаются одни и те же данные.
+ * Рассчитан на пустую базу после liquibase; ref_count файлов в конце пересчитывается по ссылкам.
+ * Пользователи: user{n}@load.test / password{n}, n от 1 до --users.
+ *
+ * mvn -Pbenchmark -DskipTests test-compile exec:java -Dexec.classpathScope=test
+ *     -Dexec.mainClass=ru.job4j.loadtest.DataGenerator
+ *     -Dexec.args="--url=jdbc:postgresql://127.0.0.1:5432/dreamjob --username=postgres --password=password
+ *                  --vacancies=1000000 --candidates=1000000 --users=20000 --cities=20000 --files=5000"
+ *
+ * Для PostgreSQL стоит добавить к url ?reWriteBatchedInserts=true - пачка уходит одним INSERT.
+ */
+public final class DataGenerator {
+    private static final String[] POSITIONS = {"Java", "Kotlin", "Go", "Python", "Frontend", "QA", "DevOps",
+            "Data", "Android", "iOS"};
+    private static final String[] LEVELS = {"Intern", "Junior", "Middle", "Senior", "Lead", "Principal"};
+    private static final String[] SKILLS = {"Spring", "SQL", "PostgreSQL", "Kafka", "Docker", "Kubernetes",
+            "Hibernate", "REST", "gRPC", "Redis", "Linux", "Git", "JUnit", "Maven", "Gradle", "AWS"};
+    private static final String[] FIRST_NAMES = {"Иван", "Пётр", "Анна", "Мария", "Алексей", "Елена",
+            "Дмитрий", "Ольга", "Сергей", "Наталья"};
+    private static final String[] LAST_NAMES = {"Иванов", "Петров", "Смирнов", "Кузнецов", "Попов",
+            "Васильев", "Соколов", "Михайлов", "Новиков", "Фёдоров"};
+
+    private final Options options;
+    private final SplittableRandom random;
+    private final int batchSize;
+    private final LocalDateTime now = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private DataGenerator(Options options) {
+        this.options = options;
+        this.random = new SplittableRandom(options.getLong("seed"));
+        this.batchSize = options.getInt("batch");
+    }
+
+    public static void main(String[] args) throws Exception {
+        var options = new Options(args, Map.ofEntries(
+                Map.entry("url", "jdbc:h2:./testdb;MODE=PostgreSQL;CASE_INSENSITIVE_IDENTIFIERS=TRUE"),
+                Map.entry("username", ""),
+                Map.entry("password", ""),
+                Map.entry("files-dir", "files"),
+                Map.entry("seed", "42"),
+                Map.entry("batch", "1000"),
+                Map.entry("cities", "10000"),
+                Map.entry("users", "10000"),
+                Map.entry("files", "1000"),
+                Map.entry("vacancies", "100000"),
+                Map.entry("candidates", "100000")));
+        new DataGenerator(options).generate();
+    }
+
+    private void generate() throws SQLException, IOException {
+        try (var connection = DriverManager.getConnection(options.get("url"), options.get("username"),
+                options.get("password"))) {
+            connection.setAutoCommit(false);
+            var cityIds = idRange(connection, "cities", () -> insertCities(connection, options.getInt("cities")));
+            idRange(connection, "users", () -> insertUsers(connection, options.getInt("users")));
+            var fileIds = idRange(connection, "files", () -> insertFiles(connection, options.getInt("files")));
+            idRange(connection, "vacancies", () -> insertVacancies(connection, options.getInt("vacancies"),
+                    cityIds, fileIds));
+            idRange(connection, "candidates", () -> insertCandidates(connection, options.getInt("candidates"),
+                    cityIds, fileIds));
+            recountReferences(connection);
+        }
+    }
+
+    private interface Step {
+        void run() throws SQLException, IOException;
+    }
+
+    /**
+     * Выполняет шаг и возвращает [min, max] id таблицы после него - по ним выбираются ссылки.
+     */
+    private static int[] idRange(Connection connection, String table, Step step) throws SQLException, IOException {
+        var started = System.nanoTime();
+        step.run();
+        try (var statement = connection.createStatement();
+             var result = statement.executeQuery("SELECT MIN(id), MAX(id), COUNT(*) FROM " + table)) {
+            result.next();
+            System.out.printf("%-10s %,12d rows, ids %d..%d, %.1f s%n", table, result.getLong(3), result.getInt(1),
+                    result.getInt(2), (System.nanoTime() - started) / 1e9);
+            return new int[] {result.getInt(1), result.getInt(2)};
+        }
+    }
+
+    private int pick(int[] range) {
+        return range[0] + random.nextInt(range[1] - range[0] + 1);
+    }
+
+    private LocalDateTime creationDate() {
+        return now.minusSeconds(random.nextLong(365L * 24 * 60 * 60));
+    }
+
+    private String description() {
+        var builder = new StringBuilder();
+        var skills = 3 + random.nextInt(6);
+        for (int i = 0; i < skills; i++) {
+            builder.append(i == 0 ? "" : ", ").append(SKILLS[random.nextInt(SKILLS.length)]);
+        }
+        return builder.append(". Опыт от ").append(random.nextInt(10)).append(" лет.").toString();
+    }
+
+    private void insertCities(Connection connection, int count) throws SQLException {
+        try (var statement = connection.prepareStatement("INSERT INTO cities (name) VALUES (?)")) {
+            var batch = new Batch(connection, statement);
+            for (int i = 1; i <= count; i++) {
+                statement.setString(1, "Город " + i);
+                batch.add();
+            }
+            batch.finish();
+        }
+    }
+
+    private void insertUsers(Connection connection, int count) throws SQLException {
+        try (var statement = connection.prepareStatement("INSERT INTO users (email, name, password) VALUES (?, ?, ?)")) {
+            var batch = new Batch(connection, statement);
+            for (int i = 1; i <= count; i++) {
+                statement.setString(1, "user" + i + "@load.test");
+                statement.setString(2, FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                        + LAST_NAMES[random.nextInt(LAST_NAMES.length)]);
+                statement.setString(3, "password" + i);
+                batch.add();
+            }
+            batch.finish();
+        }
+    }
+
+    /**
+     * Картинки 640x480 с шумом, чтобы у каждой было своё содержимое и реалистичный размер PNG.
+     */
+    private void insertFiles(Connection connection, int count) throws SQLException, IOException {
+        var root = Path.of(options.get("files-dir"));
+        try (var statement = connection.prepareStatement(
+                "INSERT INTO files (name, path, hash, ref_count) VALUES (?, ?, ?, 0)")) {
+            var batch = new Batch(connection, statement);
+            for (int i = 1; i <= count; i++) {
+                var content = image();
+                var hash = sha256(content);
+                var key = StorageKeys.of(hash);
+                var path = root.resolve(key);
+                Files.createDirectories(path.getParent());
+                Files.write(path, content);
+                statement.setString(1, "photo" + i + ".png");
+                statement.setString(2, key);
+                statement.setString(3, hash);
+                batch.add();
+            }
+            batch.finish();
+        }
+    }
+
+    private byte[] image() throws IOException {
+        var image = new BufferedImage(640, 480, BufferedImage.TYPE_INT_RGB);
+        var base = new Color(random.nextInt(256), random.nextInt(256), random.nextInt(256)).getRGB();
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                image.setRGB(x, y, random.nextInt(8) == 0 ? random.nextInt() : base);
+            }
+        }
+        var output = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", output);
+        return output.toByteArray();
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void insertVacancies(Connection connection, int count, int[] cityIds, int[] fileIds) throws SQLException {
+        var sql = "INSERT INTO vacancies (title, description, creation_date, visible, city_id, file_id) "
+                + "VALUES (?, ?, ?, ?, ?, ?)";
+        try (var statement = connection.prepareStatement(sql)) {
+            var batch = new Batch(connection, statement);
+            for (int i = 1; i <= count; i++) {
+                statement.setString(1, LEVELS[random.nextInt(LEVELS.length)] + " "
+                        + POSITIONS[random.nextInt(POSITIONS.length)] + " Developer");
+                statement.setString(2, description());
+                statement.setTimestamp(3, Timestamp.valueOf(creationDate()));
+                statement.setBoolean(4, random.nextInt(10) != 0);
+                statement.setInt(5, pick(cityIds));
+                statement.setInt(6, pick(fileIds));
+                batch.add();
+            }
+            batch.finish();
+        }
+    }
+
+    private void insertCandidates(Connection connection, int count, int[] cityIds, int[] fileIds) throws SQLException {
+        var sql = "INSERT INTO candidates (name, description, creation_date, city_id, file_id) VALUES (?, ?, ?, ?, ?)";
+        try (var statement = connection.prepareStatement(sql)) {
+            var batch = new Batch(connection, statement);
+            for (int i = 1; i <= count; i++) {
+                statement.setString(1, FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                        + LAST_NAMES[random.nextInt(LAST_NAMES.length)]);
+                statement.setString(2, description());
+                statement.setTimestamp(3, Timestamp.valueOf(creationDate()));
+                statement.setInt(4, pick(cityIds));
+                statement.setInt(5, pick(fileIds));
+                batch.add();
+            }
+            batch.finish();
+        }
+    }
+
+    /**
+     * Файлы общие для многих вакансий и кандидатов, как после дедупликации; ref_count должен
+     * совпадать с числом ссылок, иначе удаление снимет не те ссылки, а сверка увидит расхождение.
+     * Ссылки считаются одним проходом по обеим таблицам с GROUP BY, а не подзапросом на каждый файл;
+     * файлы без ссылок сохраняют ref_count = 0 со вставки.
+     */
+    private static void recountReferences(Connection connection) throws SQLException {
+        try (var statement = connection.createStatement()) {
+            statement.executeUpdate("UPDATE files f SET ref_count = u.file_references FROM ("
+                    + "SELECT r.file_id, COUNT(*) AS file_references FROM ("
+                    + "SELECT file_id FROM vacancies UNION ALL SELECT file_id FROM candidates"
+                    + ") r GROUP BY r.file_id"
+                    + ") u WHERE u.file_id = f.id");
+        }
+        connection.commit();
+    }
+
+    /**
+     * Отправляет пачку каждые batchSize строк и фиксирует её, чтобы не держать
+     * многомиллионную транзакцию.
+     */
+    private class Batch {
+        private final Connection connection;
+        private final PreparedStatement statement;
+        private int pending;
+
+        Batch(Connection connection, PreparedStatement statement) {
+            this.connection = connection;
+            this.statement = statement;
+        }
+
+        void add() throws SQLException {
+            statement.addBatch();
+            if (++pending == batchSize) {
+                flush();
+            }
+        }
+
+        void finish() throws SQLException {
+            if (pending > 0) {
+                flush();
+            }
+        }
+
+        private void flush() throws SQLException {
+            statement.executeBatch();
+            connection.commit();
+            pending = 0;
+        }
+    }
+}
@@ -0,0 +1,340 @@
+package ru.job4j.loadtest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Нагрузка на локально запущенное приложение: каждый виртуальный пользователь входит под своей
+ * учётной записью из DataGenerator и дальше повторяет смесь запросов с весами из --mix.
+ * Последовательность запросов задаётся --seed, так что прогоны сравнимы между собой.
+ * Первые --warmup не попадают в статистику. В конце печатаются пропускная способность
+ * и перцентили задержки по каждому типу запроса.
+ *
+ * Против PostgreSQL приложение запускается как обычно, против H2 - с тестовым classpath:
+ * mvn spring-boot:run -Dspring-boot.run.useTestClasspath=true
+ *     -Dspring-boot.run.arguments="--datasource.url=jdbc:h2:./testdb;MODE=PostgreSQL;CASE_INSENSITIVE_IDENTIFIERS=TRUE"
+ * (встроенная H2 открывается одним процессом, поэтому данные генерируются до старта приложения).
+ *
+ * mvn -Pbenchmark -DskipTests test-compile exec:java -Dexec.classpathScope=test
+ *     -Dexec.mainClass=ru.job4j.loadtest.LoadDriver
+ *     -Dexec.args="--users=64 --duration=PT2M --vacancies=1000000 --candidates=1000000 --files=5000"
+ */
+public final class LoadDriver {
+
+    enum Endpoint {
+        LOGIN, LIST, DETAIL, CREATE, UPLOAD, DOWNLOAD
+    }
+
+    private final Options options;
+    private final URI base;
+    private final Map<Endpoint, Integer> mix;
+    private final int totalWeight;
+    private final long warmupEnds;
+    private final long ends;
+
+    private LoadDriver(Options options) {
+        this.options = options;
+        this.base = URI.create(options.get("base-url"));
+        this.mix = parseMix(options.get("mix"));
+        this.totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+        var now = System.nanoTime();
+        this.warmupEnds = now + options.getDuration("warmup").toNanos();
+        this.ends = warmupEnds + options.getDuration("duration").toNanos();
+    }
+
+    public static void main(String[] args) throws Exception {
+        var options = new Options(args, Map.ofEntries(
+                Map.entry("base-url", "http://localhost:8080"),
+                Map.entry("users", "16"),
+                Map.entry("first-user", "1"),
+                Map.entry("seed", "42"),
+                Map.entry("warmup", "PT30S"),
+                Map.entry("duration", "PT1M"),
+                Map.entry("vacancies", "100000"),
+                Map.entry("candidates", "100000"),
+                Map.entry("files", "1000"),
+                Map.entry("cities", "10000"),
+                Map.entry("upload-size", "65536"),
+                Map.entry("mix", "login:2,list:40,detail:35,create:5,upload:3,download:15")));
+        System.out.println("Load test " + options);
+        new LoadDriver(options).run();
+    }
+
+    private void run() throws InterruptedException {
+        var users = options.getInt("users");
+        var recorders = new ArrayList<Recorder>();
+        var done = new CountDownLatch(users);
+        for (int i = 0; i < users; i++) {
+            var recorder = new Recorder();
+            recorders.add(recorder);
+            var user = options.getInt("first-user") + i;
+            var random = new SplittableRandom(options.getLong("seed") * 31 + user);
+            var thread = new Thread(() -> {
+                try {
+                    new VirtualUser(user, random, recorder).run();
+                } finally {
+                    done.countDown();
+                }
+            }, "load-user-" + user);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        done.await();
+        report(recorders);
+    }
+
+    private static Map<Endpoint, Integer> parseMix(String value) {
+        var result = new EnumMap<Endpoint, Integer>(Endpoint.class);
+        for (var part : value.split(",")) {
+            var pair = part.split(":");
+            result.put(Endpoint.valueOf(pair[0].trim().toUpperCase()), Integer.parseInt(pair[1].trim()));
+        }
+        return result;
+    }
+
+    private void report(List<Recorder> recorders) {
+        var seconds = options.getDuration("duration").toNanos() / 1e9;
+        System.out.printf("%-9s %9s %9s %7s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "req/s", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        long total = 0;
+        for (var endpoint : Endpoint.values()) {
+            var latencies = new Latencies();
+            long errors = 0;
+            for (var recorder : recorders) {
+                latencies.addAll(recorder.latencies.get(endpoint));
+                errors += recorder.errors[endpoint.ordinal()];
+            }
+            if (latencies.size == 0 && errors == 0) {
+                continue;
+            }
+            var sorted = Arrays.copyOf(latencies.values, latencies.size);
+            Arrays.sort(sorted);
+            total += sorted.length;
+            System.out.printf("%-9s %9d %9.1f %7d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    endpoint.name().toLowerCase(), sorted.length, sorted.length / seconds, errors,
+                    percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+                    percentile(sorted, 0.999), percentile(sorted, 1.0));
+        }
+        System.out.printf("%-9s %9d %9.1f%n", "total", total, total / seconds);
+    }
+
+    /**
+     * Ближайший ранг по отсортированным задержкам в наносекундах, результат в миллисекундах.
+     */
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        var index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    /**
+     * Задержки одного потока; сливаются только в отчёте, поэтому синхронизация не нужна.
+     */
+    private static class Recorder {
+        private final Map<Endpoint, Latencies> latencies = new EnumMap<>(Endpoint.class);
+        private final long[] errors = new long[Endpoint.values().length];
+
+        Recorder() {
+            for (var endpoint : Endpoint.values()) {
+                latencies.put(endpoint, new Latencies());
+            }
+        }
+    }
+
+    private static class Latencies {
+        private long[] values = new long[1024];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void addAll(Latencies other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.values[i]);
+            }
+        }
+    }
+
+    private class VirtualUser {
+        private final int user;
+        private final SplittableRandom random;
+        private final Recorder recorder;
+        private final HttpClient client;
+
+        VirtualUser(int user, SplittableRandom random, Recorder recorder) {
+            this.user = user;
+            this.random = random;
+            this.recorder = recorder;
+            this.client = HttpClient.newBuilder()
+                    .cookieHandler(new CookieManager())
+                    .followRedirects(HttpClient.Redirect.NEVER)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+        }
+
+        void run() {
+            call(Endpoint.LOGIN);
+            while (System.nanoTime() < ends) {
+                call(next());
+            }
+        }
+
+        private Endpoint next() {
+            var value = random.nextInt(totalWeight);
+            for (var entry : mix.entrySet()) {
+                value -= entry.getValue();
+                if (value < 0) {
+                    return entry.getKey();
+                }
+            }
+            throw new IllegalStateException("Empty mix");
+        }
+
+        private void call(Endpoint endpoint) {
+            var request = request(endpoint);
+            var started = System.nanoTime();
+            boolean ok;
+            try {
+                var response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                ok = isExpected(endpoint, response);
+            } catch (IOException e) {
+                ok = false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            var elapsed = System.nanoTime() - started;
+            if (started < warmupEnds) {
+                return;
+            }
+            if (ok) {
+                recorder.latencies.get(endpoint).add(elapsed);
+            } else {
+                recorder.errors[endpoint.ordinal()]++;
+            }
+        }
+
+        /**
+         * Успешный вход и создание отвечают редиректом на список; редирект на /users/login
+         * означает, что сессия потеряна.
+         */
+        private boolean isExpected(Endpoint endpoint, HttpResponse<Void> response) {
+            var location = response.headers().firstValue("Location").orElse("");
+            if (location.contains("/users/login")) {
+                return false;
+            }
+            if (endpoint == Endpoint.LOGIN || endpoint == Endpoint.CREATE || endpoint == Endpoint.UPLOAD) {
+                return response.statusCode() == 302;
+            }
+            return response.statusCode() == 200;
+        }
+
+        private HttpRequest request(Endpoint endpoint) {
+            return switch (endpoint) {
+                case LOGIN -> form("/users/login", "email=" + encode("user" + user + "@load.test")
+                        + "&password=" + encode("password" + user));
+                case LIST -> get(random.nextBoolean() ? "/vacancies" : "/candidates");
+                case DETAIL -> random.nextBoolean()
+                        ? get("/vacancies/" + (1 + random.nextInt(options.getInt("vacancies"))))
+                        : get("/candidates/" + (1 + random.nextInt(options.getInt("candidates"))));
+                case CREATE -> createVacancy(new byte[0]);
+                case UPLOAD -> createVacancy(upload());
+                case DOWNLOAD -> get("/files/" + (1 + random.nextInt(options.getInt("files"))));
+            };
+        }
+
+        private HttpRequest get(String path) {
+            return HttpRequest.newBuilder(base.resolve(path)).timeout(Duration.ofSeconds(30)).GET().build();
+        }
+
+        private HttpRequest form(String path, String body) {
+            return HttpRequest.newBuilder(base.resolve(path))
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Content-Type", "application/x-www-form-urlencoded")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+        }
+
+        /**
+         * Случайное содержимое, чтобы загрузки не схлопывались дедупликацией в одну строку files.
+         */
+        private byte[] upload() {
+            var content = new byte[options.getInt("upload-size")];
+            random.nextBytes(content);
+            return content;
+        }
+
+        private HttpRequest createVacancy(byte[] file) {
+            var boundary = "----load" + Long.toHexString(random.nextLong());
+            var body = new Multipart(boundary)
+                    .field("title", "Load test vacancy " + user)
+                    .field("description", "Created by the load driver")
+                    .field("visible", "true")
+                    .field("cityId", String.valueOf(1 + random.nextInt(options.getInt("cities"))))
+                    .file("file", file.length == 0 ? "" : "upload-" + user + ".bin", file)
+                    .build();
+            return HttpRequest.newBuilder(base.resolve("/vacancies/create"))
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                    .build();
+        }
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static class Multipart {
+        private final String boundary;
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+        Multipart(String boundary) {
+            this.boundary = boundary;
+        }
+
+        Multipart field(String name, String value) {
+            write("--" + boundary + "\r\nContent-Disposition: form-data; name=\"" + name + "\"\r\n\r\n"
+                    + value + "\r\n");
+            return this;
+        }
+
+        Multipart file(String name, String fileName, byte[] content) {
+            write("--" + boundary + "\r\nContent-Disposition: form-data; name=\"" + name + "\"; filename=\""
+                    + fileName + "\"\r\nContent-Type: application/octet-stream\r\n\r\n");
+            body.writeBytes(content);
+            write("\r\n");
+            return this;
+        }
+
+        byte[] build() {
+            write("--" + boundary + "--\r\n");
+            return body.toByteArray();
+        }
+
+        private void write(String value) {
+            body.writeBytes(value.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package ru.job4j.loadtest;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Аргументы вида --name=value; неизвестные имена - ошибка, чтобы опечатка не превращалась
+ * в молчаливое значение по умолчанию.
+ */
+final class Options {
+    private final Map<String, String> values = new HashMap<>();
+
+    Options(String[] args, Map<String, String> defaults) {
+        values.putAll(defaults);
+        for (var arg : args) {
+            var separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            var name = arg.substring(2, separator);
+            if (!defaults.containsKey(name)) {
+                throw new IllegalArgumentException("Unknown option --" + name + ", known: " + defaults.keySet());
+            }
+            values.put(name, arg.substring(separator + 1));
+        }
+    }
+
+    String get(String name) {
+        return values.get(name);
+    }
+
+    int getInt(String name) {
+        return Integer.parseInt(values.get(name));
+    }
+
+    long getLong(String name) {
+        return Long.parseLong(values.get(name));
+    }
+
+    Duration getDuration(String name) {
+        return Duration.parse(values.get(name));
+    }
+
+    @Override
+    public String toString() {
+        return values.toString();
+    }
+}
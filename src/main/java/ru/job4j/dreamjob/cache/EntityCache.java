@@ -0,0 +1,141 @@
+package ru.job4j.dreamjob.cache;
+
+import net.jcip.annotations.ThreadSafe;
+import ru.job4j.dreamjob.dto.CacheStats;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntFunction;
+import java.util.function.LongSupplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Read-through кэш сущностей по id с ограничением размера и временем жизни.
+ * Модели изменяемые, поэтому наружу и внутрь уходят только копии.
+ */
+@ThreadSafe
+public class EntityCache<V> {
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final UnaryOperator<V> copier;
+    private final LongSupplier nanoTime;
+    private final Map<Integer, Entry<V>> entries;
+    private final ReentrantLock lock = new ReentrantLock();
+    /* растёт при каждой инвалидации: загрузка, начатая до неё, не положит в кэш устаревшую строку */
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public EntityCache(int maxEntries, Duration ttl, EvictionPolicy policy, UnaryOperator<V> copier) {
+        this(maxEntries, ttl, policy, copier, System::nanoTime);
+    }
+
+    public EntityCache(int maxEntries, Duration ttl, EvictionPolicy policy, UnaryOperator<V> copier,
+                       LongSupplier nanoTime) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.isZero() ? Long.MAX_VALUE : ttl.toNanos();
+        this.copier = copier;
+        this.nanoTime = nanoTime;
+        this.entries = new LinkedHashMap<>(16, 0.75f, policy == EvictionPolicy.LRU) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Entry<V>> eldest) {
+                var overflow = size() > EntityCache.this.maxEntries;
+                if (overflow) {
+                    evictions.increment();
+                }
+                return overflow;
+            }
+        };
+    }
+
+    public Optional<V> get(int id, IntFunction<Optional<V>> loader) {
+        var cached = lookup(id);
+        if (cached != null) {
+            hits.increment();
+            return Optional.of(copier.apply(cached));
+        }
+        misses.increment();
+        var loadGeneration = generation.get();
+        var loaded = loader.apply(id);
+        loaded.ifPresent(value -> put(id, copier.apply(value), loadGeneration));
+        return loaded;
+    }
+
+    public void invalidate(int id) {
+        lock.lock();
+        try {
+            generation.incrementAndGet();
+            entries.remove(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            generation.incrementAndGet();
+            entries.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public CacheStats getStats() {
+        lock.lock();
+        try {
+            return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), entries.size());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private V lookup(int id) {
+        lock.lock();
+        try {
+            var entry = entries.get(id);
+            if (entry == null) {
+                return null;
+            }
+            if (ttlNanos != Long.MAX_VALUE && nanoTime.getAsLong() - entry.expiresAt > 0) {
+                entries.remove(id);
+                evictions.increment();
+                return null;
+            }
+            return entry.value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void put(int id, V value, long loadGeneration) {
+        lock.lock();
+        try {
+            if (generation.get() == loadGeneration) {
+                var expiresAt = ttlNanos == Long.MAX_VALUE ? 0 : nanoTime.getAsLong() + ttlNanos;
+                entries.put(id, new Entry<>(value, expiresAt));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+
+        Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package ru.job4j.dreamjob.cache;
+
+public enum EvictionPolicy {
+    /* вытесняется запись, к которой дольше всего не обращались */
+    LRU,
+    /* вытесняется самая старая запись, обращения порядок не меняют */
+    FIFO
+}
@@ -0,0 +1,206 @@
+package ru.job4j.dreamjob.concurrent;
+
+import net.jcip.annotations.ThreadSafe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Параллельные независимые обращения к сервисам при сборке одной страницы: время ответа
+ * близко к самому медленному обращению, а не к их сумме.
+ *
+ * var lookups = parallelLookups.start();
+ * var vacancy = lookups.required("vacancy", () -> vacancyService.findById(id));
+ * var cities = lookups.optional("cities", cityService::findAll, List.of());
+ * lookups.await();
+ *
+ * У каждого обращения свой таймаут. Если не удалось обязательное обращение, await() бросает
+ * LookupException; необязательное получает запасное значение, и страница собирается без него.
+ * Обращения идут на ограниченном пуле платформенных потоков; когда его очередь полна, обращение
+ * выполняется в потоке запроса, то есть страница деградирует до последовательной сборки.
+ * Виртуальные потоки держать в пуле незачем, а запросы на виртуальных потоках и так не занимают
+ * потоков-носителей, пока ждут результат. Обращение, не уложившееся в таймаут, прерывается:
+ * поток пула и его соединение освобождаются, как только драйвер отзовётся на прерывание.
+ * Обращения выполняются вне транзакции UnitOfWork (она привязана к потоку) и не должны
+ * трогать запрос и сессию - только сервисы и репозитории.
+ */
+@ThreadSafe
+@Component
+public class ParallelLookups {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ParallelLookups.class);
+
+    private final Executor executor;
+    private final Duration timeout;
+
+    @Autowired
+    public ParallelLookups(@Value("${lookups.threads:32}") int threads,
+                           @Value("${lookups.queue-capacity:256}") int queueCapacity,
+                           @Value("${lookups.timeout:PT2S}") Duration timeout) {
+        this(newExecutor(threads, queueCapacity), timeout);
+    }
+
+    public ParallelLookups(Executor executor, Duration timeout) {
+        this.executor = executor;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Все обращения выполняются сразу в вызывающем потоке - для тестов.
+     */
+    public static ParallelLookups direct() {
+        return new ParallelLookups(Runnable::run, Duration.ofDays(1));
+    }
+
+    private static ExecutorService newExecutor(int threads, int queueCapacity) {
+        var counter = new AtomicInteger();
+        ThreadFactory factory = runnable -> {
+            var thread = new Thread(runnable, "lookups-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), factory, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor instanceof ExecutorService) {
+            ((ExecutorService) executor).shutdownNow();
+        }
+    }
+
+    public Batch start() {
+        return new Batch();
+    }
+
+    /**
+     * Обращения одной страницы. Не потокобезопасен: используется одним запросом.
+     */
+    public class Batch {
+        private final List<Lookup<?>> lookups = new ArrayList<>();
+
+        public <T> Lookup<T> required(String name, Supplier<T> call) {
+            return submit(name, call, timeout, true, null);
+        }
+
+        public <T> Lookup<T> required(String name, Supplier<T> call, Duration callTimeout) {
+            return submit(name, call, callTimeout, true, null);
+        }
+
+        public <T> Lookup<T> optional(String name, Supplier<T> call, T fallback) {
+            return submit(name, call, timeout, false, fallback);
+        }
+
+        public <T> Lookup<T> optional(String name, Supplier<T> call, T fallback, Duration callTimeout) {
+            return submit(name, call, callTimeout, false, fallback);
+        }
+
+        private <T> Lookup<T> submit(String name, Supplier<T> call, Duration callTimeout,
+                                     boolean required, T fallback) {
+            var deadline = System.nanoTime() + callTimeout.toNanos();
+            /* FutureTask, а не CompletableFuture: только его cancel(true) прерывает выполняющий поток */
+            var task = new FutureTask<>(call::get);
+            executor.execute(task);
+            var lookup = new Lookup<>(name, task, deadline, required, fallback);
+            lookups.add(lookup);
+            return lookup;
+        }
+
+        /**
+         * Дожидается всех обращений, каждого - не дольше его таймаута.
+         *
+         * @throws LookupException если не удалось хотя бы одно обязательное обращение
+         */
+        public void await() {
+            LookupException failure = null;
+            for (var lookup : lookups) {
+                var error = lookup.await();
+                if (error == null) {
+                    continue;
+                }
+                if (!lookup.required) {
+                    LOGGER.warn("Optional lookup {} failed, page is rendered without it", lookup.name, error);
+                } else if (failure == null) {
+                    failure = new LookupException(lookup.name, error);
+                } else {
+                    failure.addSuppressed(error);
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    public static class Lookup<T> {
+        private final String name;
+        private final Future<T> future;
+        private final long deadline;
+        private final boolean required;
+        private T value;
+        private boolean done;
+
+        Lookup(String name, Future<T> future, long deadline, boolean required, T fallback) {
+            this.name = name;
+            this.future = future;
+            this.deadline = deadline;
+            this.required = required;
+            this.value = fallback;
+        }
+
+        /**
+         * @return результат или запасное значение, если обращение не удалось
+         */
+        public T get() {
+            if (!done) {
+                throw new IllegalStateException("Lookup " + name + " is read before Batch.await()");
+            }
+            return value;
+        }
+
+        /**
+         * @return причина неудачи или null
+         */
+        private Throwable await() {
+            done = true;
+            try {
+                value = future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                return null;
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                return new TimeoutException("Lookup " + name + " timed out");
+            } catch (ExecutionException e) {
+                return e.getCause();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+                return e;
+            }
+        }
+    }
+
+    public static class LookupException extends RuntimeException {
+        public LookupException(String name, Throwable cause) {
+            super("Lookup " + name + " failed: " + cause.getMessage(), cause);
+        }
+    }
+}
@@ -1,9 +1,11 @@
 package ru.job4j.dreamjob.configuration;
 
-import org.apache.commons.dbcp2.BasicDataSource;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.sql2o.GenericDatasource;
 import org.sql2o.Sql2o;
 import org.sql2o.converters.Converter;
 import org.sql2o.converters.ConverterException;
@@ -15,24 +17,41 @@ import java.time.LocalDateTime;
 
 @Configuration
 public class DatasourceConfiguration {
-    @Bean
-    public DataSource connectionPool(@Value("${datasource.url}") String url,
-                                     @Value("${datasource.username}") String username,
-                                     @Value("${datasource.password}") String password) {
-        return new BasicDataSource() {
-            {
-                setUrl(url);
-                setUsername(username);
-                setPassword(password);
-            }
-        };
+    /**
+     * Остальные настройки пула - размер, ожидание, проверка соединений, кэш подготовленных
+     * выражений, поиск утечек - Spring выставляет через сеттеры BasicDataSource из datasource.pool.*,
+     * например datasource.pool.max-total=20 вызывает setMaxTotal(20).
+     */
+    @Bean(destroyMethod = "close")
+    @ConfigurationProperties(prefix = "datasource.pool")
+    public InstrumentedDataSource connectionPool(@Value("${datasource.url}") String url,
+                                                 @Value("${datasource.username}") String username,
+                                                 @Value("${datasource.password}") String password) {
+        var dataSource = new InstrumentedDataSource();
+        dataSource.setUrl(url);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        return dataSource;
     }
 
     @Bean
+    @Primary
     public Sql2o databaseClient(DataSource dataSource) {
         return new Sql2o(dataSource, createConverters());
     }
 
+    /**
+     * Клиент для выгрузок: каждое соединение открывается через DriverManager мимо пула.
+     * Выгрузка читает курсор дольше remove-abandoned-timeout, а DBCP не считает чтение
+     * ResultSet использованием соединения и закрыл бы его посреди выгрузки.
+     */
+    @Bean
+    public Sql2o exportDatabaseClient(@Value("${datasource.url}") String url,
+                                      @Value("${datasource.username}") String username,
+                                      @Value("${datasource.password}") String password) {
+        return new Sql2o(new GenericDatasource(url, username, password), createConverters());
+    }
+
     private Quirks createConverters() {
         return new NoQuirks() {
             {
@@ -0,0 +1,197 @@
+package ru.job4j.dreamjob.configuration;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import net.jcip.annotations.ThreadSafe;
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.apache.commons.dbcp2.DelegatingConnection;
+import ru.job4j.dreamjob.dto.PoolStats;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Пул DBCP, который считает, сколько запросы ждут соединение. Время выдачи включает
+ * ожидание свободного соединения, открытие нового и проверку на заимствовании -
+ * именно его видит запрос, и по нему подбирается размер пула.
+ * Активные и свободные соединения Spring Boot публикует сам (jdbc.connections.*),
+ * здесь добавляются время выдачи (dreamjob.pool.checkout) и число ожидающих.
+ * С виртуальными потоками (datasource.pool.concurrency-limit=true) соединение выдаётся только
+ * после захвата разрешения честного семафора размером max-total: тысячи потоков ждут на нём
+ * в порядке очереди, освобождая потоки-носители, и в пул одновременно заходит не больше max-total.
+ * Сам семафор не защищает носители от JDBC: поток с соединением ждёт ответа базы внутри драйвера.
+ * Поэтому драйвер PostgreSQL нужен не старше 42.6 - там сетевой ввод-вывод идёт под ReentrantLock,
+ * а не под synchronized; со старым драйвером max-total потоков, ждущих базу, прикололи бы
+ * к себе все носители (их по числу ядер). Если в очереди уже max-queued-waiters потоков,
+ * запрос сразу получает отказ.
+ */
+@ThreadSafe
+public class InstrumentedDataSource extends BasicDataSource implements MeterBinder {
+    /* верхние границы (не включительно) корзин гистограммы, мс; последняя корзина - всё, что дольше */
+    private static final long[] BUCKETS_MILLIS = {1, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000};
+
+    private final LongAdder[] waits = new LongAdder[BUCKETS_MILLIS.length + 1];
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    private volatile Timer checkoutTimer;
+
+    private volatile boolean concurrencyLimit;
+    private volatile int maxQueuedWaiters = Integer.MAX_VALUE;
+    private volatile Semaphore permits;
+
+    public InstrumentedDataSource() {
+        for (int i = 0; i < waits.length; i++) {
+            waits[i] = new LongAdder();
+        }
+        permits = new Semaphore(getMaxTotal(), true);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        var started = System.nanoTime();
+        try {
+            return concurrencyLimit ? getLimitedConnection() : super.getConnection();
+        } catch (SQLException | RuntimeException e) {
+            failures.increment();
+            throw e;
+        } finally {
+            record(System.nanoTime() - started);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        checkoutTimer = Timer.builder("dreamjob.pool.checkout")
+                .description("Time to get a connection from the pool")
+                .register(registry);
+        Gauge.builder("dreamjob.pool.waiters", this, InstrumentedDataSource::getNumWaiters)
+                .description("Threads waiting for a connection")
+                .register(registry);
+    }
+
+    /**
+     * Ожидание разрешения ограничено тем же max-wait, что и ожидание в самом пуле.
+     */
+    private Connection getLimitedConnection() throws SQLException {
+        var semaphore = permits;
+        if (!semaphore.tryAcquire()) {
+            if (semaphore.getQueueLength() >= maxQueuedWaiters) {
+                throw new SQLException("Too many threads waiting for a connection: " + semaphore.getQueueLength());
+            }
+            try {
+                var maxWait = getMaxWaitMillis();
+                if (maxWait < 0) {
+                    semaphore.acquire();
+                } else if (!semaphore.tryAcquire(maxWait, TimeUnit.MILLISECONDS)) {
+                    throw new SQLException("Timed out waiting for a connection after " + maxWait + " ms");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for a connection", e);
+            }
+        }
+        try {
+            return new PermitConnection(super.getConnection(), semaphore);
+        } catch (SQLException | RuntimeException e) {
+            semaphore.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Семафор пересоздаётся под новый размер пула; соединения, выданные раньше,
+     * возвращают разрешения в свой старый семафор.
+     */
+    @Override
+    public synchronized void setMaxTotal(int maxTotal) {
+        super.setMaxTotal(maxTotal);
+        permits = new Semaphore(maxTotal, true);
+    }
+
+    public boolean isConcurrencyLimit() {
+        return concurrencyLimit;
+    }
+
+    public void setConcurrencyLimit(boolean concurrencyLimit) {
+        this.concurrencyLimit = concurrencyLimit;
+    }
+
+    public int getMaxQueuedWaiters() {
+        return maxQueuedWaiters;
+    }
+
+    public void setMaxQueuedWaiters(int maxQueuedWaiters) {
+        this.maxQueuedWaiters = maxQueuedWaiters;
+    }
+
+    private void record(long nanos) {
+        var timer = checkoutTimer;
+        if (timer != null) {
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+        totalWaitNanos.add(nanos);
+        var millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        int bucket = 0;
+        while (bucket < BUCKETS_MILLIS.length && millis >= BUCKETS_MILLIS[bucket]) {
+            bucket++;
+        }
+        waits[bucket].increment();
+    }
+
+    /**
+     * Пул создаётся при первой выдаче соединения, до этого ожидающих нет.
+     * Потоки в очереди ограничителя тоже ждут соединение.
+     */
+    public int getNumWaiters() {
+        var pool = getConnectionPool();
+        return (pool == null ? 0 : pool.getNumWaiters()) + permits.getQueueLength();
+    }
+
+    public PoolStats getStats() {
+        var histogram = new LinkedHashMap<String, Long>();
+        long checkouts = 0;
+        for (int i = 0; i < waits.length; i++) {
+            var count = waits[i].sum();
+            checkouts += count;
+            histogram.put(i < BUCKETS_MILLIS.length
+                    ? "lt_" + BUCKETS_MILLIS[i] + "ms"
+                    : "ge_" + BUCKETS_MILLIS[BUCKETS_MILLIS.length - 1] + "ms", count);
+        }
+        var meanWaitMillis = checkouts == 0 ? 0 : totalWaitNanos.sum() / 1_000_000.0 / checkouts;
+        return new PoolStats(getNumActive(), getNumIdle(), getMaxTotal(), getNumWaiters(), checkouts,
+                failures.sum(), meanWaitMillis, histogram);
+    }
+
+    /**
+     * Возвращает разрешение ровно один раз, при первом close(). Соединение, которое пул
+     * отобрал как брошенное (remove-abandoned), разрешение не возвращает, пока его не закроют.
+     */
+    private static class PermitConnection extends DelegatingConnection<Connection> {
+        private final Semaphore semaphore;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        PermitConnection(Connection connection, Semaphore semaphore) {
+            super(connection);
+            this.semaphore = semaphore;
+        }
+
+        @Override
+        public void close() throws SQLException {
+            try {
+                super.close();
+            } finally {
+                if (released.compareAndSet(false, true)) {
+                    semaphore.release();
+                }
+            }
+        }
+    }
+}
@@ -1,33 +1,68 @@
 package ru.job4j.dreamjob.controller;
 
 import net.jcip.annotations.ThreadSafe;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import ru.job4j.dreamjob.concurrent.ParallelLookups;
 import ru.job4j.dreamjob.dto.FileDto;
+import ru.job4j.dreamjob.dto.ListFilter;
+import ru.job4j.dreamjob.dto.PageRequest;
 import ru.job4j.dreamjob.model.Candidate;
 import ru.job4j.dreamjob.model.User;
 import ru.job4j.dreamjob.service.CandidateService;
 import ru.job4j.dreamjob.service.CityService;
 
 import javax.servlet.http.HttpSession;
+import java.time.LocalDate;
+import java.util.List;
 
 @ThreadSafe
 @Controller
 @RequestMapping("/candidates")
 public class CandidateController {
+    private static final int PAGE_SIZE = 20;
+    private static final int FACET_LIMIT = 20;
+
     private final CandidateService candidateService;
     private final CityService cityService;
+    private final ParallelLookups parallelLookups;
 
-    public CandidateController(CandidateService candidateService, CityService cityService) {
+    public CandidateController(CandidateService candidateService, CityService cityService, ParallelLookups parallelLookups) {
         this.candidateService = candidateService;
         this.cityService = cityService;
+        this.parallelLookups = parallelLookups;
     }
 
+    /**
+     * Страница списка и счётчики по городам для боковой панели читаются параллельно;
+     * без счётчиков список показывается без панели.
+     */
     @GetMapping
-    public String getAll(Model model) {
-        model.addAttribute("candidates", candidateService.findAll());
+    public String getAll(Model model,
+                         @RequestParam(required = false) String after,
+                         @RequestParam(required = false) String before,
+                         @RequestParam(required = false) Integer cityId,
+                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        var filter = ListFilter.of(cityId, null, from, to);
+        var lookups = parallelLookups.start();
+        var page = lookups.required("page", () -> candidateService.findSummaryPage(filter, PageRequest.of(after, before, PAGE_SIZE)));
+        var facets = lookups.optional("facets", () -> candidateService.countByCity(filter, FACET_LIMIT), List.of());
+        try {
+            lookups.await();
+        } catch (ParallelLookups.LookupException exception) {
+            model.addAttribute("message", exception.getMessage());
+            return "errors/404";
+        }
+        model.addAttribute("page", page.get());
+        model.addAttribute("candidates", page.get().getItems());
+        model.addAttribute("facets", facets.get());
+        model.addAttribute("cityId", cityId);
+        model.addAttribute("from", from);
+        model.addAttribute("to", to);
         return "candidates/list";
     }
 
@@ -40,7 +75,7 @@ public class CandidateController {
     @PostMapping("/create")
     public String create(@ModelAttribute Candidate candidate, @RequestParam MultipartFile file, Model model) {
         try {
-            candidateService.save(candidate, new FileDto(file.getOriginalFilename(), file.getBytes()));
+            candidateService.save(candidate, new FileDto(file.getOriginalFilename(), file, file.getSize()));
             return "redirect:/candidates";
         } catch (Exception exception) {
             model.addAttribute("message", exception.getMessage());
@@ -48,22 +83,34 @@ public class CandidateController {
         }
     }
 
+    /**
+     * Кандидат и справочник городов читаются параллельно. Города обязательны: с пустым
+     * списком выбора форма редактирования отправила бы несуществующий cityId.
+     */
     @GetMapping("/{id}")
     public String getById(Model model, @PathVariable int id) {
-        var vacancyOptional = candidateService.findById(id);
-        if (vacancyOptional.isEmpty()) {
+        var lookups = parallelLookups.start();
+        var candidate = lookups.required("candidate", () -> candidateService.findById(id));
+        var cities = lookups.required("cities", cityService::findAll);
+        try {
+            lookups.await();
+        } catch (ParallelLookups.LookupException exception) {
+            model.addAttribute("message", exception.getMessage());
+            return "errors/404";
+        }
+        if (candidate.get().isEmpty()) {
             model.addAttribute("message", "Кандидат с указанным идентификатором не найден");
             return "errors/404";
         }
-        model.addAttribute("candidate", vacancyOptional.get());
-        model.addAttribute("cities", cityService.findAll());
+        model.addAttribute("candidate", candidate.get().get());
+        model.addAttribute("cities", cities.get());
         return "candidates/one";
     }
 
     @PostMapping("/update")
     public String update(@ModelAttribute Candidate candidate, @RequestParam MultipartFile file, Model model) {
         try {
-            var isUpdated = candidateService.update(candidate, new FileDto(file.getOriginalFilename(), file.getBytes()));
+            var isUpdated = candidateService.update(candidate, new FileDto(file.getOriginalFilename(), file, file.getSize()));
             if (!isUpdated) {
                 model.addAttribute("message", "Кандидат с указанным идентификатором не найден");
                 return "errors/404";
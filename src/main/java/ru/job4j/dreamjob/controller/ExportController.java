@@ -0,0 +1,74 @@
+package ru.job4j.dreamjob.controller;
+
+import net.jcip.annotations.ThreadSafe;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import ru.job4j.dreamjob.exports.ExportFormat;
+import ru.job4j.dreamjob.service.ExportService;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Потоковая выгрузка, по умолчанию сжатая gzip:
+ * curl -b cookies.txt -o vacancies.csv.gz
+ *      'http://localhost:8080/exports/vacancies?format=csv&from=2024-05-01T00:00:00&to=2024-05-02T00:00:00'
+ * Статус и заголовки уходят до первой строки, поэтому сбой посреди выгрузки виден только
+ * как оборванный файл - у gzip это ошибка распаковки.
+ */
+@ThreadSafe
+@RestController
+@RequestMapping("/exports")
+public class ExportController {
+    private static final DateTimeFormatter FILE_DATE = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+
+    private final ExportService exportService;
+
+    public ExportController(ExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    @GetMapping("/{kind}")
+    public void export(@PathVariable String kind,
+                       @RequestParam(defaultValue = "csv") String format,
+                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                       @RequestParam(defaultValue = "true") boolean gzip,
+                       HttpServletResponse response) throws IOException {
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.of(format);
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+        if (!"vacancies".equals(kind) && !"candidates".equals(kind)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        var fileName = kind
+                + (from == null ? "" : "-from-" + FILE_DATE.format(from))
+                + (to == null ? "" : "-to-" + FILE_DATE.format(to))
+                + "." + exportFormat.getExtension() + (gzip ? ".gz" : "");
+        response.setContentType(gzip ? "application/gzip" : exportFormat.getContentType() + ";charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"");
+        OutputStream output = response.getOutputStream();
+        if (gzip) {
+            output = new GZIPOutputStream(output, 64 * 1024);
+        }
+        if ("vacancies".equals(kind)) {
+            exportService.exportVacancies(exportFormat, from, to, output);
+        } else {
+            exportService.exportCandidates(exportFormat, from, to, output);
+        }
+    }
+}
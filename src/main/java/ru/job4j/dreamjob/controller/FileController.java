@@ -1,31 +1,147 @@
 package ru.job4j.dreamjob.controller;
 
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.http.ResponseEntity;
-import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
-import ru.job4j.dreamjob.model.User;
+import ru.job4j.dreamjob.dto.FileResource;
+import ru.job4j.dreamjob.dto.ImageSize;
 import ru.job4j.dreamjob.service.FileService;
 
-import javax.servlet.http.HttpSession;
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * Файлы отдаются потоком: тело - Resource, поэтому Spring сам обрабатывает Range (206),
+ * а в Tomcat крупные файлы без Range уходят через sendfile, минуя heap и user space.
+ * Содержимое по id не меняется, так что ответы кэшируются клиентом навсегда,
+ * а условные запросы получают 304 без чтения файла. Исключение - оригинал, отданный
+ * вместо ещё не построенного варианта ?size=thumb: его нельзя закэшировать под этим URL.
+ */
 @RestController
 @RequestMapping("/files")
 public class FileController {
+    static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    /* мелкие файлы дешевле дописать в буфер ответа, как это делает DefaultServlet Tomcat */
+    private static final long SENDFILE_THRESHOLD = 48 * 1024;
+
+    static final String CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+    static final String CACHE_CONTROL_FALLBACK = "no-cache";
+
     private final FileService fileService;
 
+    /* байты, отданные целиком (без Range); 304 и частичные ответы не считаются */
+    private final LongAdder downloadedBytes = new LongAdder();
+
     public FileController(FileService fileService) {
         this.fileService = fileService;
     }
 
+    public long getDownloadedBytes() {
+        return downloadedBytes.sum();
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<?> getById(@PathVariable int id) {
-        var contentOptional = fileService.getFileById(id);
-        if (contentOptional.isEmpty()) {
+    public ResponseEntity<Resource> getById(@PathVariable int id,
+                                            @RequestParam(required = false) String size,
+                                            HttpServletRequest request) {
+        var requested = ImageSize.of(size);
+        var fileOptional = fileService.getFileById(id, requested);
+        if (fileOptional.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
-        return ResponseEntity.ok(contentOptional.get().getContent());
+        var file = fileOptional.get();
+        var cacheControl = file.getVariant() == requested ? CACHE_CONTROL : CACHE_CONTROL_FALLBACK;
+        var etag = "\"" + file.getEtag() + "\"";
+        var lastModified = file.getLastModified().truncatedTo(ChronoUnit.SECONDS);
+        if (isNotModified(request, etag, lastModified)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .lastModified(lastModified)
+                    .header(HttpHeaders.CACHE_CONTROL, cacheControl)
+                    .build();
+        }
+        var response = ResponseEntity.ok()
+                .eTag(etag)
+                .lastModified(lastModified)
+                .header(HttpHeaders.CACHE_CONTROL, cacheControl)
+                .contentType(MediaTypeFactory.getMediaType(file.getName()).orElse(MediaType.APPLICATION_OCTET_STREAM))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.inline()
+                        .filename(file.getName(), StandardCharsets.UTF_8).build().toString())
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (request.getHeader(HttpHeaders.RANGE) == null) {
+            downloadedBytes.add(file.getSize());
+        }
+        if (canSendFile(request, file)) {
+            request.setAttribute(SENDFILE_FILENAME, localPath(file).toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, file.getSize());
+            return response.contentLength(file.getSize()).build();
+        }
+        return response.body(file.getContent());
+    }
+
+    /**
+     * If-None-Match главнее If-Modified-Since (RFC 7232, 6): если клиент прислал ETag,
+     * дату не смотрим. Для GET сравнение ETag слабое, поэтому префикс W/ игнорируется.
+     */
+    private static boolean isNotModified(HttpServletRequest request, String etag, Instant lastModified) {
+        var ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            for (var candidate : ifNoneMatch.split(",")) {
+                var value = candidate.trim();
+                if (value.startsWith("W/")) {
+                    value = value.substring(2);
+                }
+                if ("*".equals(value) || etag.equals(value)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        long ifModifiedSince;
+        try {
+            ifModifiedSince = request.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return ifModifiedSince != -1 && lastModified.toEpochMilli() <= ifModifiedSince;
+    }
+
+    /**
+     * sendfile возможен только для файлов на локальном диске; объекты из S3 идут потоком.
+     */
+    private static Path localPath(FileResource file) {
+        try {
+            return file.getContent().getFile().toPath();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static boolean canSendFile(HttpServletRequest request, FileResource file) {
+        return file.getContent().isFile()
+                && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))
+                && request.getHeader(HttpHeaders.RANGE) == null
+                && file.getSize() >= SENDFILE_THRESHOLD;
     }
 }
@@ -0,0 +1,60 @@
+package ru.job4j.dreamjob.controller;
+
+import net.jcip.annotations.ThreadSafe;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import ru.job4j.dreamjob.dto.ImportReport;
+import ru.job4j.dreamjob.imports.ImportFormat;
+import ru.job4j.dreamjob.imports.ImportKind;
+import ru.job4j.dreamjob.service.ImportService;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Массовая загрузка: тело запроса - CSV или NDJSON в UTF-8, читается потоком.
+ * curl --data-binary @postings.csv -H 'Content-Type: text/csv' -b cookies.txt \
+ *      'http://localhost:8080/imports/vacancies?name=partner-2024-05-01&format=csv'
+ * Если ответ пришёл с aborted=true, тот же запрос с тем же name продолжит загрузку.
+ * 409 - name уже занят загрузкой другого вида.
+ */
+@ThreadSafe
+@RestController
+@RequestMapping("/imports")
+public class ImportController {
+    private final ImportService importService;
+
+    public ImportController(ImportService importService) {
+        this.importService = importService;
+    }
+
+    @PostMapping("/{kind}")
+    public ResponseEntity<ImportReport> importRows(@PathVariable String kind,
+                                                   @RequestParam String name,
+                                                   @RequestParam(defaultValue = "csv") String format,
+                                                   InputStream body) {
+        ImportKind importKind;
+        ImportFormat importFormat;
+        try {
+            importKind = ImportKind.of(kind);
+            importFormat = ImportFormat.of(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        ImportReport report;
+        try {
+            report = importService.importRows(name, importKind, importFormat,
+                    new InputStreamReader(body, StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        return ResponseEntity.status(report.isAborted() ? HttpStatus.INTERNAL_SERVER_ERROR : HttpStatus.OK)
+                .body(report);
+    }
+}
@@ -0,0 +1,27 @@
+package ru.job4j.dreamjob.controller;
+
+import net.jcip.annotations.ThreadSafe;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.job4j.dreamjob.configuration.InstrumentedDataSource;
+import ru.job4j.dreamjob.dto.PoolStats;
+
+/**
+ * Текущее состояние пула соединений в JSON, чтобы подбирать его размер по данным.
+ */
+@ThreadSafe
+@RestController
+@RequestMapping("/metrics")
+public class MetricsController {
+    private final InstrumentedDataSource dataSource;
+
+    public MetricsController(InstrumentedDataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @GetMapping("/pool")
+    public PoolStats pool() {
+        return dataSource.getStats();
+    }
+}
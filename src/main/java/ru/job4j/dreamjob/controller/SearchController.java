@@ -0,0 +1,37 @@
+package ru.job4j.dreamjob.controller;
+
+import net.jcip.annotations.ThreadSafe;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import ru.job4j.dreamjob.service.SearchService;
+
+import java.util.List;
+
+@ThreadSafe
+@Controller
+@RequestMapping("/search")
+public class SearchController {
+    private static final int RESULT_LIMIT = 20;
+
+    private final SearchService searchService;
+
+    public SearchController(SearchService searchService) {
+        this.searchService = searchService;
+    }
+
+    @GetMapping
+    public String search(Model model, @RequestParam(name = "q", defaultValue = "") String query) {
+        model.addAttribute("query", query);
+        if (query.isBlank()) {
+            model.addAttribute("vacancies", List.of());
+            model.addAttribute("candidates", List.of());
+            return "search/list";
+        }
+        model.addAttribute("vacancies", searchService.searchVacancies(query, RESULT_LIMIT));
+        model.addAttribute("candidates", searchService.searchCandidates(query, RESULT_LIMIT));
+        return "search/list";
+    }
+}
@@ -1,32 +1,69 @@
 package ru.job4j.dreamjob.controller;
 
 import net.jcip.annotations.ThreadSafe;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import ru.job4j.dreamjob.concurrent.ParallelLookups;
 import ru.job4j.dreamjob.dto.FileDto;
+import ru.job4j.dreamjob.dto.ListFilter;
+import ru.job4j.dreamjob.dto.PageRequest;
 import ru.job4j.dreamjob.model.Vacancy;
 import ru.job4j.dreamjob.service.CityService;
 import ru.job4j.dreamjob.service.VacancyService;
 
 import javax.servlet.http.HttpSession;
+import java.time.LocalDate;
+import java.util.List;
 
 @ThreadSafe
 @Controller
 @RequestMapping("/vacancies")
 public class VacancyController {
+    private static final int PAGE_SIZE = 20;
+    private static final int FACET_LIMIT = 20;
+
     private final VacancyService vacancyService;
     private final CityService cityService;
+    private final ParallelLookups parallelLookups;
 
-    public VacancyController(VacancyService vacancyService, CityService cityService) {
+    public VacancyController(VacancyService vacancyService, CityService cityService, ParallelLookups parallelLookups) {
         this.vacancyService = vacancyService;
         this.cityService = cityService;
+        this.parallelLookups = parallelLookups;
     }
 
+    /**
+     * Страница списка и счётчики по городам для боковой панели читаются параллельно;
+     * без счётчиков список показывается без панели.
+     */
     @GetMapping
-    public String getAll(Model model) {
-        model.addAttribute("vacancies", vacancyService.findAll());
+    public String getAll(Model model,
+                         @RequestParam(required = false) String after,
+                         @RequestParam(required = false) String before,
+                         @RequestParam(required = false) Integer cityId,
+                         @RequestParam(required = false) Boolean visible,
+                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        var filter = ListFilter.of(cityId, visible, from, to);
+        var lookups = parallelLookups.start();
+        var page = lookups.required("page", () -> vacancyService.findSummaryPage(filter, PageRequest.of(after, before, PAGE_SIZE)));
+        var facets = lookups.optional("facets", () -> vacancyService.countByCity(filter, FACET_LIMIT), List.of());
+        try {
+            lookups.await();
+        } catch (ParallelLookups.LookupException exception) {
+            model.addAttribute("message", exception.getMessage());
+            return "errors/404";
+        }
+        model.addAttribute("page", page.get());
+        model.addAttribute("vacancies", page.get().getItems());
+        model.addAttribute("facets", facets.get());
+        model.addAttribute("cityId", cityId);
+        model.addAttribute("visible", visible);
+        model.addAttribute("from", from);
+        model.addAttribute("to", to);
         return "vacancies/list";
     }
 
@@ -39,7 +76,7 @@ public class VacancyController {
     @PostMapping("/create")
     public String create(@ModelAttribute Vacancy vacancy, @RequestParam MultipartFile file, Model model) {
         try {
-            vacancyService.save(vacancy, new FileDto(file.getOriginalFilename(), file.getBytes()));
+            vacancyService.save(vacancy, new FileDto(file.getOriginalFilename(), file, file.getSize()));
             return "redirect:/vacancies";
         } catch (Exception exception) {
             model.addAttribute("message", exception.getMessage());
@@ -47,22 +84,34 @@ public class VacancyController {
         }
     }
 
+    /**
+     * Вакансия и справочник городов читаются параллельно. Города обязательны: с пустым
+     * списком выбора форма редактирования отправила бы несуществующий cityId.
+     */
     @GetMapping("/{id}")
     public String getById(Model model, @PathVariable int id) {
-        var vacancyOptional = vacancyService.findById(id);
-        if (vacancyOptional.isEmpty()) {
+        var lookups = parallelLookups.start();
+        var vacancy = lookups.required("vacancy", () -> vacancyService.findById(id));
+        var cities = lookups.required("cities", cityService::findAll);
+        try {
+            lookups.await();
+        } catch (ParallelLookups.LookupException exception) {
+            model.addAttribute("message", exception.getMessage());
+            return "errors/404";
+        }
+        if (vacancy.get().isEmpty()) {
             model.addAttribute("message", "Вакансия с указанным идентификатором не найдена");
             return "errors/404";
         }
-        model.addAttribute("vacancy", vacancyOptional.get());
-        model.addAttribute("cities", cityService.findAll());
+        model.addAttribute("vacancy", vacancy.get().get());
+        model.addAttribute("cities", cities.get());
         return "vacancies/one";
     }
 
     @PostMapping("/update")
     public String update(@ModelAttribute Vacancy vacancy, @RequestParam MultipartFile file, Model model) {
         try {
-            var isUpdated = vacancyService.update(vacancy, new FileDto(file.getOriginalFilename(), file.getBytes()));
+            var isUpdated = vacancyService.update(vacancy, new FileDto(file.getOriginalFilename(), file, file.getSize()));
             if (!isUpdated) {
                 model.addAttribute("message", "Вакансия с указанным идентификатором не найдена");
                 return "errors/404";
@@ -0,0 +1,77 @@
+package ru.job4j.dreamjob.dto;
+
+import ru.job4j.dreamjob.model.Candidate;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Строка списка кандидатов: только то, что показывает candidates/list.html, без description.
+ * Город и файл уже разрешены в имена тем же запросом.
+ */
+public class CandidateSummary {
+    private final int id;
+    private final String name;
+    private final LocalDateTime creationDate;
+    private final String cityName;
+    private final int fileId;
+    private final String fileName;
+
+    public CandidateSummary(int id, String name, LocalDateTime creationDate,
+                            String cityName, int fileId, String fileName) {
+        this.id = id;
+        this.name = name;
+        this.creationDate = creationDate;
+        this.cityName = cityName;
+        this.fileId = fileId;
+        this.fileName = fileName;
+    }
+
+    public static CandidateSummary of(Candidate candidate, String cityName, String fileName) {
+        return new CandidateSummary(candidate.getId(), candidate.getName(), candidate.getCreationDate(),
+                cityName, candidate.getFileId(), fileName);
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public LocalDateTime getCreationDate() {
+        return creationDate;
+    }
+
+    public String getCityName() {
+        return cityName;
+    }
+
+    public int getFileId() {
+        return fileId;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        CandidateSummary that = (CandidateSummary) o;
+        return id == that.id && fileId == that.fileId && Objects.equals(name, that.name)
+                && Objects.equals(creationDate, that.creationDate) && Objects.equals(cityName, that.cityName)
+                && Objects.equals(fileName, that.fileName);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, name, creationDate, cityName, fileId, fileName);
+    }
+}
@@ -0,0 +1,47 @@
+package ru.job4j.dreamjob.dto;
+
+import java.util.Objects;
+
+/**
+ * Пункт боковой панели фильтра: город и сколько строк в нём подходит под остальные условия.
+ */
+public class CityFacet {
+    private final int cityId;
+    private final String cityName;
+    private final long count;
+
+    public CityFacet(int cityId, String cityName, long count) {
+        this.cityId = cityId;
+        this.cityName = cityName;
+        this.count = count;
+    }
+
+    public int getCityId() {
+        return cityId;
+    }
+
+    public String getCityName() {
+        return cityName;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        CityFacet that = (CityFacet) o;
+        return cityId == that.cityId && count == that.count && Objects.equals(cityName, that.cityName);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(cityId, cityName, count);
+    }
+}
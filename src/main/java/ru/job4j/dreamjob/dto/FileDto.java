@@ -1,13 +1,25 @@
 package ru.job4j.dreamjob.dto;
 
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.InputStreamSource;
+
 public class FileDto {
     private String name;
 
-    private byte[] content; /*тут кроется различие. доменная модель хранит путь, а не содержимое*/
+    /*тут кроется различие. доменная модель хранит путь, а не содержимое.
+    содержимое не держим в памяти целиком: это источник потока, например сам MultipartFile*/
+    private InputStreamSource content;
 
-    public FileDto(String name, byte[] content) {
+    private long size;
+
+    public FileDto(String name, InputStreamSource content, long size) {
         this.name = name;
         this.content = content;
+        this.size = size;
+    }
+
+    public FileDto(String name, byte[] content) {
+        this(name, new ByteArrayResource(content), content.length);
     }
 
     public String getName() {
@@ -18,11 +30,23 @@ public class FileDto {
         this.name = name;
     }
 
-    public byte[] getContent() {
+    public InputStreamSource getContent() {
         return content;
     }
 
-    public void setContent(byte[] content) {
+    public void setContent(InputStreamSource content) {
         this.content = content;
     }
+
+    public long getSize() {
+        return size;
+    }
+
+    public void setSize(long size) {
+        this.size = size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
 }
@@ -0,0 +1,80 @@
+package ru.job4j.dreamjob.dto;
+
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+
+import java.nio.file.Path;
+import java.time.Instant;
+
+/**
+ * Метаданные сохранённого файла для отдачи клиенту. Содержимое не загружается
+ * в память - его читают потоком прямо из хранилища.
+ */
+public class FileResource {
+    private final String name;
+    /* ключ в FileStorage */
+    private final String key;
+    private final Resource content;
+    private final long size;
+    private final Instant lastModified;
+    /* значение сильного ETag без кавычек */
+    private final String etag;
+    private final ImageSize variant;
+
+    public FileResource(String name, Path path, long size, Instant lastModified) {
+        this(name, path, size, lastModified, etagOf(path.toString(), size, lastModified));
+    }
+
+    public FileResource(String name, Path path, long size, Instant lastModified, String etag) {
+        this(name, path.toString(), new FileSystemResource(path), size, lastModified, etag, ImageSize.ORIGINAL);
+    }
+
+    public FileResource(String name, String key, Resource content, long size, Instant lastModified,
+                        String etag, ImageSize variant) {
+        this.name = name;
+        this.key = key;
+        this.content = content;
+        this.size = size;
+        this.lastModified = lastModified;
+        this.etag = etag;
+        this.variant = variant;
+    }
+
+    /**
+     * ETag для файлов без хэша содержимого: ключ, размер и время изменения,
+     * как это делают nginx и Apache.
+     */
+    public static String etagOf(String key, long size, Instant lastModified) {
+        return Integer.toHexString(key.hashCode())
+                + "-" + Long.toHexString(size)
+                + "-" + Long.toHexString(lastModified.toEpochMilli());
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public Resource getContent() {
+        return content;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public Instant getLastModified() {
+        return lastModified;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public ImageSize getVariant() {
+        return variant;
+    }
+}
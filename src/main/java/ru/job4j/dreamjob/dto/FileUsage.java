@@ -0,0 +1,48 @@
+package ru.job4j.dreamjob.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Строка files вместе с числом вакансий и кандидатов, которые на неё реально ссылаются.
+ */
+public class FileUsage {
+    private final int id;
+    private final String path;
+    private final String hash;
+    private final int refCount;
+    private final int references;
+    private final LocalDateTime createdAt;
+
+    public FileUsage(int id, String path, String hash, int refCount, int references, LocalDateTime createdAt) {
+        this.id = id;
+        this.path = path;
+        this.hash = hash;
+        this.refCount = refCount;
+        this.references = references;
+        this.createdAt = createdAt;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    public int getRefCount() {
+        return refCount;
+    }
+
+    public int getReferences() {
+        return references;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
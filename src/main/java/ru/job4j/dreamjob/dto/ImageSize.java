@@ -0,0 +1,39 @@
+package ru.job4j.dreamjob.dto;
+
+import java.util.Locale;
+
+/**
+ * Варианты картинки, которые можно запросить через /files/{id}?size=...
+ * maxDimension - длина большей стороны варианта в пикселях.
+ */
+public enum ImageSize {
+    ORIGINAL(0),
+    THUMB(200),
+    MEDIUM(640);
+
+    private final int maxDimension;
+
+    ImageSize(int maxDimension) {
+        this.maxDimension = maxDimension;
+    }
+
+    public int getMaxDimension() {
+        return maxDimension;
+    }
+
+    public String getSuffix() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Неизвестное или пустое значение параметра означает оригинал.
+     */
+    public static ImageSize of(String value) {
+        for (var size : values()) {
+            if (size.getSuffix().equalsIgnoreCase(value)) {
+                return size;
+            }
+        }
+        return ORIGINAL;
+    }
+}
@@ -0,0 +1,25 @@
+package ru.job4j.dreamjob.dto;
+
+public class ImportError {
+    /* номер записи во входном файле с 1, без заголовка CSV */
+    private final int row;
+    private final String message;
+
+    public ImportError(int row, String message) {
+        this.row = row;
+        this.message = message;
+    }
+
+    public int getRow() {
+        return row;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return "row " + row + ": " + message;
+    }
+}
@@ -0,0 +1,115 @@
+package ru.job4j.dreamjob.dto;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Итоги одного запуска импорта. committedRows - сколько записей файла обработано
+ * и зафиксировано с учётом прошлых запусков: повторный запуск с тем же именем начнёт
+ * со следующей. Если запуск прервался (aborted), незафиксированная пачка откатилась целиком.
+ */
+public class ImportReport {
+    private final String name;
+    private final String kind;
+    private final int maxErrors;
+    private final List<ImportError> errors = new ArrayList<>();
+    private int resumedFrom;
+    private int committedRows;
+    private long importedRows;
+    private long failedRows;
+    private boolean errorsTruncated;
+    private String abortReason;
+    private Duration duration = Duration.ZERO;
+
+    public ImportReport(String name, String kind, int maxErrors) {
+        this.name = name;
+        this.kind = kind;
+        this.maxErrors = maxErrors;
+    }
+
+    public void resumedFrom(int rows) {
+        resumedFrom = rows;
+        committedRows = rows;
+    }
+
+    public void failed(int row, String message) {
+        failedRows++;
+        if (errors.size() < maxErrors) {
+            errors.add(new ImportError(row, message));
+        } else {
+            errorsTruncated = true;
+        }
+    }
+
+    public void committed(int rows, int imported) {
+        committedRows = rows;
+        importedRows += imported;
+    }
+
+    public void abort(String reason) {
+        abortReason = reason;
+    }
+
+    public void finish(Duration duration) {
+        this.duration = duration;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getKind() {
+        return kind;
+    }
+
+    public int getResumedFrom() {
+        return resumedFrom;
+    }
+
+    public int getCommittedRows() {
+        return committedRows;
+    }
+
+    public long getImportedRows() {
+        return importedRows;
+    }
+
+    public long getFailedRows() {
+        return failedRows;
+    }
+
+    public List<ImportError> getErrors() {
+        return errors;
+    }
+
+    public boolean isErrorsTruncated() {
+        return errorsTruncated;
+    }
+
+    public boolean isAborted() {
+        return abortReason != null;
+    }
+
+    public String getAbortReason() {
+        return abortReason;
+    }
+
+    public long getDurationMillis() {
+        return duration.toMillis();
+    }
+
+    public double getRowsPerSecond() {
+        var seconds = duration.toNanos() / 1e9;
+        return seconds == 0 ? 0 : (committedRows - resumedFrom) / seconds;
+    }
+
+    @Override
+    public String toString() {
+        return "ImportReport{name=" + name + ", kind=" + kind + ", resumedFrom=" + resumedFrom
+                + ", committedRows=" + committedRows + ", importedRows=" + importedRows
+                + ", failedRows=" + failedRows + ", aborted=" + isAborted()
+                + (isAborted() ? " (" + abortReason + ")" : "")
+                + ", durationMillis=" + getDurationMillis() + "}";
+    }
+}
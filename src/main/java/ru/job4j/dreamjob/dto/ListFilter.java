@@ -0,0 +1,80 @@
+package ru.job4j.dreamjob.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Фильтр списков вакансий и кандидатов. Пустое поле - условие не накладывается.
+ * Диапазон дат полуоткрытый: from включительно, to не включительно.
+ * visible есть только у вакансий, кандидаты его не учитывают.
+ */
+public class ListFilter {
+    private static final ListFilter NONE = new ListFilter(null, null, null, null);
+
+    private final Integer cityId;
+    private final Boolean visible;
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+
+    public ListFilter(Integer cityId, Boolean visible, LocalDateTime from, LocalDateTime to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("Date range must not end before it starts");
+        }
+        this.cityId = cityId;
+        this.visible = visible;
+        this.from = from;
+        this.to = to;
+    }
+
+    public static ListFilter none() {
+        return NONE;
+    }
+
+    /**
+     * Параметры из адресной строки: даты - дни целиком, to включает свой день.
+     * Перепутанные местами даты не ошибка для пользователя - меняем их местами.
+     */
+    public static ListFilter of(Integer cityId, Boolean visible, LocalDate from, LocalDate to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            return of(cityId, visible, to, from);
+        }
+        return new ListFilter(cityId, visible,
+                from == null ? null : from.atStartOfDay(),
+                to == null ? null : to.plusDays(1).atStartOfDay());
+    }
+
+    public Optional<Integer> getCityId() {
+        return Optional.ofNullable(cityId);
+    }
+
+    public Optional<Boolean> getVisible() {
+        return Optional.ofNullable(visible);
+    }
+
+    public Optional<LocalDateTime> getFrom() {
+        return Optional.ofNullable(from);
+    }
+
+    public Optional<LocalDateTime> getTo() {
+        return Optional.ofNullable(to);
+    }
+
+    /**
+     * Тот же фильтр без города - по нему считаются счётчики по городам,
+     * чтобы выбор одного города не обнулял остальные.
+     */
+    public ListFilter withoutCity() {
+        return new ListFilter(null, visible, from, to);
+    }
+
+    /**
+     * Проверка в памяти, для репозиториев без базы.
+     */
+    public boolean matches(int cityId, Boolean visible, LocalDateTime creationDate) {
+        return (this.cityId == null || this.cityId == cityId)
+                && (this.visible == null || visible == null || this.visible.equals(visible))
+                && (from == null || !creationDate.isBefore(from))
+                && (to == null || creationDate.isBefore(to));
+    }
+}
@@ -0,0 +1,63 @@
+package ru.job4j.dreamjob.dto;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Страница ленты, отсортированной от новых к старым, и токены соседних страниц.
+ */
+public class Page<T> {
+    private final List<T> items;
+    private final String nextToken;
+    private final String prevToken;
+
+    public Page(List<T> items, String nextToken, String prevToken) {
+        this.items = items;
+        this.nextToken = nextToken;
+        this.prevToken = prevToken;
+    }
+
+    /**
+     * Собирает страницу из выборки, сделанной с лимитом size + 1: лишняя строка
+     * говорит только о том, что дальше есть ещё данные, и в страницу не попадает.
+     * Выборка назад приходит в порядке возрастания и разворачивается.
+     */
+    public static <T> Page<T> of(List<T> fetched, PageRequest request, Function<T, PageCursor> cursorOf) {
+        var hasMore = fetched.size() > request.getSize();
+        var items = new ArrayList<>(hasMore ? fetched.subList(0, request.getSize()) : fetched);
+        if (request.isBackward()) {
+            Collections.reverse(items);
+        }
+        if (items.isEmpty()) {
+            return new Page<>(items, null, null);
+        }
+        var first = cursorOf.apply(items.get(0)).encode();
+        var last = cursorOf.apply(items.get(items.size() - 1)).encode();
+        if (request.isBackward()) {
+            return new Page<>(items, last, hasMore ? first : null);
+        }
+        return new Page<>(items, hasMore ? last : null, request.getCursor().isPresent() ? first : null);
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public String getNextToken() {
+        return nextToken;
+    }
+
+    public String getPrevToken() {
+        return prevToken;
+    }
+
+    public boolean hasNext() {
+        return nextToken != null;
+    }
+
+    public boolean hasPrevious() {
+        return prevToken != null;
+    }
+}
@@ -0,0 +1,80 @@
+package ru.job4j.dreamjob.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Позиция в ленте, упорядоченной по (creation_date, id).
+ * В токен попадает ровно то значение даты, что лежит в базе, поэтому граница страницы не "плывёт".
+ */
+public class PageCursor implements Comparable<PageCursor> {
+    private static final Comparator<PageCursor> ORDER = Comparator
+            .comparing(PageCursor::getCreationDate)
+            .thenComparingInt(PageCursor::getId);
+
+    private final LocalDateTime creationDate;
+    private final int id;
+
+    public PageCursor(LocalDateTime creationDate, int id) {
+        this.creationDate = Objects.requireNonNull(creationDate);
+        this.id = id;
+    }
+
+    public LocalDateTime getCreationDate() {
+        return creationDate;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String encode() {
+        var raw = creationDate + "_" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Optional<PageCursor> decode(String token) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+        try {
+            var raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            var separator = raw.lastIndexOf('_');
+            if (separator < 0) {
+                return Optional.empty();
+            }
+            var creationDate = LocalDateTime.parse(raw.substring(0, separator));
+            var id = Integer.parseInt(raw.substring(separator + 1));
+            return Optional.of(new PageCursor(creationDate, id));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public int compareTo(PageCursor other) {
+        return ORDER.compare(this, other);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        PageCursor that = (PageCursor) o;
+        return id == that.id && creationDate.equals(that.creationDate);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(creationDate, id);
+    }
+}
@@ -0,0 +1,58 @@
+package ru.job4j.dreamjob.dto;
+
+import java.util.Optional;
+
+public class PageRequest {
+    public static final int MAX_SIZE = 100;
+
+    private final PageCursor cursor;
+    private final boolean backward;
+    private final int size;
+
+    private PageRequest(PageCursor cursor, boolean backward, int size) {
+        if (size <= 0 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_SIZE);
+        }
+        this.cursor = cursor;
+        this.backward = backward;
+        this.size = size;
+    }
+
+    public static PageRequest first(int size) {
+        return new PageRequest(null, false, size);
+    }
+
+    public static PageRequest after(PageCursor cursor, int size) {
+        return new PageRequest(cursor, false, size);
+    }
+
+    public static PageRequest before(PageCursor cursor, int size) {
+        return new PageRequest(cursor, true, size);
+    }
+
+    /**
+     * Разбирает токены из адресной строки. Испорченный или устаревший токен
+     * не ошибка для пользователя - просто показываем первую страницу.
+     */
+    public static PageRequest of(String after, String before, int size) {
+        var afterCursor = PageCursor.decode(after);
+        if (afterCursor.isPresent()) {
+            return after(afterCursor.get(), size);
+        }
+        return PageCursor.decode(before)
+                .map(cursor -> before(cursor, size))
+                .orElseGet(() -> first(size));
+    }
+
+    public Optional<PageCursor> getCursor() {
+        return Optional.ofNullable(cursor);
+    }
+
+    public boolean isBackward() {
+        return backward;
+    }
+
+    public int getSize() {
+        return size;
+    }
+}
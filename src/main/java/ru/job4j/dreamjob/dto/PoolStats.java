@@ -0,0 +1,73 @@
+package ru.job4j.dreamjob.dto;
+
+import java.util.Map;
+
+public class PoolStats {
+    private final int active;
+    private final int idle;
+    private final int maxTotal;
+    private final int waiters;
+    private final long checkouts;
+    private final long failedCheckouts;
+    private final double meanWaitMillis;
+
+    /* число выдач соединения по корзинам времени ожидания: lt_5ms - от 1 до 5 мс */
+    private final Map<String, Long> waitHistogram;
+
+    public PoolStats(int active, int idle, int maxTotal, int waiters, long checkouts, long failedCheckouts,
+                     double meanWaitMillis, Map<String, Long> waitHistogram) {
+        this.active = active;
+        this.idle = idle;
+        this.maxTotal = maxTotal;
+        this.waiters = waiters;
+        this.checkouts = checkouts;
+        this.failedCheckouts = failedCheckouts;
+        this.meanWaitMillis = meanWaitMillis;
+        this.waitHistogram = waitHistogram;
+    }
+
+    public int getActive() {
+        return active;
+    }
+
+    public int getIdle() {
+        return idle;
+    }
+
+    public int getMaxTotal() {
+        return maxTotal;
+    }
+
+    public int getWaiters() {
+        return waiters;
+    }
+
+    public long getCheckouts() {
+        return checkouts;
+    }
+
+    public long getFailedCheckouts() {
+        return failedCheckouts;
+    }
+
+    public double getMeanWaitMillis() {
+        return meanWaitMillis;
+    }
+
+    public Map<String, Long> getWaitHistogram() {
+        return waitHistogram;
+    }
+
+    @Override
+    public String toString() {
+        return "PoolStats{"
+                + "active=" + active
+                + ", idle=" + idle
+                + ", maxTotal=" + maxTotal
+                + ", waiters=" + waiters
+                + ", checkouts=" + checkouts
+                + ", failedCheckouts=" + failedCheckouts
+                + ", meanWaitMillis=" + meanWaitMillis
+                + '}';
+    }
+}
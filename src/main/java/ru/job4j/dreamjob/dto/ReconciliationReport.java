@@ -0,0 +1,127 @@
+package ru.job4j.dreamjob.dto;
+
+import java.time.Duration;
+
+/**
+ * Итоги одного прохода OrphanFileReaper. В режиме dry-run deleted* остаются нулями,
+ * а reclaimedBytes показывает, сколько места освободил бы настоящий проход.
+ */
+public class ReconciliationReport {
+    private final boolean dryRun;
+    private long scannedRows;
+    private long scannedBlobs;
+    private long orphanRows;
+    private long untrackedBlobs;
+    private long missingBlobs;
+    private long refCountDrift;
+    private long deletedRows;
+    private long deletedBlobs;
+    private long reclaimedBytes;
+    private Duration duration = Duration.ZERO;
+
+    public ReconciliationReport(boolean dryRun) {
+        this.dryRun = dryRun;
+    }
+
+    public void scannedRow() {
+        scannedRows++;
+    }
+
+    public void scannedBlob() {
+        scannedBlobs++;
+    }
+
+    public void orphanRow() {
+        orphanRows++;
+    }
+
+    public void untrackedBlob(long size) {
+        untrackedBlobs++;
+        reclaimedBytes += size;
+    }
+
+    public void missingBlob() {
+        missingBlobs++;
+    }
+
+    public void refCountDrift() {
+        refCountDrift++;
+    }
+
+    public void deletedRow() {
+        deletedRows++;
+    }
+
+    public void deletedBlob() {
+        deletedBlobs++;
+    }
+
+    public void reclaimed(long size) {
+        reclaimedBytes += size;
+    }
+
+    public void finish(Duration duration) {
+        this.duration = duration;
+    }
+
+    public boolean isDryRun() {
+        return dryRun;
+    }
+
+    public long getScannedRows() {
+        return scannedRows;
+    }
+
+    public long getScannedBlobs() {
+        return scannedBlobs;
+    }
+
+    public long getOrphanRows() {
+        return orphanRows;
+    }
+
+    public long getUntrackedBlobs() {
+        return untrackedBlobs;
+    }
+
+    public long getMissingBlobs() {
+        return missingBlobs;
+    }
+
+    public long getRefCountDrift() {
+        return refCountDrift;
+    }
+
+    public long getDeletedRows() {
+        return deletedRows;
+    }
+
+    public long getDeletedBlobs() {
+        return deletedBlobs;
+    }
+
+    public long getReclaimedBytes() {
+        return reclaimedBytes;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    @Override
+    public String toString() {
+        return "ReconciliationReport{"
+                + "dryRun=" + dryRun
+                + ", scannedRows=" + scannedRows
+                + ", scannedBlobs=" + scannedBlobs
+                + ", orphanRows=" + orphanRows
+                + ", untrackedBlobs=" + untrackedBlobs
+                + ", missingBlobs=" + missingBlobs
+                + ", refCountDrift=" + refCountDrift
+                + ", deletedRows=" + deletedRows
+                + ", deletedBlobs=" + deletedBlobs
+                + ", reclaimedBytes=" + reclaimedBytes
+                + ", duration=" + duration
+                + '}';
+    }
+}
@@ -0,0 +1,49 @@
+package ru.job4j.dreamjob.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Позиция в выдаче полнотекстового поиска, упорядоченной по (rank, id) по убыванию.
+ */
+public class SearchCursor {
+    private final double rank;
+    private final int id;
+
+    public SearchCursor(double rank, int id) {
+        this.rank = rank;
+        this.id = id;
+    }
+
+    public double getRank() {
+        return rank;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String encode() {
+        var raw = rank + "_" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Optional<SearchCursor> decode(String token) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+        try {
+            var raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            var separator = raw.lastIndexOf('_');
+            if (separator < 0) {
+                return Optional.empty();
+            }
+            return Optional.of(new SearchCursor(
+                    Double.parseDouble(raw.substring(0, separator)),
+                    Integer.parseInt(raw.substring(separator + 1))));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package ru.job4j.dreamjob.dto;
+
+/**
+ * Загрузка, уже лежащая в хранилище, но ещё без строки в files.
+ */
+public class StagedFile {
+    private final String name;
+
+    private final String key;
+
+    private final String hash;
+
+    private final long size;
+
+    public StagedFile(String name, String key, String hash, long size) {
+        this.name = name;
+        this.key = key;
+        this.hash = hash;
+        this.size = size;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    public long getSize() {
+        return size;
+    }
+}
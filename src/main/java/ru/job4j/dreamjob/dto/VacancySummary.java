@@ -0,0 +1,84 @@
+package ru.job4j.dreamjob.dto;
+
+import ru.job4j.dreamjob.model.Vacancy;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Строка списка вакансий: только то, что показывает vacancies/list.html, без description.
+ * Название города и имя файла приходят из того же запроса (join с cities и files),
+ * поэтому шаблону не нужен список всех городов.
+ */
+public class VacancySummary {
+    private final int id;
+    private final String title;
+    private final boolean visible;
+    private final LocalDateTime creationDate;
+    private final String cityName;
+    private final int fileId;
+    private final String fileName;
+
+    public VacancySummary(int id, String title, boolean visible, LocalDateTime creationDate,
+                          String cityName, int fileId, String fileName) {
+        this.id = id;
+        this.title = title;
+        this.visible = visible;
+        this.creationDate = creationDate;
+        this.cityName = cityName;
+        this.fileId = fileId;
+        this.fileName = fileName;
+    }
+
+    public static VacancySummary of(Vacancy vacancy, String cityName, String fileName) {
+        return new VacancySummary(vacancy.getId(), vacancy.getTitle(), vacancy.getVisible(), vacancy.getCreationDate(),
+                cityName, vacancy.getFileId(), fileName);
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public boolean getVisible() {
+        return visible;
+    }
+
+    public LocalDateTime getCreationDate() {
+        return creationDate;
+    }
+
+    public String getCityName() {
+        return cityName;
+    }
+
+    public int getFileId() {
+        return fileId;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        VacancySummary that = (VacancySummary) o;
+        return id == that.id && visible == that.visible && fileId == that.fileId && Objects.equals(title, that.title)
+                && Objects.equals(creationDate, that.creationDate) && Objects.equals(cityName, that.cityName)
+                && Objects.equals(fileName, that.fileName);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, title, visible, creationDate, cityName, fileId, fileName);
+    }
+}
@@ -0,0 +1,54 @@
+package ru.job4j.dreamjob.exports;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * CSV по RFC 4180, читается обратно CsvRowReader: поля с запятой, кавычкой или переводом
+ * строки берутся в кавычки, кавычки внутри удваиваются, null - пустое поле.
+ */
+public class CsvRowWriter implements RowWriter {
+    private final Writer writer;
+
+    public CsvRowWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    public void header(String... columns) throws IOException {
+        row((Object[]) columns);
+    }
+
+    @Override
+    public void row(Object... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (values[i] != null) {
+                writeField(values[i].toString());
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    private void writeField(String value) throws IOException {
+        var needsQuotes = false;
+        for (int i = 0; i < value.length() && !needsQuotes; i++) {
+            var c = value.charAt(i);
+            needsQuotes = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!needsQuotes) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
@@ -0,0 +1,40 @@
+package ru.job4j.dreamjob.exports;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+
+public enum ExportFormat {
+    CSV("text/csv", "csv"), NDJSON("application/x-ndjson", "ndjson");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public RowWriter open(Writer writer) throws IOException {
+        return this == CSV ? new CsvRowWriter(writer) : new NdjsonRowWriter(writer);
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Принимает имя формата (csv, ndjson, jsonl) без учёта регистра.
+     */
+    public static ExportFormat of(String name) {
+        return switch (name.strip().toLowerCase(Locale.ROOT)) {
+            case "csv" -> CSV;
+            case "ndjson", "jsonl" -> NDJSON;
+            default -> throw new IllegalArgumentException("Unknown export format: " + name);
+        };
+    }
+}
@@ -0,0 +1,86 @@
+package ru.job4j.dreamjob.exports;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+import ru.job4j.dreamjob.service.ExportService;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Выгрузка в файл из командной строки (например, из ночного cron), после которой
+ * приложение завершается:
+ * java -jar dreamjob.jar --spring.main.web-application-type=none
+ *      --export.file=/data/vacancies.csv.gz --export.kind=vacancies
+ *      [--export.from=2024-05-01T00:00:00] [--export.to=2024-05-02T00:00:00]
+ * Формат берётся по расширению (.csv, .ndjson, .jsonl), .gz на конце включает сжатие.
+ * Файл пишется во временный рядом и переименовывается в конце, чтобы забирающий его
+ * процесс не увидел половину выгрузки.
+ */
+@Component
+@ConditionalOnProperty(name = "export.file")
+public class ExportRunner implements ApplicationRunner {
+    private final ExportService exportService;
+    private final ApplicationContext context;
+    private final Path file;
+    private final String kind;
+    private final String from;
+    private final String to;
+
+    public ExportRunner(ExportService exportService, ApplicationContext context,
+                        @Value("${export.file}") String file,
+                        @Value("${export.kind}") String kind,
+                        @Value("${export.from:}") String from,
+                        @Value("${export.to:}") String to) {
+        this.exportService = exportService;
+        this.context = context;
+        this.file = Path.of(file).toAbsolutePath();
+        this.kind = kind;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        var fileName = file.getFileName().toString();
+        var gzip = fileName.endsWith(".gz");
+        var baseName = gzip ? fileName.substring(0, fileName.length() - 3) : fileName;
+        var format = ExportFormat.of(baseName.substring(baseName.lastIndexOf('.') + 1));
+        var fromDate = from.isBlank() ? null : LocalDateTime.parse(from);
+        var toDate = to.isBlank() ? null : LocalDateTime.parse(to);
+        try {
+            var temp = Files.createTempFile(file.getParent(), "." + fileName, ".tmp");
+            try {
+                OutputStream output = Files.newOutputStream(temp);
+                if (gzip) {
+                    output = new GZIPOutputStream(output, 64 * 1024);
+                }
+                if ("vacancies".equals(kind)) {
+                    exportService.exportVacancies(format, fromDate, toDate, output);
+                } else if ("candidates".equals(kind)) {
+                    exportService.exportCandidates(format, fromDate, toDate, output);
+                } else {
+                    output.close();
+                    throw new IllegalArgumentException("Unknown export kind: " + kind);
+                }
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        System.exit(SpringApplication.exit(context, () -> 0));
+    }
+}
@@ -0,0 +1,56 @@
+package ru.job4j.dreamjob.exports;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDateTime;
+
+/**
+ * NDJSON: по JSON-объекту на строку, ключи - имена колонок, даты - в ISO-8601.
+ */
+public class NdjsonRowWriter implements RowWriter {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final JsonGenerator generator;
+    private String[] columns;
+
+    public NdjsonRowWriter(Writer writer) throws IOException {
+        this.generator = MAPPER.getFactory().createGenerator(writer);
+        /* объекты разделяются переводом строки, а не пробелом, как по умолчанию */
+        this.generator.setRootValueSeparator(null);
+    }
+
+    @Override
+    public void header(String... columns) {
+        this.columns = columns;
+    }
+
+    @Override
+    public void row(Object... values) throws IOException {
+        generator.writeStartObject();
+        for (int i = 0; i < values.length; i++) {
+            var value = values[i];
+            generator.writeFieldName(columns[i]);
+            if (value == null) {
+                generator.writeNull();
+            } else if (value instanceof Number number) {
+                generator.writeNumber(number.longValue());
+            } else if (value instanceof Boolean bool) {
+                generator.writeBoolean(bool);
+            } else if (value instanceof LocalDateTime dateTime) {
+                generator.writeString(dateTime.toString());
+            } else {
+                generator.writeString(value.toString());
+            }
+        }
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.close();
+    }
+}
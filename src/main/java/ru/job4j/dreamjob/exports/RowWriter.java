@@ -0,0 +1,17 @@
+package ru.job4j.dreamjob.exports;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Пишет записи по одной прямо в поток; сам ничего не накапливает.
+ */
+public interface RowWriter extends Closeable {
+
+    void header(String... columns) throws IOException;
+
+    /**
+     * Значения в порядке колонок заголовка: строки, числа, boolean, LocalDateTime или null.
+     */
+    void row(Object... values) throws IOException;
+}
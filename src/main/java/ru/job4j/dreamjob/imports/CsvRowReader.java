@@ -0,0 +1,107 @@
+package ru.job4j.dreamjob.imports;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * CSV по RFC 4180: первая строка - имена колонок, разделитель - запятая, поля в кавычках
+ * могут содержать запятые, переводы строк и удвоенные кавычки.
+ */
+public class CsvRowReader implements RowReader {
+    private final BufferedReader reader;
+    private List<String> header;
+    private int number;
+
+    public CsvRowReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+    }
+
+    @Override
+    public Row next() throws IOException {
+        if (header == null) {
+            var names = readRecord();
+            if (names == null) {
+                return null;
+            }
+            header = new ArrayList<>();
+            for (var name : names) {
+                header.add(name.strip().toLowerCase(Locale.ROOT));
+            }
+        }
+        List<String> fields;
+        do {
+            fields = readRecord();
+            if (fields == null) {
+                return null;
+            }
+        } while (fields.size() == 1 && fields.get(0).isBlank());
+        number++;
+        if (fields.size() != header.size()) {
+            return Row.malformed(number, "Expected " + header.size() + " fields, got " + fields.size());
+        }
+        var values = new HashMap<String, String>();
+        for (int i = 0; i < header.size(); i++) {
+            values.put(header.get(i), fields.get(i));
+        }
+        return Row.of(number, values);
+    }
+
+    /**
+     * @return поля записи или null в конце файла
+     */
+    private List<String> readRecord() throws IOException {
+        var line = reader.readLine();
+        if (line == null) {
+            return null;
+        }
+        var fields = new ArrayList<String>();
+        var field = new StringBuilder();
+        var quoted = false;
+        int i = 0;
+        while (true) {
+            if (i == line.length()) {
+                if (!quoted) {
+                    break;
+                }
+                var next = reader.readLine();
+                if (next == null) {
+                    break;
+                }
+                field.append('\n');
+                line = next;
+                i = 0;
+                continue;
+            }
+            var c = line.charAt(i++);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i < line.length() && line.charAt(i) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,24 @@
+package ru.job4j.dreamjob.imports;
+
+import java.io.Reader;
+import java.util.Locale;
+
+public enum ImportFormat {
+    CSV, NDJSON;
+
+    public RowReader open(Reader reader) {
+        return this == CSV ? new CsvRowReader(reader) : new NdjsonRowReader(reader);
+    }
+
+    /**
+     * Принимает имя формата (csv, ndjson, jsonl) без учёта регистра.
+     */
+    public static ImportFormat of(String name) {
+        var normalized = name.strip().toLowerCase(Locale.ROOT);
+        return switch (normalized) {
+            case "csv" -> CSV;
+            case "ndjson", "jsonl" -> NDJSON;
+            default -> throw new IllegalArgumentException("Unknown import format: " + name);
+        };
+    }
+}
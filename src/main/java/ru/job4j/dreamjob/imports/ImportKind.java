@@ -0,0 +1,11 @@
+package ru.job4j.dreamjob.imports;
+
+import java.util.Locale;
+
+public enum ImportKind {
+    VACANCIES, CANDIDATES;
+
+    public static ImportKind of(String name) {
+        return valueOf(name.strip().toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,67 @@
+package ru.job4j.dreamjob.imports;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+import ru.job4j.dreamjob.service.ImportService;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Импорт из командной строки, после которого приложение завершается:
+ * java -jar dreamjob.jar --spring.main.web-application-type=none
+ *      --import.file=postings.csv --import.kind=vacancies [--import.name=...] [--import.format=ndjson]
+ * Имя импорта по умолчанию - имя файла, формат - по расширению (.csv, .ndjson, .jsonl).
+ * Код выхода 1, если импорт прервался; повторный запуск продолжит с места остановки.
+ */
+@Component
+@ConditionalOnProperty(name = "import.file")
+public class ImportRunner implements ApplicationRunner {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ImportRunner.class);
+
+    private final ImportService importService;
+    private final ApplicationContext context;
+    private final Path file;
+    private final String kind;
+    private final String name;
+    private final String format;
+
+    public ImportRunner(ImportService importService, ApplicationContext context,
+                        @Value("${import.file}") String file,
+                        @Value("${import.kind}") String kind,
+                        @Value("${import.name:}") String name,
+                        @Value("${import.format:}") String format) {
+        this.importService = importService;
+        this.context = context;
+        this.file = Path.of(file);
+        this.kind = kind;
+        this.name = name;
+        this.format = format;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        var fileName = file.getFileName().toString();
+        var importFormat = ImportFormat.of(format.isBlank()
+                ? fileName.substring(fileName.lastIndexOf('.') + 1)
+                : format);
+        try (var reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            var report = importService.importRows(name.isBlank() ? fileName : name, ImportKind.of(kind),
+                    importFormat, reader);
+            report.getErrors().forEach(error -> LOGGER.warn("Rejected {}", error));
+            System.exit(SpringApplication.exit(context, () -> report.isAborted() ? 1 : 0));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package ru.job4j.dreamjob.imports;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.Locale;
+
+/**
+ * NDJSON: по одному JSON-объекту на строку. Вложенные значения не поддерживаются,
+ * скаляры берутся как текст.
+ */
+public class NdjsonRowReader implements RowReader {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final BufferedReader reader;
+    private int number;
+
+    public NdjsonRowReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+    }
+
+    @Override
+    public Row next() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+        } while (line.isBlank());
+        number++;
+        try {
+            var node = MAPPER.readTree(line);
+            if (!node.isObject()) {
+                return Row.malformed(number, "Expected a JSON object");
+            }
+            var values = new HashMap<String, String>();
+            var fields = node.fields();
+            while (fields.hasNext()) {
+                var field = fields.next();
+                if (field.getValue().isContainerNode()) {
+                    return Row.malformed(number, "Nested value in field " + field.getKey());
+                }
+                values.put(field.getKey().toLowerCase(Locale.ROOT),
+                        field.getValue().isNull() ? null : field.getValue().asText());
+            }
+            return Row.of(number, values);
+        } catch (JsonProcessingException e) {
+            return Row.malformed(number, "Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
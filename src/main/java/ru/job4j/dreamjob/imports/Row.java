@@ -0,0 +1,47 @@
+package ru.job4j.dreamjob.imports;
+
+import java.util.Map;
+
+/**
+ * Одна запись входного файла: значения по именам колонок или, если запись не разобралась,
+ * сообщение об ошибке. number - порядковый номер записи с 1, заголовок CSV не считается.
+ */
+public class Row {
+    private final int number;
+    private final Map<String, String> values;
+    private final String error;
+
+    private Row(int number, Map<String, String> values, String error) {
+        this.number = number;
+        this.values = values;
+        this.error = error;
+    }
+
+    public static Row of(int number, Map<String, String> values) {
+        return new Row(number, values, null);
+    }
+
+    public static Row malformed(int number, String error) {
+        return new Row(number, Map.of(), error);
+    }
+
+    public int getNumber() {
+        return number;
+    }
+
+    /**
+     * @return значение без пробелов по краям или null, если колонки нет или она пустая
+     */
+    public String get(String column) {
+        var value = values.get(column);
+        if (value == null) {
+            return null;
+        }
+        var trimmed = value.strip();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,16 @@
+package ru.job4j.dreamjob.imports;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Читает записи по одной, не загружая файл целиком.
+ */
+public interface RowReader extends Closeable {
+
+    /**
+     * @return следующая запись или null в конце файла; испорченная запись возвращается
+     *         как Row.malformed, и чтение продолжается со следующей
+     */
+    Row next() throws IOException;
+}
@@ -0,0 +1,105 @@
+package ru.job4j.dreamjob.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import ru.job4j.dreamjob.controller.FileController;
+import ru.job4j.dreamjob.dto.CacheStats;
+import ru.job4j.dreamjob.dto.ReconciliationReport;
+import ru.job4j.dreamjob.repository.CachingCandidateRepository;
+import ru.job4j.dreamjob.repository.CachingVacancyRepository;
+import ru.job4j.dreamjob.service.CityService;
+import ru.job4j.dreamjob.service.OrphanFileReaper;
+import ru.job4j.dreamjob.service.SimpleFileService;
+
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Публикует счётчики, которые компоненты и так ведут у себя (кэши, объём файлов, итоги
+ * сверки хранилища), - значения читаются только в момент сбора метрик.
+ */
+@Component
+public class ApplicationMetrics implements MeterBinder {
+    private final CachingVacancyRepository vacancyRepository;
+    private final CachingCandidateRepository candidateRepository;
+    private final CityService cityService;
+    private final SimpleFileService fileService;
+    private final FileController fileController;
+    private final ObjectProvider<OrphanFileReaper> orphanFileReaper;
+
+    public ApplicationMetrics(CachingVacancyRepository cachingVacancyRepository,
+                              CachingCandidateRepository cachingCandidateRepository,
+                              CityService cityService,
+                              SimpleFileService fileService,
+                              FileController fileController,
+                              ObjectProvider<OrphanFileReaper> orphanFileReaper) {
+        this.vacancyRepository = cachingVacancyRepository;
+        this.candidateRepository = cachingCandidateRepository;
+        this.cityService = cityService;
+        this.fileService = fileService;
+        this.fileController = fileController;
+        this.orphanFileReaper = orphanFileReaper;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bindCache(registry, "vacancies", vacancyRepository, CachingVacancyRepository::getStats);
+        bindCache(registry, "candidates", candidateRepository, CachingCandidateRepository::getStats);
+        bindCache(registry, "cities", cityService, CityService::getStats);
+        bindCache(registry, "files", fileService, SimpleFileService::getMetadataStats);
+        FunctionCounter.builder("dreamjob.files.uploaded", fileService, SimpleFileService::getUploadedBytes)
+                .baseUnit("bytes")
+                .register(registry);
+        FunctionCounter.builder("dreamjob.files.downloaded", fileController, FileController::getDownloadedBytes)
+                .baseUnit("bytes")
+                .register(registry);
+        var reaper = orphanFileReaper.getIfAvailable();
+        if (reaper != null) {
+            bindReaper(registry, reaper);
+        }
+    }
+
+    /**
+     * Micrometer держит источник по слабой ссылке, поэтому источник - сам бин, а не лямбда над ним.
+     */
+    private static <T> void bindCache(MeterRegistry registry, String name, T source, Function<T, CacheStats> stats) {
+        FunctionCounter.builder("dreamjob.cache.gets", source, cache -> stats.apply(cache).getHits())
+                .tag("cache", name).tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("dreamjob.cache.gets", source, cache -> stats.apply(cache).getMisses())
+                .tag("cache", name).tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("dreamjob.cache.evictions", source, cache -> stats.apply(cache).getEvictions())
+                .tag("cache", name)
+                .register(registry);
+        Gauge.builder("dreamjob.cache.size", source, cache -> stats.apply(cache).getSize())
+                .tag("cache", name)
+                .register(registry);
+    }
+
+    /**
+     * Итоги последнего завершённого прохода; до первого прохода - 0.
+     */
+    private static void bindReaper(MeterRegistry registry, OrphanFileReaper reaper) {
+        reaperGauge(registry, reaper, "orphan.rows", ReconciliationReport::getOrphanRows);
+        reaperGauge(registry, reaper, "untracked.blobs", ReconciliationReport::getUntrackedBlobs);
+        reaperGauge(registry, reaper, "missing.blobs", ReconciliationReport::getMissingBlobs);
+        reaperGauge(registry, reaper, "refcount.drift", ReconciliationReport::getRefCountDrift);
+        reaperGauge(registry, reaper, "deleted.rows", ReconciliationReport::getDeletedRows);
+        reaperGauge(registry, reaper, "deleted.blobs", ReconciliationReport::getDeletedBlobs);
+        reaperGauge(registry, reaper, "reclaimed.bytes", ReconciliationReport::getReclaimedBytes);
+        reaperGauge(registry, reaper, "duration.seconds", report -> report.getDuration().toMillis() / 1000.0);
+    }
+
+    private static void reaperGauge(MeterRegistry registry, OrphanFileReaper reaper, String name,
+                                    ToDoubleFunction<ReconciliationReport> value) {
+        Gauge.builder("dreamjob.reaper.last." + name, reaper, source -> {
+            var report = source.getLastReport();
+            return report == null ? 0 : value.applyAsDouble(report);
+        }).register(registry);
+    }
+}
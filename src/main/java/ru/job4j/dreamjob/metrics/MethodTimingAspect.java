@@ -0,0 +1,86 @@
+package ru.job4j.dreamjob.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import net.jcip.annotations.ThreadSafe;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Время каждого публичного метода репозиториев и Simple*Service: dreamjob.repository
+ * и dreamjob.service с тегами class, method и exception. Кэширующие репозитории и
+ * репозитории на sql2o меряются отдельно, так что по тегу class видно, сколько запросов
+ * не дошли до БД. При metrics.methods.enabled=false аспекта нет вовсе и бины не проксируются.
+ */
+@ThreadSafe
+@Aspect
+@Component
+@ConditionalOnProperty(name = "metrics.methods.enabled", havingValue = "true", matchIfMissing = true)
+public class MethodTimingAspect {
+    private static final String NO_EXCEPTION = "none";
+
+    private final MeterRegistry registry;
+
+    /* таймеры успешных вызовов, чтобы не искать их в реестре на каждом вызове */
+    private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public MethodTimingAspect(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /* хранилища в памяти - заглушки для разработки, их время ничего не говорит */
+    @Pointcut("(execution(public * ru.job4j.dreamjob.repository.VacancyRepository+.*(..))"
+            + " || execution(public * ru.job4j.dreamjob.repository.CandidateRepository+.*(..))"
+            + " || execution(public * ru.job4j.dreamjob.repository.FileRepository+.*(..))"
+            + " || execution(public * ru.job4j.dreamjob.repository.UserRepository+.*(..))"
+            + " || execution(public * ru.job4j.dreamjob.repository.CityRepository+.*(..)))"
+            + " && !within(ru.job4j.dreamjob.repository.Memory*)")
+    public void repositories() {
+    }
+
+    @Pointcut("execution(public * ru.job4j.dreamjob.service.Simple*Service.*(..))")
+    public void services() {
+    }
+
+    @Around("repositories()")
+    public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time("dreamjob.repository", joinPoint);
+    }
+
+    @Around("services()")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time("dreamjob.service", joinPoint);
+    }
+
+    private Object time(String name, ProceedingJoinPoint joinPoint) throws Throwable {
+        var type = joinPoint.getTarget().getClass().getSimpleName();
+        var method = joinPoint.getSignature().getName();
+        var started = System.nanoTime();
+        try {
+            var result = joinPoint.proceed();
+            timers.computeIfAbsent(name + ":" + type + "." + method, key -> timer(name, type, method, NO_EXCEPTION))
+                    .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (Throwable e) {
+            timer(name, type, method, e.getClass().getSimpleName())
+                    .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    private Timer timer(String name, String type, String method, String exception) {
+        return Timer.builder(name)
+                .tag("class", type)
+                .tag("method", method)
+                .tag("exception", exception)
+                .register(registry);
+    }
+}
@@ -1,17 +1,35 @@
 package ru.job4j.dreamjob.model;
 
+import java.util.Map;
 import java.util.Objects;
 
 public class File {
+    public static final Map<String, String> COLUMN_MAPPING = Map.of(
+            "id", "id",
+            "name", "name",
+            "path", "path",
+            "hash", "hash",
+            "ref_count", "refCount"
+    );
+
     private int id;
     private String name;
     private String path;
+    /* SHA-256 содержимого; одинаковые загрузки ссылаются на одну запись */
+    private String hash;
+    private int refCount = 1;
 
     public File(String name, String path) {
         this.name = name;
         this.path = path;
     }
 
+    public File(String name, String path, String hash) {
+        this.name = name;
+        this.path = path;
+        this.hash = hash;
+    }
+
     public int getId() {
         return id;
     }
@@ -36,6 +54,22 @@ public class File {
         this.path = path;
     }
 
+    public String getHash() {
+        return hash;
+    }
+
+    public void setHash(String hash) {
+        this.hash = hash;
+    }
+
+    public int getRefCount() {
+        return refCount;
+    }
+
+    public void setRefCount(int refCount) {
+        this.refCount = refCount;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
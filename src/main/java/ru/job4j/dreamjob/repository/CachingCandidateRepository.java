@@ -0,0 +1,108 @@
+package ru.job4j.dreamjob.repository;
+
+import net.jcip.annotations.ThreadSafe;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+import ru.job4j.dreamjob.cache.EntityCache;
+import ru.job4j.dreamjob.cache.EvictionPolicy;
+import ru.job4j.dreamjob.dto.CacheStats;
+import ru.job4j.dreamjob.dto.CandidateSummary;
+import ru.job4j.dreamjob.dto.CityFacet;
+import ru.job4j.dreamjob.dto.ListFilter;
+import ru.job4j.dreamjob.dto.Page;
+import ru.job4j.dreamjob.dto.PageRequest;
+import ru.job4j.dreamjob.dto.SearchCursor;
+import ru.job4j.dreamjob.model.Candidate;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Кэширует findById перед sql2oCandidateRepository. Записи через этот же репозиторий
+ * сразу выбрасывают затронутого кандидата из кэша.
+ */
+@ThreadSafe
+@Repository
+public class CachingCandidateRepository implements CandidateRepository {
+    private final CandidateRepository candidateRepository;
+    private final EntityCache<Candidate> cache;
+    private final UnitOfWork unitOfWork;
+
+    public CachingCandidateRepository(CandidateRepository sql2oCandidateRepository,
+                                      UnitOfWork unitOfWork,
+                                      @Value("${cache.candidates.max-entries:10000}") int maxEntries,
+                                      @Value("${cache.candidates.ttl:PT5M}") Duration ttl,
+                                      @Value("${cache.candidates.eviction-policy:LRU}") EvictionPolicy policy) {
+        this.candidateRepository = sql2oCandidateRepository;
+        this.unitOfWork = unitOfWork;
+        this.cache = new EntityCache<>(maxEntries, ttl, policy, CachingCandidateRepository::copy);
+    }
+
+    private static Candidate copy(Candidate candidate) {
+        return new Candidate(candidate.getId(), candidate.getName(), candidate.getDescription(),
+                candidate.getCreationDate(), candidate.getCityId(), candidate.getFileId());
+    }
+
+    @Override
+    public Candidate save(Candidate candidate) {
+        return candidateRepository.save(candidate);
+    }
+
+    @Override
+    public boolean deleteById(int id) {
+        try {
+            return candidateRepository.deleteById(id);
+        } finally {
+            invalidate(id);
+        }
+    }
+
+    @Override
+    public boolean update(Candidate candidate) {
+        try {
+            return candidateRepository.update(candidate);
+        } finally {
+            invalidate(candidate.getId());
+        }
+    }
+
+    /**
+     * Внутри транзакции параллельный читатель мог вернуть в кэш ещё не изменённую строку,
+     * поэтому после фиксации запись выбрасывается ещё раз.
+     */
+    private void invalidate(int id) {
+        cache.invalidate(id);
+        unitOfWork.afterCompletion(() -> cache.invalidate(id));
+    }
+
+    @Override
+    public Optional<Candidate> findById(int id) {
+        return cache.get(id, candidateRepository::findById);
+    }
+
+    @Override
+    public Collection<Candidate> findAll() {
+        return candidateRepository.findAll();
+    }
+
+    @Override
+    public Page<CandidateSummary> findSummaryPage(ListFilter filter, PageRequest request) {
+        return candidateRepository.findSummaryPage(filter, request);
+    }
+
+    @Override
+    public List<CityFacet> countByCity(ListFilter filter, int limit) {
+        return candidateRepository.countByCity(filter, limit);
+    }
+
+    @Override
+    public Page<Candidate> search(String query, SearchCursor after, int limit) {
+        return candidateRepository.search(query, after, limit);
+    }
+
+    public CacheStats getStats() {
+        return cache.getStats();
+    }
+}
@@ -0,0 +1,108 @@
+package ru.job4j.dreamjob.repository;
+
+import net.jcip.annotations.ThreadSafe;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+import ru.job4j.dreamjob.cache.EntityCache;
+import ru.job4j.dreamjob.cache.EvictionPolicy;
+import ru.job4j.dreamjob.dto.CacheStats;
+import ru.job4j.dreamjob.dto.CityFacet;
+import ru.job4j.dreamjob.dto.ListFilter;
+import ru.job4j.dreamjob.dto.Page;
+import ru.job4j.dreamjob.dto.PageRequest;
+import ru.job4j.dreamjob.dto.SearchCursor;
+import ru.job4j.dreamjob.dto.VacancySummary;
+import ru.job4j.dreamjob.model.Vacancy;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Кэширует findById перед sql2oVacancyRepository. Записи через этот же репозиторий
+ * сразу выбрасывают затронутую вакансию из кэша.
+ */
+@ThreadSafe
+@Repository
+public class CachingVacancyRepository implements VacancyRepository {
+    private final VacancyRepository vacancyRepository;
+    private final EntityCache<Vacancy> cache;
+    private final UnitOfWork unitOfWork;
+
+    public CachingVacancyRepository(VacancyRepository sql2oVacancyRepository,
+                                    UnitOfWork unitOfWork,
+                                    @Value("${cache.vacancies.max-entries:10000}") int maxEntries,
+                                    @Value("${cache.vacancies.ttl:PT5M}") Duration ttl,
+                                    @Value("${cache.vacancies.eviction-policy:LRU}") EvictionPolicy policy) {
+        this.vacancyRepository = sql2oVacancyRepository;
+        this.unitOfWork = unitOfWork;
+        this.cache = new EntityCache<>(maxEntries, ttl, policy, CachingVacancyRepository::copy);
+    }
+
+    private static Vacancy copy(Vacancy vacancy) {
+        return new Vacancy(vacancy.getId(), vacancy.getTitle(), vacancy.getDescription(), vacancy.getCreationDate(),
+                vacancy.getVisible(), vacancy.getCityId(), vacancy.getFileId());
+    }
+
+    @Override
+    public Vacancy save(Vacancy vacancy) {
+        return vacancyRepository.save(vacancy);
+    }
+
+    @Override
+    public boolean deleteById(int id) {
+        try {
+            return vacancyRepository.deleteById(id);
+        } finally {
+            invalidate(id);
+        }
+    }
+
+    @Override
+    public boolean update(Vacancy vacancy) {
+        try {
+            return vacancyRepository.update(vacancy);
+        } finally {
+            invalidate(vacancy.getId());
+        }
+    }
+
+    /**
+     * Внутри транзакции параллельный читатель мог вернуть в кэш ещё не изменённую строку,
+     * поэтому после фиксации запись выбрасывается ещё раз.
+     */
+    private void invalidate(int id) {
+        cache.invalidate(id);
+        unitOfWork.afterCompletion(() -> cache.invalidate(id));
+    }
+
+    @Override
+    public Optional<Vacancy> findById(int id) {
+        return cache.get(id, vacancyRepository::findById);
+    }
+
+    @Override
+    public Collection<Vacancy> findAll() {
+        return vacancyRepository.findAll();
+    }
+
+    @Override
+    public Page<VacancySummary> findSummaryPage(ListFilter filter, PageRequest request) {
+        return vacancyRepository.findSummaryPage(filter, request);
+    }
+
+    @Override
+    public List<CityFacet> countByCity(ListFilter filter, int limit) {
+        return vacancyRepository.countByCity(filter, limit);
+    }
+
+    @Override
+    public Page<Vacancy> search(String query, SearchCursor after, int limit) {
+        return vacancyRepository.search(query, after, limit);
+    }
+
+    public CacheStats getStats() {
+        return cache.getStats();
+    }
+}
@@ -1,8 +1,15 @@
 package ru.job4j.dreamjob.repository;
 
+import ru.job4j.dreamjob.dto.CandidateSummary;
+import ru.job4j.dreamjob.dto.CityFacet;
+import ru.job4j.dreamjob.dto.ListFilter;
+import ru.job4j.dreamjob.dto.Page;
+import ru.job4j.dreamjob.dto.PageRequest;
+import ru.job4j.dreamjob.dto.SearchCursor;
 import ru.job4j.dreamjob.model.Candidate;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface CandidateRepository {
@@ -11,4 +18,22 @@ public interface CandidateRepository {
     boolean update(Candidate candidate);
     Optional<Candidate> findById(int id);
     Collection<Candidate> findAll();
+    /**
+     * Страница списка: только колонки списка, без description, с условиями фильтра.
+     * Сначала новые, курсоры - PageCursor по (creation_date, id).
+     */
+    Page<CandidateSummary> findSummaryPage(ListFilter filter, PageRequest request);
+
+    /**
+     * Сколько строк в каждом городе подходит под остальные условия фильтра (город не учитывается):
+     * не больше limit городов с наибольшим числом строк, только города, где строки есть.
+     * Выбранный в фильтре город есть в ответе всегда, в том числе с нулём.
+     */
+    List<CityFacet> countByCity(ListFilter filter, int limit);
+
+    /**
+     * Полнотекстовый поиск, лучшие совпадения первыми. after - курсор из nextToken
+     * предыдущей страницы или null для первой.
+     */
+    Page<Candidate> search(String query, SearchCursor after, int limit);
 }
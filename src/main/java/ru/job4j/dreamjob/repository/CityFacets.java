@@ -0,0 +1,68 @@
+package ru.job4j.dreamjob.repository;
+
+import org.sql2o.Connection;
+import ru.job4j.dreamjob.dto.CityFacet;
+import ru.job4j.dreamjob.dto.ListFilter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Счётчики по городам для боковой панели списка: не больше limit городов с наибольшим числом
+ * подходящих строк, без городов, где их нет. Выбранный в фильтре город остаётся в ответе всегда,
+ * даже с нулём, - иначе из панели не снять выбор. Город выбранного фильтра при подсчёте не учитывается.
+ */
+final class CityFacets {
+    private CityFacets() {
+    }
+
+    /**
+     * Группировка идёт по city_id самой таблицы, справочник городов присоединяется
+     * только к limit строкам результата.
+     *
+     * @param alias псевдоним таблицы с точкой ("v.")
+     */
+    static List<CityFacet> top(Connection connection, String table, String alias, boolean withVisible,
+                               ListFilter filter, int limit) {
+        var withoutCity = filter.withoutCity();
+        var conditions = Filters.conditions(withoutCity, alias, withVisible);
+        var tableAlias = alias.substring(0, alias.length() - 1);
+        var sql = "SELECT c.id AS city_id, c.name AS city_name, f.total FROM ("
+                + "SELECT " + alias + "city_id, COUNT(*) AS total FROM " + table + " " + tableAlias
+                + (conditions.isEmpty() ? "" : " WHERE " + conditions)
+                + " GROUP BY " + alias + "city_id ORDER BY total DESC, " + alias + "city_id LIMIT :limit"
+                + ") f JOIN cities c ON c.id = f.city_id ORDER BY f.total DESC, c.name";
+        var query = Filters.bind(connection.createQuery(sql), withoutCity, withVisible)
+                .addParameter("limit", limit);
+        var facets = new ArrayList<>(query.executeAndFetch(Rows::cityFacet));
+        var selected = filter.getCityId();
+        if (selected.isEmpty() || facets.stream().anyMatch(facet -> facet.getCityId() == selected.get())) {
+            return facets;
+        }
+        var selectedSql = "SELECT c.id AS city_id, c.name AS city_name, COUNT(" + alias + "id) AS total"
+                + " FROM cities c LEFT JOIN " + table + " " + tableAlias + " ON " + alias + "city_id = c.id"
+                + (conditions.isEmpty() ? "" : " AND " + conditions)
+                + " WHERE c.id = :cityId GROUP BY c.id, c.name";
+        var selectedQuery = Filters.bind(connection.createQuery(selectedSql), withoutCity, withVisible)
+                .addParameter("cityId", selected.get());
+        facets.addAll(selectedQuery.executeAndFetch(Rows::cityFacet));
+        return facets;
+    }
+
+    /**
+     * То же для репозиториев в памяти, где справочника городов нет: названия пустые.
+     */
+    static List<CityFacet> top(Map<Integer, Long> counts, ListFilter filter, int limit) {
+        var facets = new ArrayList<CityFacet>();
+        counts.entrySet().stream()
+                .sorted(Map.Entry.<Integer, Long>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .forEach(entry -> facets.add(new CityFacet(entry.getKey(), null, entry.getValue())));
+        filter.getCityId()
+                .filter(cityId -> facets.stream().noneMatch(facet -> facet.getCityId() == cityId))
+                .ifPresent(cityId -> facets.add(new CityFacet(cityId, null, counts.getOrDefault(cityId, 0L))));
+        return facets;
+    }
+}
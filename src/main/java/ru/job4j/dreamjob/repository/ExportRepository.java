@@ -0,0 +1,21 @@
+package ru.job4j.dreamjob.repository;
+
+import ru.job4j.dreamjob.model.Candidate;
+import ru.job4j.dreamjob.model.Vacancy;
+
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+public interface ExportRepository {
+
+    /**
+     * Передаёт строки по одной в порядке creation_date, id, не собирая их в память.
+     *
+     * @param from начало диапазона creation_date включительно или null
+     * @param to   конец диапазона не включительно или null
+     * @return число строк
+     */
+    long forEachVacancy(LocalDateTime from, LocalDateTime to, Consumer<Vacancy> consumer);
+
+    long forEachCandidate(LocalDateTime from, LocalDateTime to, Consumer<Candidate> consumer);
+}
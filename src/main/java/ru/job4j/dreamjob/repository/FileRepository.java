@@ -1,6 +1,9 @@
 package ru.job4j.dreamjob.repository;
 
+import ru.job4j.dreamjob.dto.FileUsage;
 import ru.job4j.dreamjob.model.File;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.Optional;
 
 public interface FileRepository {
@@ -8,5 +11,39 @@ public interface FileRepository {
 
     Optional<File> findById(int id);
 
+    Optional<File> findByHash(String hash);
+
+    /**
+     * Следующая пачка записей по возрастанию id, для обхода таблицы без OFFSET.
+     */
+    Collection<File> findAfter(int id, int limit);
+
+    /**
+     * Переписывает расположение содержимого (path) и хэш записи.
+     */
+    boolean update(File file);
+
+    /**
+     * Записи, чей path начинается с prefix, с фактическим числом ссылок из vacancies и candidates.
+     */
+    Collection<FileUsage> findUsages(String pathPrefix);
+
+    /**
+     * Удаляет запись, только если на неё по-прежнему никто не ссылается, ref_count не изменился
+     * с момента чтения (её никто не переиспользовал) и она создана раньше createdBefore.
+     */
+    boolean deleteOrphan(int id, int refCount, LocalDateTime createdBefore);
+
+    /**
+     * Добавляет ссылку на уже сохранённый файл. false - записи уже нет.
+     */
+    boolean acquire(int id);
+
+    /**
+     * Снимает одну ссылку и удаляет запись, когда ссылок не осталось.
+     * true - запись удалена и содержимое больше никому не нужно.
+     */
+    boolean release(int id);
+
     void deleteById(int id);
 }
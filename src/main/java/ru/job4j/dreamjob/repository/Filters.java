@@ -0,0 +1,45 @@
+package ru.job4j.dreamjob.repository;
+
+import org.sql2o.Query;
+import ru.job4j.dreamjob.dto.ListFilter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Условия ListFilter в одном параметризованном запросе. Условие попадает в SQL, только если
+ * оно задано, и параметр привязывается ровно к нему: Sql2o не принимает лишних параметров,
+ * а IS NULL OR ... на каждый параметр мешает планировщику выбрать составной индекс.
+ */
+final class Filters {
+    private Filters() {
+    }
+
+    /**
+     * @param alias       псевдоним таблицы с точкой ("v.")
+     * @param withVisible есть ли у таблицы колонка visible
+     * @param extra       дополнительные условия (например, курсор страницы); пустые пропускаются
+     * @return условия через AND или пустая строка
+     */
+    static String conditions(ListFilter filter, String alias, boolean withVisible, String... extra) {
+        var conditions = new ArrayList<String>();
+        filter.getCityId().ifPresent(cityId -> conditions.add(alias + "city_id = :cityId"));
+        if (withVisible) {
+            filter.getVisible().ifPresent(visible -> conditions.add(alias + "visible = :visible"));
+        }
+        filter.getFrom().ifPresent(from -> conditions.add(alias + "creation_date >= :from"));
+        filter.getTo().ifPresent(to -> conditions.add(alias + "creation_date < :to"));
+        Arrays.stream(extra).filter(condition -> !condition.isEmpty()).forEach(conditions::add);
+        return String.join(" AND ", conditions);
+    }
+
+    static Query bind(Query query, ListFilter filter, boolean withVisible) {
+        filter.getCityId().ifPresent(cityId -> query.addParameter("cityId", cityId));
+        if (withVisible) {
+            filter.getVisible().ifPresent(visible -> query.addParameter("visible", visible));
+        }
+        filter.getFrom().ifPresent(from -> query.addParameter("from", from));
+        filter.getTo().ifPresent(to -> query.addParameter("to", to));
+        return query;
+    }
+}
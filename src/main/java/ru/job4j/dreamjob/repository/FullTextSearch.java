@@ -0,0 +1,109 @@
+package ru.job4j.dreamjob.repository;
+
+import org.sql2o.ResultSetHandler;
+import org.sql2o.Sql2o;
+import org.sql2o.Sql2oException;
+import ru.job4j.dreamjob.dto.Page;
+import ru.job4j.dreamjob.dto.SearchCursor;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.ToIntFunction;
+
+/**
+ * Поиск средствами базы. В PostgreSQL - по сгенерированной колонке search_vector
+ * (tsvector + GIN, см. db/scripts/008) с ранжированием ts_rank. На остальных базах,
+ * в том числе на H2 в тестах, - запасной вариант через LIKE, где совпадение
+ * в заголовке весит больше совпадения в описании.
+ */
+final class FullTextSearch<T> {
+    private final Sql2o sql2o;
+    private final String table;
+    private final String columns;
+    private final String titleColumn;
+    private final ResultSetHandler<T> mapper;
+    private final ToIntFunction<T> idOf;
+    private volatile Boolean postgres;
+
+    FullTextSearch(Sql2o sql2o, String table, String columns, String titleColumn,
+                   ResultSetHandler<T> mapper, ToIntFunction<T> idOf) {
+        this.sql2o = sql2o;
+        this.table = table;
+        this.columns = columns;
+        this.titleColumn = titleColumn;
+        this.mapper = mapper;
+        this.idOf = idOf;
+    }
+
+    Page<T> search(String text, SearchCursor after, int limit) {
+        try (var connection = sql2o.open()) {
+            var sql = "SELECT * FROM (" + (isPostgres() ? tsQuery() : likeQuery()) + ") ranked"
+                    + (after == null ? "" : " WHERE (search_rank < :rank OR (search_rank = :rank AND id < :id))")
+                    + " ORDER BY search_rank DESC, id DESC LIMIT :limit";
+            var query = connection.createQuery(sql)
+                    .addParameter(isPostgres() ? "query" : "pattern", isPostgres() ? text : likePattern(text))
+                    .addParameter("limit", limit + 1);
+            if (after != null) {
+                query.addParameter("rank", after.getRank()).addParameter("id", after.getId());
+            }
+            var rows = query.executeAndFetch((ResultSetHandler<Ranked<T>>) resultSet ->
+                    new Ranked<>(mapper.handle(resultSet), resultSet.getDouble("search_rank")));
+            var hasMore = rows.size() > limit;
+            var items = new ArrayList<T>(limit);
+            for (var row : hasMore ? rows.subList(0, limit) : rows) {
+                items.add(row.item);
+            }
+            String next = null;
+            if (hasMore) {
+                var last = rows.get(limit - 1);
+                next = new SearchCursor(last.rank, idOf.applyAsInt(last.item)).encode();
+            }
+            return new Page<>(items, next, null);
+        }
+    }
+
+    private String tsQuery() {
+        return "SELECT " + columns + ", ts_rank(search_vector, query) AS search_rank"
+                + " FROM " + table + ", websearch_to_tsquery('russian', :query) query"
+                + " WHERE search_vector @@ query";
+    }
+
+    private String likeQuery() {
+        return "SELECT " + columns + ","
+                + " CASE WHEN lower(" + titleColumn + ") LIKE :pattern THEN 1.0 ELSE 0.5 END AS search_rank"
+                + " FROM " + table
+                + " WHERE lower(" + titleColumn + ") LIKE :pattern OR lower(description) LIKE :pattern";
+    }
+
+    private static String likePattern(String text) {
+        var escaped = text.trim().toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+
+    private boolean isPostgres() {
+        if (postgres == null) {
+            try (var connection = sql2o.open()) {
+                var product = connection.getJdbcConnection().getMetaData().getDatabaseProductName();
+                postgres = "PostgreSQL".equalsIgnoreCase(product);
+            } catch (SQLException e) {
+                throw new Sql2oException("Could not detect database product", e);
+            }
+        }
+        return postgres;
+    }
+
+    private static class Ranked<T> {
+        private final T item;
+        private final double rank;
+
+        Ranked(T item, double rank) {
+            this.item = item;
+            this.rank = rank;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package ru.job4j.dreamjob.repository;
+
+import ru.job4j.dreamjob.imports.ImportKind;
+import ru.job4j.dreamjob.model.Candidate;
+import ru.job4j.dreamjob.model.Vacancy;
+
+import java.util.List;
+
+public interface ImportRepository {
+
+    /**
+     * Регистрирует импорт при первом запуске.
+     *
+     * @return сколько записей файла уже зафиксировано прошлыми запусками, 0 для нового импорта
+     * @throws IllegalArgumentException если импорт с этим именем загружал другие сущности
+     */
+    int start(String name, ImportKind kind);
+
+    /**
+     * Сдвигает точку продолжения с expectedRows на committedRows.
+     *
+     * @return false, если точку за это время сдвинул другой запуск того же импорта
+     */
+    boolean advance(String name, int expectedRows, int committedRows, int failedRows);
+
+    /**
+     * Вставляет пачку одним batch-запросом и проставляет сгенерированные id.
+     */
+    void insertVacancies(List<Vacancy> vacancies);
+
+    void insertCandidates(List<Candidate> candidates);
+}
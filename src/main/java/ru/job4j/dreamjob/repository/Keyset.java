@@ -0,0 +1,59 @@
+package ru.job4j.dreamjob.repository;
+
+import org.sql2o.Query;
+import ru.job4j.dreamjob.dto.Page;
+import ru.job4j.dreamjob.dto.PageCursor;
+import ru.job4j.dreamjob.dto.PageRequest;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Общие куски keyset-пагинации по (creation_date, id): лента идёт от новых к старым,
+ * и стоимость страницы не зависит от того, насколько глубоко пролистали.
+ */
+final class Keyset {
+    private Keyset() {
+    }
+
+    /**
+     * @param alias псевдоним таблицы с точкой ("v.") для запросов с join, где id неоднозначен
+     */
+    static String where(PageRequest request, String alias) {
+        if (request.getCursor().isEmpty()) {
+            return "";
+        }
+        return request.isBackward()
+                ? "(" + alias + "creation_date, " + alias + "id) > (:cursorDate, :cursorId)"
+                : "(" + alias + "creation_date, " + alias + "id) < (:cursorDate, :cursorId)";
+    }
+
+    static String orderBy(PageRequest request, String alias) {
+        return request.isBackward()
+                ? "ORDER BY " + alias + "creation_date ASC, " + alias + "id ASC"
+                : "ORDER BY " + alias + "creation_date DESC, " + alias + "id DESC";
+    }
+
+    static Query bind(Query query, PageRequest request) {
+        request.getCursor().ifPresent(cursor -> query
+                .addParameter("cursorDate", cursor.getCreationDate())
+                .addParameter("cursorId", cursor.getId()));
+        return query.addParameter("limit", request.getSize() + 1);
+    }
+
+    static <T> Page<T> slice(Collection<T> rows, PageRequest request, Function<T, PageCursor> cursorOf) {
+        Comparator<T> order = Comparator.comparing(cursorOf);
+        var fetched = rows.stream()
+                .filter(row -> request.getCursor()
+                        .map(cursor -> request.isBackward()
+                                ? cursorOf.apply(row).compareTo(cursor) > 0
+                                : cursorOf.apply(row).compareTo(cursor) < 0)
+                        .orElse(true))
+                .sorted(request.isBackward() ? order : order.reversed())
+                .limit(request.getSize() + 1L)
+                .collect(Collectors.toList());
+        return Page.of(fetched, request, cursorOf);
+    }
+}
@@ -2,14 +2,25 @@ package ru.job4j.dreamjob.repository;
 
 import net.jcip.annotations.ThreadSafe;
 import org.springframework.stereotype.Repository;
+import ru.job4j.dreamjob.dto.CandidateSummary;
+import ru.job4j.dreamjob.dto.CityFacet;
+import ru.job4j.dreamjob.dto.ListFilter;
+import ru.job4j.dreamjob.dto.Page;
+import ru.job4j.dreamjob.dto.PageCursor;
+import ru.job4j.dreamjob.dto.PageRequest;
+import ru.job4j.dreamjob.dto.SearchCursor;
 import ru.job4j.dreamjob.model.Candidate;
 
 import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 @ThreadSafe
 @Repository
@@ -50,4 +61,48 @@ public class MemoryCandidateRepository implements CandidateRepository {
     public Collection<Candidate> findAll() {
         return candidates.values();
     }
+
+    @Override
+    public Page<CandidateSummary> findSummaryPage(ListFilter filter, PageRequest request) {
+        var rows = candidates.values().stream()
+                .filter(candidate -> filter.matches(candidate.getCityId(), null, candidate.getCreationDate()))
+                .map(candidate -> CandidateSummary.of(candidate, null, null))
+                .toList();
+        return Keyset.slice(rows, request, summary -> new PageCursor(summary.getCreationDate(), summary.getId()));
+    }
+
+    /**
+     * Справочника городов здесь нет: города в ответе без названий.
+     */
+    @Override
+    public List<CityFacet> countByCity(ListFilter filter, int limit) {
+        var withoutCity = filter.withoutCity();
+        var counts = candidates.values().stream()
+                .filter(candidate -> withoutCity.matches(candidate.getCityId(), null, candidate.getCreationDate()))
+                .collect(Collectors.groupingBy(Candidate::getCityId, Collectors.counting()));
+        return CityFacets.top(counts, filter, limit);
+    }
+
+    /**
+     * Простейший вариант без ранжирования: подстрока в name или описании,
+     * новые записи выше. Курсор передаёт только id.
+     */
+    @Override
+    public Page<Candidate> search(String query, SearchCursor after, int limit) {
+        var needle = query.trim().toLowerCase(Locale.ROOT);
+        var found = candidates.values().stream()
+                .filter(candidate -> after == null || candidate.getId() < after.getId())
+                .filter(candidate -> contains(candidate.getName(), needle) || contains(candidate.getDescription(), needle))
+                .sorted(Comparator.comparingInt(Candidate::getId).reversed())
+                .limit(limit + 1L)
+                .collect(Collectors.toList());
+        var hasMore = found.size() > limit;
+        var items = hasMore ? found.subList(0, limit) : found;
+        var next = hasMore ? new SearchCursor(0, items.get(limit - 1).getId()).encode() : null;
+        return new Page<>(items, next, null);
+    }
+
+    private static boolean contains(String text, String needle) {
+        return text != null && text.toLowerCase(Locale.ROOT).contains(needle);
+    }
 }
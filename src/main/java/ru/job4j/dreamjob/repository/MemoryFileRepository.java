@@ -1,11 +1,17 @@
 package ru.job4j.dreamjob.repository;
 
 import org.springframework.stereotype.Repository;
+import ru.job4j.dreamjob.dto.FileUsage;
 import ru.job4j.dreamjob.model.File;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 @Repository
 public class MemoryFileRepository implements FileRepository {
@@ -25,6 +31,68 @@ public class MemoryFileRepository implements FileRepository {
         return Optional.ofNullable(files.get(id));
     }
 
+    @Override
+    public Optional<File> findByHash(String hash) {
+        return files.values().stream()
+                .filter(file -> Objects.equals(file.getHash(), hash))
+                .findFirst();
+    }
+
+    @Override
+    public Collection<File> findAfter(int id, int limit) {
+        return files.values().stream()
+                .filter(file -> file.getId() > id)
+                .sorted(Comparator.comparingInt(File::getId))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public boolean update(File file) {
+        return files.computeIfPresent(file.getId(), (key, stored) -> {
+            stored.setPath(file.getPath());
+            stored.setHash(file.getHash());
+            return stored;
+        }) != null;
+    }
+
+    /**
+     * Вакансий и кандидатов этот репозиторий не видит, поэтому считает, что каждую
+     * запись держат ровно ref_count ссылок - сироты в памяти не находятся.
+     */
+    @Override
+    public Collection<FileUsage> findUsages(String pathPrefix) {
+        return files.values().stream()
+                .filter(file -> file.getPath().startsWith(pathPrefix))
+                .map(file -> new FileUsage(file.getId(), file.getPath(), file.getHash(),
+                        file.getRefCount(), file.getRefCount(), LocalDateTime.MIN))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public boolean deleteOrphan(int id, int refCount, LocalDateTime createdBefore) {
+        return false;
+    }
+
+    @Override
+    public boolean acquire(int id) {
+        return files.computeIfPresent(id, (key, file) -> {
+            file.setRefCount(file.getRefCount() + 1);
+            return file;
+        }) != null;
+    }
+
+    @Override
+    public boolean release(int id) {
+        var deleted = new boolean[1];
+        files.computeIfPresent(id, (key, file) -> {
+            file.setRefCount(file.getRefCount() - 1);
+            deleted[0] = file.getRefCount() <= 0;
+            return deleted[0] ? null : file;
+        });
+        return deleted[0];
+    }
+
     @Override
     public void deleteById(int id) {
         files.remove(id);
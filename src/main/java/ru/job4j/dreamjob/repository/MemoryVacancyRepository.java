@@ -2,14 +2,25 @@ package ru.job4j.dreamjob.repository;
 
 import net.jcip.annotations.ThreadSafe;
 import org.springframework.stereotype.Repository;
+import ru.job4j.dreamjob.dto.CityFacet;
+import ru.job4j.dreamjob.dto.ListFilter;
+import ru.job4j.dreamjob.dto.Page;
+import ru.job4j.dreamjob.dto.PageCursor;
+import ru.job4j.dreamjob.dto.PageRequest;
+import ru.job4j.dreamjob.dto.SearchCursor;
+import ru.job4j.dreamjob.dto.VacancySummary;
 import ru.job4j.dreamjob.model.Vacancy;
 
 import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 @ThreadSafe
 @Repository
@@ -17,7 +28,7 @@ public class MemoryVacancyRepository implements VacancyRepository {
     private final AtomicInteger nextId = new AtomicInteger(0);
     private final Map<Integer, Vacancy> vacancies = new ConcurrentHashMap<>();
 
-    private MemoryVacancyRepository() {
+    public MemoryVacancyRepository() {
         save(new Vacancy(0, "Intern Java Developer", "beginner", LocalDateTime.now(), true, 0, 1));
         save(new Vacancy(0, "Junior Java Developer", "base", LocalDateTime.now(), true, 0, 1));
         save(new Vacancy(0, "Junior+ Java Developer", "base1", LocalDateTime.now(), true, 0, 1));
@@ -54,4 +65,48 @@ public class MemoryVacancyRepository implements VacancyRepository {
     public Collection<Vacancy> findAll() {
         return vacancies.values();
     }
+
+    @Override
+    public Page<VacancySummary> findSummaryPage(ListFilter filter, PageRequest request) {
+        var rows = vacancies.values().stream()
+                .filter(vacancy -> filter.matches(vacancy.getCityId(), vacancy.getVisible(), vacancy.getCreationDate()))
+                .map(vacancy -> VacancySummary.of(vacancy, null, null))
+                .toList();
+        return Keyset.slice(rows, request, summary -> new PageCursor(summary.getCreationDate(), summary.getId()));
+    }
+
+    /**
+     * Справочника городов здесь нет: города в ответе без названий.
+     */
+    @Override
+    public List<CityFacet> countByCity(ListFilter filter, int limit) {
+        var withoutCity = filter.withoutCity();
+        var counts = vacancies.values().stream()
+                .filter(vacancy -> withoutCity.matches(vacancy.getCityId(), vacancy.getVisible(), vacancy.getCreationDate()))
+                .collect(Collectors.groupingBy(Vacancy::getCityId, Collectors.counting()));
+        return CityFacets.top(counts, filter, limit);
+    }
+
+    /**
+     * Простейший вариант без ранжирования: подстрока в title или описании,
+     * новые записи выше. Курсор передаёт только id.
+     */
+    @Override
+    public Page<Vacancy> search(String query, SearchCursor after, int limit) {
+        var needle = query.trim().toLowerCase(Locale.ROOT);
+        var found = vacancies.values().stream()
+                .filter(vacancy -> after == null || vacancy.getId() < after.getId())
+                .filter(vacancy -> contains(vacancy.getTitle(), needle) || contains(vacancy.getDescription(), needle))
+                .sorted(Comparator.comparingInt(Vacancy::getId).reversed())
+                .limit(limit + 1L)
+                .collect(Collectors.toList());
+        var hasMore = found.size() > limit;
+        var items = hasMore ? found.subList(0, limit) : found;
+        var next = hasMore ? new SearchCursor(0, items.get(limit - 1).getId()).encode() : null;
+        return new Page<>(items, next, null);
+    }
+
+    private static boolean contains(String text, String needle) {
+        return text != null && text.toLowerCase(Locale.ROOT).contains(needle);
+    }
 }
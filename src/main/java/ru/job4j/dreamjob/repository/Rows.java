@@ -0,0 +1,106 @@
+package ru.job4j.dreamjob.repository;
+
+import ru.job4j.dreamjob.dto.CandidateSummary;
+import ru.job4j.dreamjob.dto.CityFacet;
+import ru.job4j.dreamjob.dto.FileUsage;
+import ru.job4j.dreamjob.dto.VacancySummary;
+import ru.job4j.dreamjob.model.Candidate;
+import ru.job4j.dreamjob.model.Vacancy;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+/**
+ * Ручной маппинг строк там, где выборка шире модели (ранг поиска), уже неё (строки списков)
+ * или идёт мимо Sql2o.
+ * Строки списков собираются одним запросом с cities и files: город и файл приходят уже именами.
+ */
+final class Rows {
+    static final String VACANCY_COLUMNS = "id, title, description, creation_date, visible, city_id, file_id";
+    static final String CANDIDATE_COLUMNS = "id, name, description, creation_date, city_id, file_id";
+    static final String VACANCY_SUMMARY_COLUMNS = "v.id, v.title, v.visible, v.creation_date, v.file_id,"
+            + " c.name AS city_name, f.name AS file_name";
+    static final String VACANCY_SUMMARY_FROM = "vacancies v"
+            + " LEFT JOIN cities c ON c.id = v.city_id"
+            + " LEFT JOIN files f ON f.id = v.file_id";
+    static final String CANDIDATE_SUMMARY_COLUMNS = "p.id, p.name, p.creation_date, p.file_id,"
+            + " c.name AS city_name, f.name AS file_name";
+    static final String CANDIDATE_SUMMARY_FROM = "candidates p"
+            + " LEFT JOIN cities c ON c.id = p.city_id"
+            + " LEFT JOIN files f ON f.id = p.file_id";
+
+    private Rows() {
+    }
+
+    static Vacancy vacancy(ResultSet resultSet) throws SQLException {
+        return new Vacancy(
+                resultSet.getInt("id"),
+                resultSet.getString("title"),
+                resultSet.getString("description"),
+                localDateTime(resultSet, "creation_date"),
+                resultSet.getBoolean("visible"),
+                resultSet.getInt("city_id"),
+                resultSet.getInt("file_id"));
+    }
+
+    static VacancySummary vacancySummary(ResultSet resultSet) throws SQLException {
+        return new VacancySummary(
+                resultSet.getInt("id"),
+                resultSet.getString("title"),
+                resultSet.getBoolean("visible"),
+                localDateTime(resultSet, "creation_date"),
+                resultSet.getString("city_name"),
+                resultSet.getInt("file_id"),
+                resultSet.getString("file_name"));
+    }
+
+    static CandidateSummary candidateSummary(ResultSet resultSet) throws SQLException {
+        return new CandidateSummary(
+                resultSet.getInt("id"),
+                resultSet.getString("name"),
+                localDateTime(resultSet, "creation_date"),
+                resultSet.getString("city_name"),
+                resultSet.getInt("file_id"),
+                resultSet.getString("file_name"));
+    }
+
+    static CityFacet cityFacet(ResultSet resultSet) throws SQLException {
+        return new CityFacet(
+                resultSet.getInt("city_id"),
+                resultSet.getString("city_name"),
+                resultSet.getLong("total"));
+    }
+
+    static FileUsage fileUsage(ResultSet resultSet) throws SQLException {
+        return new FileUsage(
+                resultSet.getInt("id"),
+                resultSet.getString("path"),
+                resultSet.getString("hash"),
+                resultSet.getInt("ref_count"),
+                resultSet.getInt("file_references"),
+                localDateTime(resultSet, "created_at"));
+    }
+
+    static Candidate candidate(ResultSet resultSet) throws SQLException {
+        return new Candidate(
+                resultSet.getInt("id"),
+                resultSet.getString("name"),
+                resultSet.getString("description"),
+                localDateTime(resultSet, "creation_date"),
+                resultSet.getInt("city_id"),
+                resultSet.getInt("file_id"));
+    }
+
+    /**
+     * fileId = 0 - у строки нет картинки (например, после массового импорта), в базе это NULL.
+     */
+    static Integer fileId(int fileId) {
+        return fileId == 0 ? null : fileId;
+    }
+
+    private static LocalDateTime localDateTime(ResultSet resultSet, String column) throws SQLException {
+        var timestamp = resultSet.getTimestamp(column);
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+}
@@ -2,21 +2,32 @@ package ru.job4j.dreamjob.repository;
 
 import org.springframework.stereotype.Repository;
 import org.sql2o.Sql2o;
+import ru.job4j.dreamjob.dto.CandidateSummary;
+import ru.job4j.dreamjob.dto.CityFacet;
+import ru.job4j.dreamjob.dto.ListFilter;
+import ru.job4j.dreamjob.dto.Page;
+import ru.job4j.dreamjob.dto.PageCursor;
+import ru.job4j.dreamjob.dto.PageRequest;
+import ru.job4j.dreamjob.dto.SearchCursor;
 import ru.job4j.dreamjob.model.Candidate;
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public class Sql2oCandidateRepository implements CandidateRepository {
-    private final Sql2o sql2o;
+    private final Sql2oUnitOfWork unitOfWork;
+    private final FullTextSearch<Candidate> fullTextSearch;
 
-    public Sql2oCandidateRepository(Sql2o sql2o) {
-        this.sql2o = sql2o;
+    public Sql2oCandidateRepository(Sql2o sql2o, Sql2oUnitOfWork unitOfWork) {
+        this.unitOfWork = unitOfWork;
+        this.fullTextSearch = new FullTextSearch<>(sql2o, "candidates", Rows.CANDIDATE_COLUMNS, "name",
+                Rows::candidate, Candidate::getId);
     }
 
     @Override
     public Candidate save(Candidate candidate) {
-        try (var connection = sql2o.open()) {
+        try (var connection = unitOfWork.open()) {
             var sql = """
                       INSERT INTO candidates(name, description, creation_date, city_id, file_id)
                       VALUES (:name, :description, :creationDate, :cityId, :fileId)
@@ -26,7 +37,7 @@ public class Sql2oCandidateRepository implements CandidateRepository {
                     .addParameter("description", candidate.getDescription())
                     .addParameter("creationDate", candidate.getCreationDate())
                     .addParameter("cityId", candidate.getCityId())
-                    .addParameter("fileId", candidate.getFileId());
+                    .addParameter("fileId", Rows.fileId(candidate.getFileId()));
             int generatedId = query.executeUpdate().getKey(Integer.class);
             candidate.setId(generatedId);
             return candidate;
@@ -35,7 +46,7 @@ public class Sql2oCandidateRepository implements CandidateRepository {
 
     @Override
     public boolean deleteById(int id) {
-        try (var connection = sql2o.open()) {
+        try (var connection = unitOfWork.open()) {
             var query = connection.createQuery("DELETE FROM candidates WHERE id = :id");
             query.addParameter("id", id);
             query.executeUpdate();
@@ -45,7 +56,7 @@ public class Sql2oCandidateRepository implements CandidateRepository {
 
     @Override
     public boolean update(Candidate candidate) {
-        try (var connection = sql2o.open()) {
+        try (var connection = unitOfWork.open()) {
             var sql = """
                     UPDATE candidates
                     SET name = :name, description = :description,
@@ -56,7 +67,7 @@ public class Sql2oCandidateRepository implements CandidateRepository {
                     .addParameter("name", candidate.getName())
                     .addParameter("description", candidate.getDescription())
                     .addParameter("cityId", candidate.getCityId())
-                    .addParameter("fileId", candidate.getFileId())
+                    .addParameter("fileId", Rows.fileId(candidate.getFileId()))
                     .addParameter("id", candidate.getId());
             var affectRows = query.executeUpdate().getResult();
         return affectRows > 0;
@@ -65,8 +76,8 @@ public class Sql2oCandidateRepository implements CandidateRepository {
 
     @Override
     public Optional<Candidate> findById(int id) {
-        try (var connection = sql2o.open()) {
-            var query = connection.createQuery("SELECT * from candidates WHERE id = :id");
+        try (var connection = unitOfWork.open()) {
+            var query = connection.createQuery("SELECT " + Rows.CANDIDATE_COLUMNS + " FROM candidates WHERE id = :id");
             query.addParameter("id", id);
             var candidate = query.setColumnMappings(Candidate.COLUMN_MAPPING).executeAndFetchFirst(Candidate.class);
             return Optional.ofNullable(candidate);
@@ -75,9 +86,35 @@ public class Sql2oCandidateRepository implements CandidateRepository {
 
     @Override
     public Collection<Candidate> findAll() {
-        try (var connection = sql2o.open()) {
-            var query = connection.createQuery("SELECT * FROM candidates");
+        try (var connection = unitOfWork.open()) {
+            var query = connection.createQuery("SELECT " + Rows.CANDIDATE_COLUMNS + " FROM candidates");
             return query.setColumnMappings(Candidate.COLUMN_MAPPING).executeAndFetch(Candidate.class);
         }
     }
+
+    @Override
+    public Page<CandidateSummary> findSummaryPage(ListFilter filter, PageRequest request) {
+        try (var connection = unitOfWork.open()) {
+            var where = Filters.conditions(filter, "p.", false, Keyset.where(request, "p."));
+            var sql = "SELECT " + Rows.CANDIDATE_SUMMARY_COLUMNS + " FROM " + Rows.CANDIDATE_SUMMARY_FROM
+                    + (where.isEmpty() ? "" : " WHERE " + where)
+                    + " " + Keyset.orderBy(request, "p.")
+                    + " LIMIT :limit";
+            var query = Filters.bind(Keyset.bind(connection.createQuery(sql), request), filter, false);
+            var rows = query.executeAndFetch(Rows::candidateSummary);
+            return Page.of(rows, request, summary -> new PageCursor(summary.getCreationDate(), summary.getId()));
+        }
+    }
+
+    @Override
+    public List<CityFacet> countByCity(ListFilter filter, int limit) {
+        try (var connection = unitOfWork.open()) {
+            return CityFacets.top(connection, "candidates", "p.", false, filter, limit);
+        }
+    }
+
+    @Override
+    public Page<Candidate> search(String query, SearchCursor after, int limit) {
+        return fullTextSearch.search(query, after, limit);
+    }
 }
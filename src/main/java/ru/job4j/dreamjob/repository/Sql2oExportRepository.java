@@ -0,0 +1,75 @@
+package ru.job4j.dreamjob.repository;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+import org.sql2o.ResultSetHandler;
+import org.sql2o.Sql2o;
+import org.sql2o.Sql2oException;
+import ru.job4j.dreamjob.model.Candidate;
+import ru.job4j.dreamjob.model.Vacancy;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+/**
+ * Выгрузка идёт мимо маппинга Sql2o: в Sql2o нельзя задать fetch size, а без него драйвер
+ * PostgreSQL читает весь результат в память. С fetch size и выключенным autocommit драйвер
+ * открывает серверный курсор и подтягивает строки порциями, поэтому каждая выгрузка идёт
+ * в своей транзакции и заодно видит один снимок базы.
+ * Соединение берётся из exportDatabaseClient, то есть не из пула: пул отобрал бы его
+ * как брошенное, если выгрузка длится дольше remove-abandoned-timeout.
+ */
+@Repository
+public class Sql2oExportRepository implements ExportRepository {
+    private final Sql2o sql2o;
+    private final int fetchSize;
+
+    public Sql2oExportRepository(@Qualifier("exportDatabaseClient") Sql2o sql2o,
+                                 @Value("${export.fetch-size:1000}") int fetchSize) {
+        this.sql2o = sql2o;
+        this.fetchSize = fetchSize;
+    }
+
+    @Override
+    public long forEachVacancy(LocalDateTime from, LocalDateTime to, Consumer<Vacancy> consumer) {
+        return forEach("vacancies", Rows.VACANCY_COLUMNS, Rows::vacancy, from, to, consumer);
+    }
+
+    @Override
+    public long forEachCandidate(LocalDateTime from, LocalDateTime to, Consumer<Candidate> consumer) {
+        return forEach("candidates", Rows.CANDIDATE_COLUMNS, Rows::candidate, from, to, consumer);
+    }
+
+    private <T> long forEach(String table, String columns, ResultSetHandler<T> mapper,
+                             LocalDateTime from, LocalDateTime to, Consumer<T> consumer) {
+        var sql = "SELECT " + columns + " FROM " + table
+                + " WHERE " + (from == null ? "1 = 1" : "creation_date >= ?")
+                + " AND " + (to == null ? "1 = 1" : "creation_date < ?")
+                + " ORDER BY creation_date, id";
+        try (var connection = sql2o.beginTransaction();
+             var statement = connection.getJdbcConnection().prepareStatement(sql)) {
+            int index = 1;
+            if (from != null) {
+                statement.setTimestamp(index++, Timestamp.valueOf(from));
+            }
+            if (to != null) {
+                statement.setTimestamp(index, Timestamp.valueOf(to));
+            }
+            statement.setFetchSize(fetchSize);
+            long rows = 0;
+            try (var resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    consumer.accept(mapper.handle(resultSet));
+                    rows++;
+                }
+            }
+            connection.getJdbcConnection().commit();
+            return rows;
+        } catch (SQLException e) {
+            throw new Sql2oException("Export of " + table + " failed", e);
+        }
+    }
+}
@@ -1,24 +1,32 @@
 package ru.job4j.dreamjob.repository;
 
 import org.springframework.stereotype.Repository;
-import org.sql2o.Sql2o;
+import org.sql2o.ResultSetHandler;
+import ru.job4j.dreamjob.dto.FileUsage;
 import ru.job4j.dreamjob.model.File;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.Optional;
 
 @Repository
 public class Sql2oFileRepository implements FileRepository {
-    private final Sql2o sql2o;
+    private static final String COLUMNS = "id, name, path, hash, ref_count";
 
-    public Sql2oFileRepository(Sql2o sql2o) {
-        this.sql2o = sql2o;
+    private final Sql2oUnitOfWork unitOfWork;
+
+    public Sql2oFileRepository(Sql2oUnitOfWork unitOfWork) {
+        this.unitOfWork = unitOfWork;
     }
 
     @Override
     public File save(File file) {
-        try (var connection = sql2o.open()) {
-            var query = connection.createQuery("INSERT INTO files (name, path) VALUES (:name, :path)", true)
+        try (var connection = unitOfWork.open()) {
+            var sql = "INSERT INTO files (name, path, hash, ref_count) VALUES (:name, :path, :hash, :refCount)";
+            var query = connection.createQuery(sql, true)
                     .addParameter("name", file.getName())
-                    .addParameter("path", file.getPath());
+                    .addParameter("path", file.getPath())
+                    .addParameter("hash", file.getHash())
+                    .addParameter("refCount", file.getRefCount());
             int generatedId = query.executeUpdate().getKey(Integer.class);
             file.setId(generatedId);
             return file;
@@ -27,16 +35,111 @@ public class Sql2oFileRepository implements FileRepository {
 
     @Override
     public Optional<File> findById(int id) {
-        try (var connection = sql2o.open()) {
-            var query = connection.createQuery("SELECT * FROM files WHERE id = :id");
-            var file = query.addParameter("id", id).executeAndFetchFirst(File.class);
+        try (var connection = unitOfWork.open()) {
+            var query = connection.createQuery("SELECT " + COLUMNS + " FROM files WHERE id = :id");
+            var file = query.addParameter("id", id)
+                    .setColumnMappings(File.COLUMN_MAPPING).executeAndFetchFirst(File.class);
+            return Optional.ofNullable(file);
+        }
+    }
+
+    @Override
+    public Optional<File> findByHash(String hash) {
+        try (var connection = unitOfWork.open()) {
+            var query = connection.createQuery("SELECT " + COLUMNS + " FROM files WHERE hash = :hash");
+            var file = query.addParameter("hash", hash)
+                    .setColumnMappings(File.COLUMN_MAPPING).executeAndFetchFirst(File.class);
             return Optional.ofNullable(file);
         }
     }
 
+    @Override
+    public Collection<File> findAfter(int id, int limit) {
+        try (var connection = unitOfWork.open()) {
+            var query = connection.createQuery(
+                    "SELECT " + COLUMNS + " FROM files WHERE id > :id ORDER BY id LIMIT :limit");
+            return query.addParameter("id", id)
+                    .addParameter("limit", limit)
+                    .setColumnMappings(File.COLUMN_MAPPING).executeAndFetch(File.class);
+        }
+    }
+
+    @Override
+    public boolean update(File file) {
+        try (var connection = unitOfWork.open()) {
+            var query = connection.createQuery("UPDATE files SET path = :path, hash = :hash WHERE id = :id")
+                    .addParameter("path", file.getPath())
+                    .addParameter("hash", file.getHash())
+                    .addParameter("id", file.getId());
+            return query.executeUpdate().getResult() > 0;
+        }
+    }
+
+    /**
+     * LIKE 'ab/%' в PostgreSQL идёт по индексу files_path_pattern_idx (varchar_pattern_ops).
+     * Ссылки считаются одним GROUP BY по строкам вакансий и кандидатов с файлами из этого
+     * префикса - их находят индексы vacancies_file_id_idx и candidates_file_id_idx.
+     */
+    @Override
+    public Collection<FileUsage> findUsages(String pathPrefix) {
+        try (var connection = unitOfWork.open()) {
+            var prefixFiles = "SELECT id FROM files WHERE path LIKE :prefix";
+            var sql = "SELECT f.id, f.path, f.hash, f.ref_count, f.created_at, "
+                    + "COALESCE(u.file_references, 0) AS file_references "
+                    + "FROM files f LEFT JOIN ("
+                    + "SELECT r.file_id, COUNT(*) AS file_references FROM ("
+                    + "SELECT v.file_id FROM vacancies v WHERE v.file_id IN (" + prefixFiles + ") "
+                    + "UNION ALL SELECT c.file_id FROM candidates c WHERE c.file_id IN (" + prefixFiles + ")"
+                    + ") r GROUP BY r.file_id"
+                    + ") u ON u.file_id = f.id "
+                    + "WHERE f.path LIKE :prefix";
+            return connection.createQuery(sql)
+                    .addParameter("prefix", pathPrefix + "%")
+                    .executeAndFetch((ResultSetHandler<FileUsage>) Rows::fileUsage);
+        }
+    }
+
+    @Override
+    public boolean deleteOrphan(int id, int refCount, LocalDateTime createdBefore) {
+        try (var connection = unitOfWork.open()) {
+            var sql = "DELETE FROM files WHERE id = :id AND ref_count = :refCount AND created_at < :createdBefore "
+                    + "AND NOT EXISTS (SELECT 1 FROM vacancies v WHERE v.file_id = :id) "
+                    + "AND NOT EXISTS (SELECT 1 FROM candidates c WHERE c.file_id = :id)";
+            var query = connection.createQuery(sql)
+                    .addParameter("id", id)
+                    .addParameter("refCount", refCount)
+                    .addParameter("createdBefore", createdBefore);
+            return query.executeUpdate().getResult() > 0;
+        }
+    }
+
+    @Override
+    public boolean acquire(int id) {
+        try (var connection = unitOfWork.open()) {
+            var query = connection.createQuery("UPDATE files SET ref_count = ref_count + 1 WHERE id = :id");
+            return query.addParameter("id", id).executeUpdate().getResult() > 0;
+        }
+    }
+
+    @Override
+    public boolean release(int id) {
+        return unitOfWork.execute(() -> {
+            try (var connection = unitOfWork.open()) {
+                connection.createQuery("UPDATE files SET ref_count = ref_count - 1 WHERE id = :id")
+                        .addParameter("id", id)
+                        .executeUpdate();
+                var deleted = connection.createQuery("DELETE FROM files WHERE id = :id AND ref_count <= 0")
+                        .addParameter("id", id)
+                        .executeUpdate()
+                        .getResult();
+                return deleted > 0;
+            }
+        });
+    }
+
     @Override
     public void deleteById(int id) {
-        try (var connection = sql2o.open()) {
+        try (var connection = unitOfWork.open()) {
             var query = connection.createQuery("DELETE FROM files WHERE id = :id");
             query.addParameter("id", id).executeUpdate();
         }
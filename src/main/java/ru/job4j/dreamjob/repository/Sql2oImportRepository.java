@@ -0,0 +1,140 @@
+package ru.job4j.dreamjob.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Repository;
+import org.sql2o.Connection;
+import ru.job4j.dreamjob.imports.ImportKind;
+import ru.job4j.dreamjob.model.Candidate;
+import ru.job4j.dreamjob.model.Vacancy;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public class Sql2oImportRepository implements ImportRepository {
+    private static final Logger LOGGER = LoggerFactory.getLogger(Sql2oImportRepository.class);
+
+    private final Sql2oUnitOfWork unitOfWork;
+
+    public Sql2oImportRepository(Sql2oUnitOfWork unitOfWork) {
+        this.unitOfWork = unitOfWork;
+    }
+
+    /**
+     * Вставка без проверки заранее: два одновременных первых запуска с одним именем иначе
+     * оба не нашли бы строку и второй упал бы на первичном ключе. Вид и точку продолжения
+     * читаем уже после вставки - свою строку или ту, что вставил соседний запуск.
+     */
+    @Override
+    public int start(String name, ImportKind kind) {
+        try (var connection = unitOfWork.open()) {
+            connection.createQuery("""
+                            INSERT INTO imports(name, kind, committed_rows, failed_rows, updated_at)
+                            VALUES (:name, :kind, 0, 0, :updatedAt)
+                            ON CONFLICT DO NOTHING
+                            """)
+                    .addParameter("name", name)
+                    .addParameter("kind", kind.name())
+                    .addParameter("updatedAt", LocalDateTime.now())
+                    .executeUpdate();
+            var row = connection.createQuery("SELECT kind, committed_rows FROM imports WHERE name = :name")
+                    .addParameter("name", name)
+                    .executeAndFetchTable()
+                    .rows()
+                    .get(0);
+            var kindName = row.getString("kind");
+            if (!kind.name().equals(kindName)) {
+                throw new IllegalArgumentException("Import " + name + " was started for " + kindName.toLowerCase());
+            }
+            return row.getInteger("committed_rows");
+        }
+    }
+
+    @Override
+    public boolean advance(String name, int expectedRows, int committedRows, int failedRows) {
+        try (var connection = unitOfWork.open()) {
+            var sql = """
+                    UPDATE imports
+                    SET committed_rows = :committedRows, failed_rows = failed_rows + :failedRows, updated_at = :updatedAt
+                    WHERE name = :name AND committed_rows = :expectedRows
+                    """;
+            return connection.createQuery(sql)
+                    .addParameter("committedRows", committedRows)
+                    .addParameter("failedRows", failedRows)
+                    .addParameter("updatedAt", LocalDateTime.now())
+                    .addParameter("name", name)
+                    .addParameter("expectedRows", expectedRows)
+                    .executeUpdate()
+                    .getResult() > 0;
+        }
+    }
+
+    @Override
+    public void insertVacancies(List<Vacancy> vacancies) {
+        if (vacancies.isEmpty()) {
+            return;
+        }
+        try (var connection = unitOfWork.open()) {
+            var sql = """
+                      INSERT INTO vacancies(title, description, creation_date, visible, city_id, file_id)
+                      VALUES (:title, :description, :creationDate, :visible, :cityId, :fileId)
+                      """;
+            var query = connection.createQuery(sql, true);
+            for (var vacancy : vacancies) {
+                query.addParameter("title", vacancy.getTitle())
+                        .addParameter("description", vacancy.getDescription())
+                        .addParameter("creationDate", vacancy.getCreationDate())
+                        .addParameter("visible", vacancy.getVisible())
+                        .addParameter("cityId", vacancy.getCityId())
+                        .addParameter("fileId", Rows.fileId(vacancy.getFileId()))
+                        .addToBatch();
+            }
+            query.executeBatch();
+            var keys = generatedKeys(connection, vacancies.size());
+            for (int i = 0; i < keys.size(); i++) {
+                vacancies.get(i).setId(keys.get(i));
+            }
+        }
+    }
+
+    @Override
+    public void insertCandidates(List<Candidate> candidates) {
+        if (candidates.isEmpty()) {
+            return;
+        }
+        try (var connection = unitOfWork.open()) {
+            var sql = """
+                      INSERT INTO candidates(name, description, creation_date, city_id, file_id)
+                      VALUES (:name, :description, :creationDate, :cityId, :fileId)
+                      """;
+            var query = connection.createQuery(sql, true);
+            for (var candidate : candidates) {
+                query.addParameter("name", candidate.getName())
+                        .addParameter("description", candidate.getDescription())
+                        .addParameter("creationDate", candidate.getCreationDate())
+                        .addParameter("cityId", candidate.getCityId())
+                        .addParameter("fileId", Rows.fileId(candidate.getFileId()))
+                        .addToBatch();
+            }
+            query.executeBatch();
+            var keys = generatedKeys(connection, candidates.size());
+            for (int i = 0; i < keys.size(); i++) {
+                candidates.get(i).setId(keys.get(i));
+            }
+        }
+    }
+
+    /**
+     * Драйвер может не вернуть ключи пачки; тогда строки остаются без id, а в поисковый
+     * индекс они попадут при следующей перестройке.
+     */
+    private static List<Integer> generatedKeys(Connection connection, int rows) {
+        var keys = connection.getKeys(Integer.class);
+        if (keys.size() != rows) {
+            LOGGER.warn("Driver returned {} generated keys for a batch of {} rows", keys.size(), rows);
+            return List.of();
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,118 @@
+package ru.job4j.dreamjob.repository;
+
+import net.jcip.annotations.ThreadSafe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.sql2o.Connection;
+import org.sql2o.Sql2o;
+import org.sql2o.connectionsources.ConnectionSources;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Транзакция привязывается к потоку. Пока она идёт, open() отдаёт обёртку над тем же
+ * JDBC-соединением: её close() не закрывает соединение и не откатывает транзакцию,
+ * поэтому репозитории пишут привычное try (var connection = ...open()).
+ */
+@ThreadSafe
+@Component
+public class Sql2oUnitOfWork implements UnitOfWork {
+    private static final Logger LOGGER = LoggerFactory.getLogger(Sql2oUnitOfWork.class);
+
+    private final Sql2o sql2o;
+
+    private final ThreadLocal<Transaction> current = new ThreadLocal<>();
+
+    public Sql2oUnitOfWork(Sql2o sql2o) {
+        this.sql2o = sql2o;
+    }
+
+    /**
+     * Соединение текущей транзакции или, вне её, новое соединение из пула.
+     */
+    public Connection open() {
+        var transaction = current.get();
+        if (transaction == null) {
+            return sql2o.open();
+        }
+        var joined = sql2o.open(ConnectionSources.join(transaction.connection.getJdbcConnection()));
+        joined.setRollbackOnClose(false);
+        joined.setRollbackOnException(false);
+        return joined;
+    }
+
+    @Override
+    public <T> T execute(Supplier<T> work) {
+        if (current.get() != null) {
+            return work.get();
+        }
+        var transaction = new Transaction(sql2o.beginTransaction());
+        current.set(transaction);
+        T result;
+        try {
+            result = work.get();
+            transaction.connection.commit();
+        } catch (RuntimeException | Error e) {
+            current.remove();
+            rollback(transaction);
+            throw e;
+        }
+        current.remove();
+        run(transaction.afterCommit);
+        return result;
+    }
+
+    @Override
+    public void afterCommit(Runnable action) {
+        var transaction = current.get();
+        if (transaction == null) {
+            action.run();
+        } else {
+            transaction.afterCommit.add(action);
+        }
+    }
+
+    @Override
+    public void afterRollback(Runnable action) {
+        var transaction = current.get();
+        if (transaction != null) {
+            transaction.afterRollback.add(action);
+        }
+    }
+
+    private static void rollback(Transaction transaction) {
+        try {
+            transaction.connection.rollback();
+        } catch (RuntimeException e) {
+            LOGGER.warn("Could not roll back transaction", e);
+        }
+        run(transaction.afterRollback);
+    }
+
+    /**
+     * Хуки независимы: ошибка одного (например, недоступное хранилище) не должна
+     * помешать остальным, среди которых снятие блокировок.
+     */
+    private static void run(List<Runnable> actions) {
+        for (var action : actions) {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                LOGGER.warn("Transaction completion hook failed", e);
+            }
+        }
+    }
+
+    private static class Transaction {
+        private final Connection connection;
+        private final List<Runnable> afterCommit = new ArrayList<>();
+        private final List<Runnable> afterRollback = new ArrayList<>();
+
+        Transaction(Connection connection) {
+            this.connection = connection;
+        }
+    }
+}
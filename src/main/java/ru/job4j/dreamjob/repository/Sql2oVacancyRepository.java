@@ -2,21 +2,32 @@ package ru.job4j.dreamjob.repository;
 
 import org.springframework.stereotype.Repository;
 import org.sql2o.Sql2o;
+import ru.job4j.dreamjob.dto.CityFacet;
+import ru.job4j.dreamjob.dto.ListFilter;
+import ru.job4j.dreamjob.dto.Page;
+import ru.job4j.dreamjob.dto.PageCursor;
+import ru.job4j.dreamjob.dto.PageRequest;
+import ru.job4j.dreamjob.dto.SearchCursor;
+import ru.job4j.dreamjob.dto.VacancySummary;
 import ru.job4j.dreamjob.model.Vacancy;
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public class Sql2oVacancyRepository implements VacancyRepository {
-    private final Sql2o sql2o;
+    private final Sql2oUnitOfWork unitOfWork;
+    private final FullTextSearch<Vacancy> fullTextSearch;
 
-    public Sql2oVacancyRepository(Sql2o sql2o) {
-        this.sql2o = sql2o;
+    public Sql2oVacancyRepository(Sql2o sql2o, Sql2oUnitOfWork unitOfWork) {
+        this.unitOfWork = unitOfWork;
+        this.fullTextSearch = new FullTextSearch<>(sql2o, "vacancies", Rows.VACANCY_COLUMNS, "title",
+                Rows::vacancy, Vacancy::getId);
     }
 
     @Override
     public Vacancy save(Vacancy vacancy) {
-        try (var connection = sql2o.open()) {
+        try (var connection = unitOfWork.open()) {
             var sql = """
                       INSERT INTO vacancies(title, description, creation_date, visible, city_id, file_id)
                       VALUES (:title, :description, :creationDate, :visible, :cityId, :fileId)
@@ -27,7 +38,7 @@ public class Sql2oVacancyRepository implements VacancyRepository {
                     .addParameter("creationDate", vacancy.getCreationDate())
                     .addParameter("visible", vacancy.getVisible())
                     .addParameter("cityId", vacancy.getCityId())
-                    .addParameter("fileId", vacancy.getFileId());
+                    .addParameter("fileId", Rows.fileId(vacancy.getFileId()));
             int generatedId = query.executeUpdate().getKey(Integer.class);
             vacancy.setId(generatedId);
             return vacancy;
@@ -36,7 +47,7 @@ public class Sql2oVacancyRepository implements VacancyRepository {
 
     @Override
     public boolean deleteById(int id) {
-        try (var connection = sql2o.open()) {
+        try (var connection = unitOfWork.open()) {
             var query = connection.createQuery("DELETE FROM vacancies WHERE id = :id");
             query.addParameter("id", id);
             query.executeUpdate();
@@ -46,7 +57,7 @@ public class Sql2oVacancyRepository implements VacancyRepository {
 
     @Override
     public boolean update(Vacancy vacancy) {
-        try (var connection = sql2o.open()) {
+        try (var connection = unitOfWork.open()) {
             var sql = """
                     UPDATE vacancies
                     SET title = :title, description = :description,
@@ -58,7 +69,7 @@ public class Sql2oVacancyRepository implements VacancyRepository {
                     .addParameter("description", vacancy.getDescription())
                     .addParameter("visible", vacancy.getVisible())
                     .addParameter("cityId", vacancy.getCityId())
-                    .addParameter("fileId", vacancy.getFileId())
+                    .addParameter("fileId", Rows.fileId(vacancy.getFileId()))
                     .addParameter("id", vacancy.getId());
             var affectedRows = query.executeUpdate().getResult();
             return affectedRows > 0;
@@ -67,8 +78,8 @@ public class Sql2oVacancyRepository implements VacancyRepository {
 
     @Override
     public Optional<Vacancy> findById(int id) {
-        try (var connection = sql2o.open()) {
-            var query = connection.createQuery("SELECT * FROM vacancies WHERE id = :id");
+        try (var connection = unitOfWork.open()) {
+            var query = connection.createQuery("SELECT " + Rows.VACANCY_COLUMNS + " FROM vacancies WHERE id = :id");
             query.addParameter("id", id);
             var vacancy = query.setColumnMappings(Vacancy.COLUMN_MAPPING).executeAndFetchFirst(Vacancy.class);
             return Optional.ofNullable(vacancy);
@@ -77,9 +88,35 @@ public class Sql2oVacancyRepository implements VacancyRepository {
 
     @Override
     public Collection<Vacancy> findAll() {
-        try (var connection = sql2o.open()) {
-            var query = connection.createQuery("SELECT * FROM vacancies");
+        try (var connection = unitOfWork.open()) {
+            var query = connection.createQuery("SELECT " + Rows.VACANCY_COLUMNS + " FROM vacancies");
             return query.setColumnMappings(Vacancy.COLUMN_MAPPING).executeAndFetch(Vacancy.class);
         }
     }
+
+    @Override
+    public Page<VacancySummary> findSummaryPage(ListFilter filter, PageRequest request) {
+        try (var connection = unitOfWork.open()) {
+            var where = Filters.conditions(filter, "v.", true, Keyset.where(request, "v."));
+            var sql = "SELECT " + Rows.VACANCY_SUMMARY_COLUMNS + " FROM " + Rows.VACANCY_SUMMARY_FROM
+                    + (where.isEmpty() ? "" : " WHERE " + where)
+                    + " " + Keyset.orderBy(request, "v.")
+                    + " LIMIT :limit";
+            var query = Filters.bind(Keyset.bind(connection.createQuery(sql), request), filter, true);
+            var rows = query.executeAndFetch(Rows::vacancySummary);
+            return Page.of(rows, request, summary -> new PageCursor(summary.getCreationDate(), summary.getId()));
+        }
+    }
+
+    @Override
+    public List<CityFacet> countByCity(ListFilter filter, int limit) {
+        try (var connection = unitOfWork.open()) {
+            return CityFacets.top(connection, "vacancies", "v.", true, filter, limit);
+        }
+    }
+
+    @Override
+    public Page<Vacancy> search(String query, SearchCursor after, int limit) {
+        return fullTextSearch.search(query, after, limit);
+    }
 }
@@ -0,0 +1,48 @@
+package ru.job4j.dreamjob.repository;
+
+import java.util.function.Supplier;
+
+/**
+ * Составная запись (файл + вакансия, файл + кандидат) одной транзакцией на одном соединении.
+ * Репозитории, вызванные внутри execute, присоединяются к ней сами.
+ * Действия с хранилищем и кэшами, которые нельзя откатить, откладываются хуками
+ * до фиксации или отката. Вне транзакции каждый оператор фиксируется сразу, поэтому
+ * хук afterCommit выполняется немедленно, а afterRollback не выполняется никогда.
+ */
+public interface UnitOfWork {
+    /**
+     * Выполняет work в транзакции. Если транзакция на этом потоке уже идёт, work к ней присоединяется.
+     * Исключение из work откатывает всю транзакцию и пробрасывается дальше.
+     */
+    <T> T execute(Supplier<T> work);
+
+    void afterCommit(Runnable action);
+
+    void afterRollback(Runnable action);
+
+    default void afterCompletion(Runnable action) {
+        afterCommit(action);
+        afterRollback(action);
+    }
+
+    /**
+     * Без транзакций - для хранилищ в памяти и тестов.
+     */
+    static UnitOfWork none() {
+        return new UnitOfWork() {
+            @Override
+            public <T> T execute(Supplier<T> work) {
+                return work.get();
+            }
+
+            @Override
+            public void afterCommit(Runnable action) {
+                action.run();
+            }
+
+            @Override
+            public void afterRollback(Runnable action) {
+            }
+        };
+    }
+}
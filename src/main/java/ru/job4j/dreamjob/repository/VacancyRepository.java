@@ -1,8 +1,15 @@
 package ru.job4j.dreamjob.repository;
 
+import ru.job4j.dreamjob.dto.CityFacet;
+import ru.job4j.dreamjob.dto.ListFilter;
+import ru.job4j.dreamjob.dto.Page;
+import ru.job4j.dreamjob.dto.PageRequest;
+import ru.job4j.dreamjob.dto.SearchCursor;
+import ru.job4j.dreamjob.dto.VacancySummary;
 import ru.job4j.dreamjob.model.Vacancy;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface VacancyRepository {
@@ -12,4 +19,23 @@ public interface VacancyRepository {
 
     Optional<Vacancy> findById(int id);
     Collection<Vacancy> findAll();
+
+    /**
+     * Страница списка: только колонки списка, без description, с условиями фильтра.
+     * Сначала новые, курсоры - PageCursor по (creation_date, id).
+     */
+    Page<VacancySummary> findSummaryPage(ListFilter filter, PageRequest request);
+
+    /**
+     * Сколько строк в каждом городе подходит под остальные условия фильтра (город не учитывается):
+     * не больше limit городов с наибольшим числом строк, только города, где строки есть.
+     * Выбранный в фильтре город есть в ответе всегда, в том числе с нулём.
+     */
+    List<CityFacet> countByCity(ListFilter filter, int limit);
+
+    /**
+     * Полнотекстовый поиск, лучшие совпадения первыми. after - курсор из nextToken
+     * предыдущей страницы или null для первой.
+     */
+    Page<Vacancy> search(String query, SearchCursor after, int limit);
 }
@@ -0,0 +1,286 @@
+package ru.job4j.dreamjob.search;
+
+import net.jcip.annotations.ThreadSafe;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Инвертированный индекс с ранжированием BM25. Документ обновляется точечно:
+ * прямой индекс (документ -> его термы) позволяет убрать старую версию,
+ * не перестраивая остальное.
+ */
+@ThreadSafe
+public class InvertedIndex {
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<Integer, Document> documents = new HashMap<>();
+    private long totalLength;
+
+    /* порядковый номер документа в индексе -> его id; postings хранят номера, а не id */
+    private int[] ids = new int[16];
+    private int nextOrdinal;
+    private int[] freeOrdinals = new int[16];
+    private int freeCount;
+
+    /* id, изменённые во время первичной загрузки: их снимок из базы уже устарел */
+    private Set<Integer> touchedDuringLoad;
+
+    public void add(int document, List<String> tokens) {
+        lock.writeLock().lock();
+        try {
+            markTouched(document);
+            removeInternal(document);
+            addInternal(document, tokens);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int document) {
+        lock.writeLock().lock();
+        try {
+            markTouched(document);
+            removeInternal(document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void beginLoad() {
+        lock.writeLock().lock();
+        try {
+            touchedDuringLoad = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Заливает снимок документов, пропуская те, что успели поменяться
+     * через add/remove после beginLoad.
+     */
+    public void load(Map<Integer, List<String>> snapshot) {
+        lock.writeLock().lock();
+        try {
+            for (var entry : snapshot.entrySet()) {
+                if (touchedDuringLoad != null && touchedDuringLoad.contains(entry.getKey())) {
+                    continue;
+                }
+                removeInternal(entry.getKey());
+                addInternal(entry.getKey(), entry.getValue());
+            }
+            touchedDuringLoad = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Баллы копятся в Scores по порядковому номеру документа, без боксинга на каждое вхождение
+     * и без массива на весь индекс. Лучшие limit отбираются кучей ограниченного размера.
+     */
+    public List<SearchHit> search(List<String> queryTokens, int limit) {
+        lock.readLock().lock();
+        try {
+            var documentCount = documents.size();
+            if (documentCount == 0 || limit <= 0) {
+                return List.of();
+            }
+            var terms = new ArrayList<Postings>();
+            long matches = 0;
+            for (var term : new LinkedHashSet<>(queryTokens)) {
+                var termPostings = postings.get(term);
+                if (termPostings != null) {
+                    terms.add(termPostings);
+                    matches += termPostings.size();
+                }
+            }
+            if (terms.isEmpty()) {
+                return List.of();
+            }
+            var averageLength = (double) totalLength / documentCount;
+            var scores = new Scores((int) Math.min(matches, documentCount));
+            for (var termPostings : terms) {
+                var frequency = termPostings.size();
+                var idf = Math.log(1 + (documentCount - frequency + 0.5) / (frequency + 0.5));
+                for (int i = 0; i < termPostings.slots(); i++) {
+                    var tf = termPostings.frequency(i);
+                    if (tf == 0) {
+                        continue;
+                    }
+                    var norm = K1 * (1 - B + B * termPostings.length(i) / averageLength);
+                    scores.add(termPostings.ordinal(i), idf * tf * (K1 + 1) / (tf + norm));
+                }
+            }
+            return top(scores, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * В куче лежит не больше limit ячеек Scores, в вершине - худшая из отобранных.
+     * Порядок как у выдачи: балл по убыванию, при равенстве id по возрастанию.
+     */
+    private List<SearchHit> top(Scores scores, int limit) {
+        var heap = new int[Math.min(limit, scores.size())];
+        var size = 0;
+        for (int slot = 0; slot < scores.capacity(); slot++) {
+            if (!scores.isUsed(slot)) {
+                continue;
+            }
+            if (size < heap.length) {
+                heap[size] = slot;
+                siftUp(heap, size++, scores);
+            } else if (ranksBelow(heap[0], slot, scores)) {
+                heap[0] = slot;
+                siftDown(heap, size, scores);
+            }
+        }
+        var result = new ArrayList<SearchHit>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(new SearchHit(ids[scores.ordinal(heap[i])], scores.score(heap[i])));
+        }
+        result.sort(Comparator.comparingDouble(SearchHit::getScore).reversed()
+                .thenComparing(SearchHit::getId));
+        return result;
+    }
+
+    private boolean ranksBelow(int slot, int other, Scores scores) {
+        var score = scores.score(slot);
+        var otherScore = scores.score(other);
+        return score < otherScore
+                || score == otherScore && ids[scores.ordinal(slot)] > ids[scores.ordinal(other)];
+    }
+
+    private void siftUp(int[] heap, int index, Scores scores) {
+        var slot = heap[index];
+        while (index > 0) {
+            var parent = (index - 1) >>> 1;
+            if (!ranksBelow(slot, heap[parent], scores)) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = slot;
+    }
+
+    private void siftDown(int[] heap, int size, Scores scores) {
+        var slot = heap[0];
+        var index = 0;
+        while (true) {
+            var child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && ranksBelow(heap[child + 1], heap[child], scores)) {
+                child++;
+            }
+            if (!ranksBelow(heap[child], slot, scores)) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = slot;
+    }
+
+    private void markTouched(int document) {
+        if (touchedDuringLoad != null) {
+            touchedDuringLoad.add(document);
+        }
+    }
+
+    private void addInternal(int document, List<String> tokens) {
+        if (tokens.isEmpty()) {
+            return;
+        }
+        var frequencies = new HashMap<String, Integer>();
+        for (var token : tokens) {
+            frequencies.merge(token, 1, Integer::sum);
+        }
+        var ordinal = allocateOrdinal(document);
+        for (var entry : frequencies.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), term -> new Postings())
+                    .put(ordinal, entry.getValue(), tokens.size());
+        }
+        documents.put(document, new Document(ordinal, frequencies.keySet().toArray(new String[0]), tokens.size()));
+        totalLength += tokens.size();
+    }
+
+    private void removeInternal(int document) {
+        var removed = documents.remove(document);
+        if (removed == null) {
+            return;
+        }
+        for (var term : removed.terms) {
+            var termPostings = postings.get(term);
+            termPostings.remove(removed.ordinal);
+            if (termPostings.size() == 0) {
+                postings.remove(term);
+            }
+        }
+        totalLength -= removed.length;
+        releaseOrdinal(removed.ordinal);
+    }
+
+    /**
+     * Номера освобождённых документов переиспользуются, так что массив ids
+     * растёт с числом живых документов, а не с числом обновлений.
+     */
+    private int allocateOrdinal(int document) {
+        int ordinal;
+        if (freeCount > 0) {
+            ordinal = freeOrdinals[--freeCount];
+        } else {
+            ordinal = nextOrdinal++;
+            if (ordinal == ids.length) {
+                ids = Arrays.copyOf(ids, Math.max(16, ids.length * 2));
+            }
+        }
+        ids[ordinal] = document;
+        return ordinal;
+    }
+
+    private void releaseOrdinal(int ordinal) {
+        if (freeCount == freeOrdinals.length) {
+            freeOrdinals = Arrays.copyOf(freeOrdinals, Math.max(16, freeOrdinals.length * 2));
+        }
+        freeOrdinals[freeCount++] = ordinal;
+    }
+
+    private static class Document {
+        private final int ordinal;
+        private final String[] terms;
+        private final int length;
+
+        Document(int ordinal, String[] terms, int length) {
+            this.ordinal = ordinal;
+            this.terms = terms;
+            this.length = length;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package ru.job4j.dreamjob.search;
+
+import java.util.Arrays;
+
+/**
+ * Список вхождений одного терма: отсортированные порядковые номера документов в индексе
+ * и параллельные массивы частот и длин документов. Примитивные массивы вместо Map, чтобы
+ * при миллионе документов обход шёл по памяти подряд и без боксинга.
+ * Удаление только ставит надгробие (частота 0) - сдвиг массивов под блокировкой записи
+ * остановил бы всех читателей. Надгробия вычищаются разом, когда их становится больше живых
+ * вхождений, так что на одно удаление приходится O(1) сдвигов в среднем.
+ */
+class Postings {
+    private int[] ordinals = new int[4];
+    private int[] frequencies = new int[4];
+    private int[] lengths = new int[4];
+    /* занятые ячейки, вместе с надгробиями */
+    private int slots;
+    private int removed;
+
+    void put(int ordinal, int frequency, int length) {
+        var position = Arrays.binarySearch(ordinals, 0, slots, ordinal);
+        if (position >= 0) {
+            if (frequencies[position] == 0) {
+                removed--;
+            }
+            frequencies[position] = frequency;
+            lengths[position] = length;
+            return;
+        }
+        var insertion = -position - 1;
+        if (slots == ordinals.length) {
+            var capacity = slots * 2;
+            ordinals = Arrays.copyOf(ordinals, capacity);
+            frequencies = Arrays.copyOf(frequencies, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+        }
+        var tail = slots - insertion;
+        System.arraycopy(ordinals, insertion, ordinals, insertion + 1, tail);
+        System.arraycopy(frequencies, insertion, frequencies, insertion + 1, tail);
+        System.arraycopy(lengths, insertion, lengths, insertion + 1, tail);
+        ordinals[insertion] = ordinal;
+        frequencies[insertion] = frequency;
+        lengths[insertion] = length;
+        slots++;
+    }
+
+    void remove(int ordinal) {
+        var position = Arrays.binarySearch(ordinals, 0, slots, ordinal);
+        if (position < 0 || frequencies[position] == 0) {
+            return;
+        }
+        frequencies[position] = 0;
+        removed++;
+        if (removed * 2 > slots) {
+            compact();
+        }
+    }
+
+    private void compact() {
+        var live = 0;
+        for (int i = 0; i < slots; i++) {
+            if (frequencies[i] != 0) {
+                ordinals[live] = ordinals[i];
+                frequencies[live] = frequencies[i];
+                lengths[live] = lengths[i];
+                live++;
+            }
+        }
+        slots = live;
+        removed = 0;
+    }
+
+    /**
+     * Число живых вхождений - документная частота терма.
+     */
+    int size() {
+        return slots - removed;
+    }
+
+    /**
+     * Граница обхода по ячейкам; ячейки с frequency(i) == 0 - удалённые вхождения.
+     */
+    int slots() {
+        return slots;
+    }
+
+    int ordinal(int index) {
+        return ordinals[index];
+    }
+
+    int frequency(int index) {
+        return frequencies[index];
+    }
+
+    int length(int index) {
+        return lengths[index];
+    }
+}
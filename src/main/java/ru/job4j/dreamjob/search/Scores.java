@@ -0,0 +1,69 @@
+package ru.job4j.dreamjob.search;
+
+/**
+ * Баллы одного запроса: порядковый номер документа -> сумма по термам, открытая адресация
+ * на примитивных массивах. Размер задаётся числом вхождений термов запроса, а не числом
+ * документов в индексе, так что запрос по редкому терму не выделяет память под весь индекс.
+ */
+class Scores {
+    /* заполнение не больше 3/4, чтобы цепочки проб оставались короткими */
+    private static final int MAX_LOAD_NUMERATOR = 3;
+    private static final int MAX_LOAD_DENOMINATOR = 4;
+
+    /* номер + 1; 0 - пустая ячейка */
+    private final int[] keys;
+    private final double[] values;
+    private final int mask;
+    private int size;
+
+    /**
+     * @param expected верхняя граница числа разных документов, которые получат балл
+     */
+    Scores(int expected) {
+        var needed = (long) expected * MAX_LOAD_DENOMINATOR / MAX_LOAD_NUMERATOR + 1;
+        var capacity = 2;
+        while (capacity < needed && capacity < 1 << 30) {
+            capacity <<= 1;
+        }
+        keys = new int[capacity];
+        values = new double[capacity];
+        mask = capacity - 1;
+    }
+
+    void add(int ordinal, double score) {
+        var key = ordinal + 1;
+        var hash = key * 0x9E3779B9;
+        var slot = (hash ^ hash >>> 16) & mask;
+        while (keys[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        if (keys[slot] == 0) {
+            keys[slot] = key;
+            size++;
+        }
+        values[slot] += score;
+    }
+
+    /**
+     * Число документов с баллом.
+     */
+    int size() {
+        return size;
+    }
+
+    int capacity() {
+        return keys.length;
+    }
+
+    boolean isUsed(int slot) {
+        return keys[slot] != 0;
+    }
+
+    int ordinal(int slot) {
+        return keys[slot] - 1;
+    }
+
+    double score(int slot) {
+        return values[slot];
+    }
+}
@@ -0,0 +1,19 @@
+package ru.job4j.dreamjob.search;
+
+public class SearchHit {
+    private final int id;
+    private final double score;
+
+    public SearchHit(int id, double score) {
+        this.id = id;
+        this.score = score;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public double getScore() {
+        return score;
+    }
+}
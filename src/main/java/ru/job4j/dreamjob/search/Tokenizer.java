@@ -0,0 +1,58 @@
+package ru.job4j.dreamjob.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Режет русский и английский текст на термы: нижний регистр, ё -> е,
+ * всё, что не буква и не цифра, считается разделителем.
+ */
+public final class Tokenizer {
+    private static final int MIN_TOKEN_LENGTH = 2;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "и", "в", "во", "не", "что", "он", "на", "я", "с", "со", "как", "а", "то", "все", "она",
+            "так", "его", "но", "да", "ты", "к", "у", "же", "вы", "за", "бы", "по", "от", "из", "о",
+            "об", "для", "или", "при", "до", "это", "мы", "их", "ее", "без",
+            "a", "an", "the", "and", "or", "of", "to", "in", "on", "for", "with", "at", "by", "is",
+            "are", "be", "as", "it", "from", "this", "that"
+    );
+
+    private Tokenizer() {
+    }
+
+    public static List<String> tokenize(String text) {
+        var tokens = new ArrayList<String>();
+        if (text == null) {
+            return tokens;
+        }
+        var current = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            var c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                current.append(normalize(c));
+            } else {
+                flush(current, tokens);
+            }
+        }
+        flush(current, tokens);
+        return tokens;
+    }
+
+    private static char normalize(char c) {
+        var lower = Character.toLowerCase(c);
+        return lower == 'ё' ? 'е' : lower;
+    }
+
+    private static void flush(StringBuilder current, List<String> tokens) {
+        if (current.length() == 0) {
+            return;
+        }
+        var token = current.toString();
+        current.setLength(0);
+        if (token.length() >= MIN_TOKEN_LENGTH && !STOP_WORDS.contains(token)) {
+            tokens.add(token);
+        }
+    }
+}
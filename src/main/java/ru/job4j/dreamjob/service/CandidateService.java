@@ -1,8 +1,14 @@
 package ru.job4j.dreamjob.service;
 
+import ru.job4j.dreamjob.dto.CandidateSummary;
+import ru.job4j.dreamjob.dto.CityFacet;
 import ru.job4j.dreamjob.dto.FileDto;
+import ru.job4j.dreamjob.dto.ListFilter;
+import ru.job4j.dreamjob.dto.Page;
+import ru.job4j.dreamjob.dto.PageRequest;
 import ru.job4j.dreamjob.model.Candidate;
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface CandidateService {
@@ -15,4 +21,11 @@ public interface CandidateService {
     Optional<Candidate> findById(int id);
 
     Collection<Candidate> findAll();
+
+    /**
+     * Страница списка: только колонки, которые на нём показываются.
+     */
+    Page<CandidateSummary> findSummaryPage(ListFilter filter, PageRequest request);
+
+    List<CityFacet> countByCity(ListFilter filter, int limit);
 }
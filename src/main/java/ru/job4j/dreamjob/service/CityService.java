@@ -1,9 +1,15 @@
 package ru.job4j.dreamjob.service;
 
+import ru.job4j.dreamjob.dto.CacheStats;
 import ru.job4j.dreamjob.model.City;
 
 import java.util.Collection;
+import java.util.Optional;
 
 public interface CityService {
     Collection<City> findAll();
+
+    Optional<City> findById(int id);
+
+    CacheStats getStats();
 }
@@ -0,0 +1,55 @@
+package ru.job4j.dreamjob.service;
+
+import net.jcip.annotations.ThreadSafe;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import ru.job4j.dreamjob.model.Candidate;
+import ru.job4j.dreamjob.model.Vacancy;
+import ru.job4j.dreamjob.repository.CandidateRepository;
+import ru.job4j.dreamjob.repository.VacancyRepository;
+
+import java.util.List;
+
+/**
+ * Поиск силами базы: индекс один на все узлы приложения и обновляется самой базой,
+ * поэтому индексировать здесь нечего.
+ */
+@ThreadSafe
+@Service
+@ConditionalOnProperty(name = "search.mode", havingValue = "database")
+public class DatabaseSearchService implements SearchService {
+    private final VacancyRepository vacancyRepository;
+    private final CandidateRepository candidateRepository;
+
+    public DatabaseSearchService(VacancyRepository cachingVacancyRepository,
+                                 CandidateRepository cachingCandidateRepository) {
+        this.vacancyRepository = cachingVacancyRepository;
+        this.candidateRepository = cachingCandidateRepository;
+    }
+
+    @Override
+    public List<Vacancy> searchVacancies(String query, int limit) {
+        return vacancyRepository.search(query, null, limit).getItems();
+    }
+
+    @Override
+    public List<Candidate> searchCandidates(String query, int limit) {
+        return candidateRepository.search(query, null, limit).getItems();
+    }
+
+    @Override
+    public void indexVacancy(Vacancy vacancy) {
+    }
+
+    @Override
+    public void removeVacancy(int id) {
+    }
+
+    @Override
+    public void indexCandidate(Candidate candidate) {
+    }
+
+    @Override
+    public void removeCandidate(int id) {
+    }
+}
@@ -0,0 +1,19 @@
+package ru.job4j.dreamjob.service;
+
+import ru.job4j.dreamjob.exports.ExportFormat;
+
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+
+public interface ExportService {
+
+    /**
+     * Пишет вакансии с creation_date в [from, to) в output и закрывает его.
+     * Границы необязательны: null - без ограничения.
+     *
+     * @return число выгруженных строк
+     */
+    long exportVacancies(ExportFormat format, LocalDateTime from, LocalDateTime to, OutputStream output);
+
+    long exportCandidates(ExportFormat format, LocalDateTime from, LocalDateTime to, OutputStream output);
+}
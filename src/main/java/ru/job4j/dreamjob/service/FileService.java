@@ -1,13 +1,58 @@
 package ru.job4j.dreamjob.service;
 
 import ru.job4j.dreamjob.dto.FileDto;
+import ru.job4j.dreamjob.dto.FileResource;
+import ru.job4j.dreamjob.dto.ImageSize;
+import ru.job4j.dreamjob.dto.StagedFile;
 import ru.job4j.dreamjob.model.File;
 import java.util.Optional;
 
 public interface FileService {
-    File save(FileDto fileDto);
+    /**
+     * Сохранение целиком: stage, register и discard подряд.
+     */
+    default File save(FileDto fileDto) {
+        var staged = stage(fileDto);
+        try {
+            return register(staged);
+        } finally {
+            discard(staged);
+        }
+    }
 
-    Optional<FileDto> getFileById(int id);
+    /**
+     * Первый шаг сохранения, до транзакции: загрузка пишется во временный файл, по дороге
+     * считается SHA-256, затем содержимое кладётся в хранилище. К БД не обращается,
+     * поэтому медленная загрузка не держит соединение пула.
+     */
+    StagedFile stage(FileDto fileDto);
+
+    /**
+     * Второй шаг, внутри UnitOfWork.execute: строка files. При откате транзакции блоб,
+     * положенный stage, удаляется из хранилища, если строку вставил этот вызов.
+     */
+    File register(StagedFile stagedFile);
+
+    /**
+     * Завершает загрузку. Вызывается всегда после stage, в том числе если register не дошёл до конца.
+     */
+    void discard(StagedFile stagedFile);
+
+    Optional<FileResource> getFileById(int id);
+
+    /**
+     * Уменьшенный вариант картинки, а пока он не готов (или файл не картинка) - оригинал.
+     */
+    Optional<FileResource> getFileById(int id, ImageSize size);
 
     void deleteById(int id);
+
+    /**
+     * Удаляет блоб и варианты файла, строку которого уже удалили в обход deleteById
+     * (OrphanFileReaper). Блоб остаётся, если то же содержимое нужно другой строке
+     * или загрузке, которая прошла stage, но ещё не зарегистрирована.
+     *
+     * @return true, если блоб удалён
+     */
+    boolean deleteContent(File file);
 }
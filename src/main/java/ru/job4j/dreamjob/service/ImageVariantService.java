@@ -0,0 +1,19 @@
+package ru.job4j.dreamjob.service;
+
+import ru.job4j.dreamjob.dto.FileResource;
+import ru.job4j.dreamjob.dto.ImageSize;
+import java.util.Optional;
+
+public interface ImageVariantService {
+    /**
+     * Ставит в фоновую очередь построение всех вариантов картинки. Не картинки пропускаются.
+     */
+    void submit(String key, String name);
+
+    /**
+     * Готовый вариант картинки. Если его ещё нет - ставит построение в очередь и возвращает пустой Optional.
+     */
+    Optional<FileResource> findVariant(FileResource original, ImageSize size);
+
+    void deleteVariants(String key);
+}
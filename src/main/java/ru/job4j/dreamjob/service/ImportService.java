@@ -0,0 +1,18 @@
+package ru.job4j.dreamjob.service;
+
+import ru.job4j.dreamjob.dto.ImportReport;
+import ru.job4j.dreamjob.imports.ImportFormat;
+import ru.job4j.dreamjob.imports.ImportKind;
+
+import java.io.Reader;
+
+public interface ImportService {
+
+    /**
+     * Загружает записи из source. Повторный запуск с тем же name пропускает записи,
+     * зафиксированные прошлыми запусками.
+     *
+     * @throws IllegalArgumentException если name уже занят загрузкой другого вида
+     */
+    ImportReport importRows(String name, ImportKind kind, ImportFormat format, Reader source);
+}
@@ -0,0 +1,201 @@
+package ru.job4j.dreamjob.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ru.job4j.dreamjob.dto.FileUsage;
+import ru.job4j.dreamjob.dto.ImageSize;
+import ru.job4j.dreamjob.dto.ReconciliationReport;
+import ru.job4j.dreamjob.model.File;
+import ru.job4j.dreamjob.repository.FileRepository;
+import ru.job4j.dreamjob.storage.FileStorage;
+import ru.job4j.dreamjob.storage.StorageKeys;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Сверяет таблицу files с содержимым хранилища и убирает то, что осталось от оборванных
+ * сохранений и обновлений: строки, на которые не ссылается ни одна вакансия или кандидат,
+ * и блобы, для которых нет строки.
+ * Обход идёт по 256 шардам ключей (00/ ... ff/): для каждого шарда строки и листинг
+ * хранилища сортируются по ключу и сверяются, так что в памяти не бывает больше шарда.
+ * Всё, что моложе grace-period, не трогается - это могут быть загрузки, которые ещё в процессе.
+ * Блоб удалённой строки удаляет FileService под блокировкой хэша, как и при deleteById:
+ * иначе он пропал бы из-под загрузки того же содержимого, которая уже прошла stage.
+ * Строки со старыми путями files/... в шарды не попадают и не сверяются - сначала их
+ * переписывает на ключи хранилища FileStorageMigrator.
+ */
+@Service
+@ConditionalOnProperty(name = "file.reaper.enabled", havingValue = "true", matchIfMissing = true)
+public class OrphanFileReaper {
+    private static final Logger LOGGER = LoggerFactory.getLogger(OrphanFileReaper.class);
+
+    private static final int SHARDS = 256;
+
+    private final FileRepository fileRepository;
+    private final FileStorage fileStorage;
+    private final FileService fileService;
+    private final boolean dryRun;
+    private final Duration gracePeriod;
+    private final int batchSize;
+    private final Duration batchPause;
+    private final Clock clock;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile ReconciliationReport lastReport;
+    private int deletesInBatch;
+
+    public OrphanFileReaper(FileRepository sql2oFileRepository,
+                            FileStorage fileStorage,
+                            FileService simpleFileService,
+                            @Value("${file.reaper.dry-run:true}") boolean dryRun,
+                            @Value("${file.reaper.grace-period:PT24H}") Duration gracePeriod,
+                            @Value("${file.reaper.batch-size:100}") int batchSize,
+                            @Value("${file.reaper.batch-pause:PT1S}") Duration batchPause,
+                            Clock clock) {
+        this.fileRepository = sql2oFileRepository;
+        this.fileStorage = fileStorage;
+        this.fileService = simpleFileService;
+        this.dryRun = dryRun;
+        this.gracePeriod = gracePeriod;
+        this.batchSize = batchSize;
+        this.batchPause = batchPause;
+        this.clock = clock;
+    }
+
+    @Scheduled(cron = "${file.reaper.cron:0 30 3 * * *}")
+    public void scheduledRun() {
+        reconcile();
+    }
+
+    /**
+     * @return итоги прохода; если предыдущий проход ещё идёт, новый не начинается
+     *         и возвращаются итоги последнего завершённого
+     */
+    public ReconciliationReport reconcile() {
+        if (!running.compareAndSet(false, true)) {
+            return lastReport;
+        }
+        var started = clock.instant();
+        var report = new ReconciliationReport(dryRun);
+        try {
+            var cutoff = started.minus(gracePeriod);
+            deletesInBatch = 0;
+            for (int shard = 0; shard < SHARDS && !Thread.currentThread().isInterrupted(); shard++) {
+                reconcileShard(String.format("%02x/", shard), cutoff, report);
+            }
+        } finally {
+            report.finish(Duration.between(started, clock.instant()));
+            lastReport = report;
+            running.set(false);
+        }
+        LOGGER.info("Files reconciled: {}", report);
+        return report;
+    }
+
+    public ReconciliationReport getLastReport() {
+        return lastReport;
+    }
+
+    private void reconcileShard(String prefix, Instant cutoff, ReconciliationReport report) {
+        var rows = new TreeMap<String, FileUsage>();
+        for (var usage : fileRepository.findUsages(prefix)) {
+            rows.put(usage.getPath(), usage);
+        }
+        var blobSizes = new HashMap<String, Long>();
+        try (var objects = fileStorage.list(prefix)) {
+            objects.forEach(object -> {
+                report.scannedBlob();
+                var key = baseKey(object.getKey());
+                if (rows.containsKey(key)) {
+                    blobSizes.merge(key, object.getSize(), Long::sum);
+                    return;
+                }
+                if (!StorageKeys.isCanonical(key) || object.getLastModified().isAfter(cutoff)) {
+                    return;
+                }
+                report.untrackedBlob(object.getSize());
+                if (!dryRun && fileStorage.delete(object.getKey())) {
+                    report.deletedBlob();
+                    pace();
+                }
+            });
+        }
+        for (var usage : rows.values()) {
+            reconcileRow(usage, blobSizes, cutoff, report);
+        }
+    }
+
+    private void reconcileRow(FileUsage usage, Map<String, Long> blobSizes, Instant cutoff,
+                              ReconciliationReport report) {
+        report.scannedRow();
+        if (!blobSizes.containsKey(usage.getPath())) {
+            report.missingBlob();
+            LOGGER.warn("File {} has no content at {}", usage.getId(), usage.getPath());
+        }
+        if (usage.getReferences() > 0) {
+            if (usage.getReferences() != usage.getRefCount()) {
+                report.refCountDrift();
+            }
+            return;
+        }
+        var createdBefore = LocalDateTime.ofInstant(cutoff, clock.getZone());
+        if (!usage.getCreatedAt().isBefore(createdBefore)) {
+            return;
+        }
+        report.orphanRow();
+        if (dryRun) {
+            report.reclaimed(blobSizes.getOrDefault(usage.getPath(), 0L));
+            return;
+        }
+        if (!fileRepository.deleteOrphan(usage.getId(), usage.getRefCount(), createdBefore)) {
+            return;
+        }
+        report.deletedRow();
+        var file = new File(null, usage.getPath(), usage.getHash());
+        file.setId(usage.getId());
+        if (!fileService.deleteContent(file)) {
+            return;
+        }
+        report.deletedBlob();
+        report.reclaimed(blobSizes.getOrDefault(usage.getPath(), 0L));
+        pace();
+    }
+
+    /**
+     * Варианты картинок (key.thumb, key.medium) принадлежат своему оригиналу.
+     */
+    private static String baseKey(String key) {
+        for (var size : ImageSize.values()) {
+            var suffix = "." + size.getSuffix();
+            if (size != ImageSize.ORIGINAL && key.endsWith(suffix)) {
+                return key.substring(0, key.length() - suffix.length());
+            }
+        }
+        return key;
+    }
+
+    /**
+     * После каждых batchSize удалений - пауза, чтобы проход не съедал диск и пул соединений.
+     */
+    private void pace() {
+        if (++deletesInBatch < batchSize) {
+            return;
+        }
+        deletesInBatch = 0;
+        try {
+            Thread.sleep(batchPause.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
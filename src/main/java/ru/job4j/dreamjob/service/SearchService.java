@@ -0,0 +1,20 @@
+package ru.job4j.dreamjob.service;
+
+import ru.job4j.dreamjob.model.Candidate;
+import ru.job4j.dreamjob.model.Vacancy;
+
+import java.util.List;
+
+public interface SearchService {
+    List<Vacancy> searchVacancies(String query, int limit);
+
+    List<Candidate> searchCandidates(String query, int limit);
+
+    void indexVacancy(Vacancy vacancy);
+
+    void removeVacancy(int id);
+
+    void indexCandidate(Candidate candidate);
+
+    void removeCandidate(int id);
+}
@@ -2,10 +2,18 @@ package ru.job4j.dreamjob.service;
 
 import net.jcip.annotations.ThreadSafe;
 import org.springframework.stereotype.Service;
+import ru.job4j.dreamjob.dto.CandidateSummary;
+import ru.job4j.dreamjob.dto.CityFacet;
 import ru.job4j.dreamjob.dto.FileDto;
+import ru.job4j.dreamjob.dto.ListFilter;
+import ru.job4j.dreamjob.dto.Page;
+import ru.job4j.dreamjob.dto.PageRequest;
+import ru.job4j.dreamjob.dto.StagedFile;
 import ru.job4j.dreamjob.model.Candidate;
 import ru.job4j.dreamjob.repository.CandidateRepository;
+import ru.job4j.dreamjob.repository.UnitOfWork;
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @ThreadSafe
@@ -13,42 +21,85 @@ import java.util.Optional;
 public class SimpleCandidateService implements CandidateService {
     private final CandidateRepository candidateRepository;
     private final FileService fileService;
+    private final SearchService searchService;
+    private final UnitOfWork unitOfWork;
 
-    public SimpleCandidateService(CandidateRepository sql2oCandidateRepository, FileService fileService) {
-        this.candidateRepository = sql2oCandidateRepository;
+    public SimpleCandidateService(CandidateRepository cachingCandidateRepository, FileService fileService,
+                                  SearchService searchService, UnitOfWork unitOfWork) {
+        this.candidateRepository = cachingCandidateRepository;
         this.fileService = fileService;
+        this.searchService = searchService;
+        this.unitOfWork = unitOfWork;
     }
 
+    /**
+     * Файл кладётся в хранилище до транзакции, в ней остаются только строки БД.
+     */
     @Override
     public Candidate save(Candidate candidate, FileDto image) {
-        saveNewFile(candidate, image);
-        return candidateRepository.save(candidate);
+        var staged = fileService.stage(image);
+        Candidate savedCandidate;
+        try {
+            savedCandidate = unitOfWork.execute(() -> {
+                registerNewFile(candidate, staged);
+                return candidateRepository.save(candidate);
+            });
+        } finally {
+            fileService.discard(staged);
+        }
+        searchService.indexCandidate(savedCandidate);
+        return savedCandidate;
     }
 
-    private void saveNewFile(Candidate candidate, FileDto image) {
-        var file = fileService.save(image);
+    private void registerNewFile(Candidate candidate, StagedFile staged) {
+        var file = fileService.register(staged);
         candidate.setFileId(file.getId());
     }
 
     @Override
     public boolean deleteById(int id) {
-        var fileOptional = findById(id);
-        if (fileOptional.isPresent()) {
-            fileService.deleteById(fileOptional.get().getFileId());
+        /* сначала строка, которая ссылается на файл, потом сам файл - иначе нарушится внешний ключ */
+        var isDeleted = unitOfWork.execute(() -> {
+            var candidateOptional = candidateRepository.findById(id);
+            var deleted = candidateRepository.deleteById(id);
+            if (deleted && candidateOptional.isPresent()) {
+                fileService.deleteById(candidateOptional.get().getFileId());
+            }
+            return deleted;
+        });
+        if (isDeleted) {
+            searchService.removeCandidate(id);
         }
-        return candidateRepository.deleteById(id);
+        return isDeleted;
     }
 
     @Override
     public boolean update(Candidate candidate, FileDto image) {
-        boolean isNewFileEmpty = image.getContent().length == 0;
+        boolean isNewFileEmpty = image.isEmpty();
         if (isNewFileEmpty) {
-            return candidateRepository.update(candidate);
+            return reindexIfUpdated(candidate, candidateRepository.update(candidate));
         }
+        /* если передан новый не пустой файл, то старый удаляем, а новый сохраняем - одной транзакцией */
         int oldFileId = candidate.getFileId();
-        saveNewFile(candidate, image);
-        boolean isUpdated = candidateRepository.update(candidate);
-        fileService.deleteById(oldFileId);
+        var staged = fileService.stage(image);
+        boolean isUpdated;
+        try {
+            isUpdated = unitOfWork.execute(() -> {
+                registerNewFile(candidate, staged);
+                var updated = candidateRepository.update(candidate);
+                fileService.deleteById(updated ? oldFileId : candidate.getFileId());
+                return updated;
+            });
+        } finally {
+            fileService.discard(staged);
+        }
+        return reindexIfUpdated(candidate, isUpdated);
+    }
+
+    private boolean reindexIfUpdated(Candidate candidate, boolean isUpdated) {
+        if (isUpdated) {
+            searchService.indexCandidate(candidate);
+        }
         return isUpdated;
     }
 
@@ -61,4 +112,14 @@ public class SimpleCandidateService implements CandidateService {
     public Collection<Candidate> findAll() {
         return candidateRepository.findAll();
     }
+
+    @Override
+    public Page<CandidateSummary> findSummaryPage(ListFilter filter, PageRequest request) {
+        return candidateRepository.findSummaryPage(filter, request);
+    }
+
+    @Override
+    public List<CityFacet> countByCity(ListFilter filter, int limit) {
+        return candidateRepository.countByCity(filter, limit);
+    }
 }
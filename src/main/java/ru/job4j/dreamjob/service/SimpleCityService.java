@@ -1,20 +1,137 @@
 package ru.job4j.dreamjob.service;
 
+import net.jcip.annotations.ThreadSafe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import ru.job4j.dreamjob.dto.CacheStats;
 import ru.job4j.dreamjob.model.City;
 import ru.job4j.dreamjob.repository.CityRepository;
+
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
 
+/**
+ * Справочник городов почти не меняется, поэтому страницы читают его из неизменяемого
+ * снимка в памяти. Приложение города не редактирует - их меняют миграции и администратор
+ * базы, поэтому снимок перечитывается только по расписанию (city.cache.refresh-millis).
+ */
+@ThreadSafe
 @Service
 public class SimpleCityService implements CityService {
-   private final CityRepository cityRepository;
+    private static final Logger LOGGER = LoggerFactory.getLogger(SimpleCityService.class);
+
+    private final CityRepository cityRepository;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final AtomicLong generation = new AtomicLong();
+    private volatile Catalogue catalogue;
+    /* поколение загрузки, чей снимок сейчас в catalogue; под this */
+    private long publishedGeneration;
 
     public SimpleCityService(CityRepository sql2oCityRepository) {
         this.cityRepository = sql2oCityRepository;
     }
 
+    /**
+     * Каждый вызов считается в статистике один раз: hit - ответ из готового снимка,
+     * miss - снимок пришлось загрузить.
+     */
     @Override
     public Collection<City> findAll() {
-        return cityRepository.findAll();
+        var current = catalogue;
+        (current == null ? misses : hits).increment();
+        return (current == null ? catalogue() : current).cities;
+    }
+
+    /**
+     * Неизвестный id тоже считается промахом, но только одним.
+     */
+    @Override
+    public Optional<City> findById(int id) {
+        var current = catalogue;
+        var city = (current == null ? catalogue() : current).find(id);
+        (current == null || city == null ? misses : hits).increment();
+        return Optional.ofNullable(city);
+    }
+
+    @Scheduled(fixedDelayString = "${city.cache.refresh-millis:600000}",
+            initialDelayString = "${city.cache.refresh-millis:600000}")
+    public void refresh() {
+        var loadGeneration = generation.incrementAndGet();
+        publish(loadGeneration, load());
+        LOGGER.debug("City catalogue refreshed: {}", getStats());
+    }
+
+    @Override
+    public CacheStats getStats() {
+        var current = catalogue;
+        return new CacheStats(hits.sum(), misses.sum(), 0, current == null ? 0 : current.cities.size());
+    }
+
+    private Catalogue catalogue() {
+        var current = catalogue;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (catalogue == null) {
+                var loadGeneration = generation.incrementAndGet();
+                publish(loadGeneration, load());
+            }
+            return catalogue;
+        }
+    }
+
+    /**
+     * Снимок, прочитанный раньше другого, его не перезаписывает: медленная загрузка,
+     * начатая до refresh(), иначе вернула бы устаревший справочник.
+     */
+    private synchronized void publish(long loadGeneration, Catalogue loaded) {
+        if (loadGeneration > publishedGeneration) {
+            publishedGeneration = loadGeneration;
+            catalogue = loaded;
+        }
+    }
+
+    private Catalogue load() {
+        return new Catalogue(List.copyOf(cityRepository.findAll()));
+    }
+
+    private static class Catalogue {
+        /* массив по id выгоден, пока в нём не больше DENSE_FACTOR ячеек на город */
+        private static final int DENSE_FACTOR = 4;
+
+        private final List<City> cities;
+        /* id -> город; id у городов обычно плотные (serial), тогда массив вместо Map<Integer, City> */
+        private final City[] byId;
+        /* id разрежены (ручные вставки, импорт с чужими id) - тогда Map, а byId пустой */
+        private final Map<Integer, City> sparse;
+
+        Catalogue(List<City> cities) {
+            this.cities = cities;
+            var minId = cities.stream().mapToInt(City::getId).min().orElse(0);
+            var maxId = cities.stream().mapToInt(City::getId).max().orElse(-1);
+            if (minId >= 0 && (long) maxId + 1 <= (long) cities.size() * DENSE_FACTOR + 1) {
+                this.byId = new City[maxId + 1];
+                for (var city : cities) {
+                    byId[city.getId()] = city;
+                }
+                this.sparse = Map.of();
+            } else {
+                this.byId = new City[0];
+                this.sparse = cities.stream().collect(Collectors.toUnmodifiableMap(City::getId, city -> city));
+            }
+        }
+
+        City find(int id) {
+            return id >= 0 && id < byId.length ? byId[id] : sparse.get(id);
+        }
     }
 }
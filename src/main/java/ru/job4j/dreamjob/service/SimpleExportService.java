@@ -0,0 +1,86 @@
+package ru.job4j.dreamjob.service;
+
+import net.jcip.annotations.ThreadSafe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import ru.job4j.dreamjob.exports.ExportFormat;
+import ru.job4j.dreamjob.exports.RowWriter;
+import ru.job4j.dreamjob.repository.ExportRepository;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.function.ToLongFunction;
+
+/**
+ * Выгрузка для аналитики: строки идут из курсора прямо в поток, поэтому память не зависит
+ * от размера таблицы. Колонки совпадают с теми, что принимает импорт.
+ * Каждая таблица читается в одной транзакции, то есть видит согласованный снимок, на отдельном
+ * соединении мимо пула: долгая выгрузка не занимает соединение пула и не отбирается им.
+ */
+@ThreadSafe
+@Service
+public class SimpleExportService implements ExportService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SimpleExportService.class);
+
+    private static final String[] VACANCY_COLUMNS =
+            {"id", "title", "description", "creation_date", "visible", "city_id", "file_id"};
+    private static final String[] CANDIDATE_COLUMNS =
+            {"id", "name", "description", "creation_date", "city_id", "file_id"};
+
+    private final ExportRepository exportRepository;
+
+    @Autowired
+    public SimpleExportService(ExportRepository sql2oExportRepository) {
+        this.exportRepository = sql2oExportRepository;
+    }
+
+    @Override
+    public long exportVacancies(ExportFormat format, LocalDateTime from, LocalDateTime to, OutputStream output) {
+        return export("vacancies", format, output, VACANCY_COLUMNS, writer ->
+                exportRepository.forEachVacancy(from, to, vacancy -> write(writer, vacancy.getId(),
+                        vacancy.getTitle(), vacancy.getDescription(), vacancy.getCreationDate(),
+                        vacancy.getVisible(), vacancy.getCityId(), fileId(vacancy.getFileId()))));
+    }
+
+    @Override
+    public long exportCandidates(ExportFormat format, LocalDateTime from, LocalDateTime to, OutputStream output) {
+        return export("candidates", format, output, CANDIDATE_COLUMNS, writer ->
+                exportRepository.forEachCandidate(from, to, candidate -> write(writer, candidate.getId(),
+                        candidate.getName(), candidate.getDescription(), candidate.getCreationDate(),
+                        candidate.getCityId(), fileId(candidate.getFileId()))));
+    }
+
+    private long export(String table, ExportFormat format, OutputStream output, String[] columns,
+                        ToLongFunction<RowWriter> rows) {
+        var started = System.nanoTime();
+        try (var writer = format.open(new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8),
+                64 * 1024))) {
+            writer.header(columns);
+            long count = rows.applyAsLong(writer);
+            LOGGER.info("Exported {} {} as {} in {} ms", count, table, format,
+                    (System.nanoTime() - started) / 1_000_000);
+            return count;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void write(RowWriter writer, Object... values) {
+        try {
+            writer.row(values);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Integer fileId(int fileId) {
+        return fileId == 0 ? null : fileId;
+    }
+}
@@ -1,27 +1,94 @@
 package ru.job4j.dreamjob.service;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import ru.job4j.dreamjob.cache.EntityCache;
+import ru.job4j.dreamjob.cache.EvictionPolicy;
+import ru.job4j.dreamjob.dto.CacheStats;
 import ru.job4j.dreamjob.dto.FileDto;
+import ru.job4j.dreamjob.dto.FileResource;
+import ru.job4j.dreamjob.dto.ImageSize;
+import ru.job4j.dreamjob.dto.StagedFile;
 import ru.job4j.dreamjob.model.File;
 import ru.job4j.dreamjob.repository.FileRepository;
+import ru.job4j.dreamjob.repository.UnitOfWork;
+import ru.job4j.dreamjob.storage.FileStorage;
+import ru.job4j.dreamjob.storage.StorageKeys;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
 
+/**
+ * Загрузки, дедупликация и учёт ссылок. Где физически лежат байты, решает FileStorage:
+ * в files.path хранится только ключ хранилища.
+ * Сохранение разбито на stage (временный файл и хранилище, до транзакции) и register
+ * (строка files, внутри UnitOfWork): пока байты идут в хранилище, соединение пула не занято.
+ * Новый блоб удаляется при откате, а освободившийся - только после фиксации.
+ */
 @Service
 public class SimpleFileService implements FileService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SimpleFileService.class);
+
+    private static final int LOCK_STRIPES = 64;
+
     private final FileRepository fileRepository;
 
+    private final FileStorage fileStorage;
+
+    /* локальный каталог для временных файлов загрузок */
     private final String storageDirectory;
 
+    private final boolean deduplicate;
+
+    /* загрузки одного и того же содержимого сериализуются, разные хэши идут параллельно */
+    private final Lock[] locks = new Lock[LOCK_STRIPES];
+
+    /* id -> ключ, размер и ETag: повторные запросы картинок не ходят ни в БД, ни в хранилище */
+    private final EntityCache<FileResource> metadata;
+
+    private final ImageVariantService imageVariantService;
+
+    private final UnitOfWork unitOfWork;
+
+    private final LongAdder uploadedBytes = new LongAdder();
+
+    /* хэш -> число загрузок, прошедших stage, но не discard; растёт только под блокировкой хэша */
+    private final Map<String, Integer> staging = new ConcurrentHashMap<>();
+
     public SimpleFileService(FileRepository sql2oFileRepository,
-                             @Value("${file.directory}") String storageDirectory) {
+                             FileStorage fileStorage,
+                             ImageVariantService imageVariantService,
+                             UnitOfWork unitOfWork,
+                             @Value("${file.directory}") String storageDirectory,
+                             @Value("${file.deduplicate:true}") boolean deduplicate,
+                             @Value("${file.metadata-cache.max-entries:1000}") int metadataCacheSize) {
         this.fileRepository = sql2oFileRepository;
+        this.unitOfWork = unitOfWork;
+        this.fileStorage = fileStorage;
+        this.imageVariantService = imageVariantService;
         this.storageDirectory = storageDirectory;
+        this.deduplicate = deduplicate;
+        this.metadata = new EntityCache<>(metadataCacheSize, Duration.ZERO, EvictionPolicy.LRU, UnaryOperator.identity());
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+        }
         createStorageDirectory(storageDirectory);
     }
 
@@ -33,56 +100,272 @@ public class SimpleFileService implements FileService {
         }
     }
 
+    /**
+     * Запись во временный файл и в хранилище - вне транзакции. С дедупликацией блоб кладётся,
+     * только если под его ключом ничего нет: содержимое под ключом-хэшем всегда одно и то же.
+     * Хэш отмечается как загружаемый до discard, чтобы снятие последней ссылки на то же
+     * содержимое не удалило блоб, на который ещё нет строки.
+     */
+    @Override
+    public StagedFile stage(FileDto fileDto) {
+        var blob = writeTemporary(fileDto);
+        uploadedBytes.add(blob.size);
+        if (!deduplicate) {
+            var key = StorageKeys.unique(blob.sha256, UUID.randomUUID().toString());
+            putQuietlyOnFailure(key, blob.temp);
+            LOGGER.debug("Stored {} ({} bytes)", key, blob.size);
+            return new StagedFile(fileDto.getName(), key, blob.sha256, blob.size);
+        }
+        var key = StorageKeys.of(blob.sha256);
+        var lock = lockFor(blob.sha256);
+        lock.lock();
+        try {
+            staging.merge(blob.sha256, 1, Integer::sum);
+        } finally {
+            lock.unlock();
+        }
+        try {
+            if (fileStorage.stat(key).isPresent()) {
+                deleteQuietly(blob.temp);
+            } else {
+                putQuietlyOnFailure(key, blob.temp);
+                LOGGER.debug("Stored {} ({} bytes)", key, blob.size);
+            }
+        } catch (RuntimeException e) {
+            unstage(blob.sha256);
+            throw e;
+        }
+        return new StagedFile(fileDto.getName(), key, blob.sha256, blob.size);
+    }
+
+    /**
+     * Блокировка хэша держится до конца транзакции: пока запись с новым хэшем не зафиксирована,
+     * её не видно параллельной загрузке того же содержимого, и та упёрлась бы в уникальный индекс.
+     * Поэтому в составной записи файл регистрируется первым - до того, как транзакция
+     * захватит блокировки строк в БД.
+     */
     @Override
-    public File save(FileDto fileDto) {
-        var path = getNewFilePath(fileDto.getName());
-        writeFileBytes(path, fileDto.getContent());
-        return fileRepository.save(new File(fileDto.getName(), path));
+    public File register(StagedFile stagedFile) {
+        var key = stagedFile.getKey();
+        if (!deduplicate) {
+            unitOfWork.afterRollback(() -> fileStorage.delete(key));
+            unitOfWork.afterCommit(() -> imageVariantService.submit(key, stagedFile.getName()));
+            return fileRepository.save(new File(stagedFile.getName(), key));
+        }
+        var lock = lockFor(stagedFile.getHash());
+        lock.lock();
+        try {
+            var existing = fileRepository.findByHash(stagedFile.getHash());
+            if (existing.isPresent() && fileRepository.acquire(existing.get().getId())) {
+                return existing.get();
+            }
+            unitOfWork.afterCommit(() -> imageVariantService.submit(key, stagedFile.getName()));
+            return insertOrAcquire(new File(stagedFile.getName(), key, stagedFile.getHash()));
+        } finally {
+            unitOfWork.afterCompletion(lock::unlock);
+        }
+    }
+
+    @Override
+    public void discard(StagedFile stagedFile) {
+        if (deduplicate) {
+            unstage(stagedFile.getHash());
+        }
+    }
+
+    private void unstage(String sha256) {
+        staging.computeIfPresent(sha256, (hash, count) -> count == 1 ? null : count - 1);
+    }
+
+    /**
+     * Вызывается под блокировкой хэша. Своя загрузка ещё отмечена, поэтому «чужие» - больше одной.
+     */
+    private boolean isStagedByOthers(String sha256, int own) {
+        return staging.getOrDefault(sha256, 0) > own;
+    }
+
+    /**
+     * Запись с тем же хэшем мог успеть вставить другой узел - тогда уникальный индекс
+     * отклонит вставку, и мы просто добавляем ссылку на его запись. Внутри транзакции
+     * PostgreSQL после ошибки её не продолжит, и составная запись откатится целиком.
+     * Блоб при откате удаляется, только если строку вставили мы: иначе он принадлежит чужой записи.
+     * Не удаляется он и тогда, когда то же содержимое сейчас загружает кто-то ещё.
+     */
+    private File insertOrAcquire(File file) {
+        try {
+            var saved = fileRepository.save(file);
+            unitOfWork.afterRollback(() -> {
+                if (!isStagedByOthers(file.getHash(), 1)) {
+                    fileStorage.delete(file.getPath());
+                }
+            });
+            return saved;
+        } catch (RuntimeException e) {
+            var existing = fileRepository.findByHash(file.getHash());
+            if (existing.isPresent() && fileRepository.acquire(existing.get().getId())) {
+                return existing.get();
+            }
+            throw e;
+        }
+    }
+
+    private Lock lockFor(String sha256) {
+        return locks[Math.floorMod(sha256.hashCode(), locks.length)];
     }
 
-    private String getNewFilePath(String sourceName) {
-        return storageDirectory + java.io.File.separator + UUID.randomUUID() + sourceName;
+    private void putQuietlyOnFailure(String key, Path temp) {
+        try {
+            fileStorage.put(key, temp);
+        } catch (RuntimeException e) {
+            deleteQuietly(temp);
+            throw e;
+        }
     }
 
-    private void writeFileBytes(String path, byte[] content) {
+    /**
+     * Копирует поток во временный файл через буфер фиксированного размера, по дороге считая
+     * размер и SHA-256. В хранилище файл попадает только целиком, поэтому оборванная загрузка
+     * не оставит там недописанный файл.
+     */
+    private StoredBlob writeTemporary(FileDto fileDto) {
+        Path temp = null;
         try {
-            Files.write(Path.of(path), content);
+            temp = Files.createTempFile(Path.of(storageDirectory), ".upload-", ".tmp");
+            var digest = MessageDigest.getInstance("SHA-256");
+            long size;
+            try (var input = new DigestInputStream(fileDto.getContent().getInputStream(), digest);
+                 var output = Files.newOutputStream(temp)) {
+                size = input.transferTo(output);
+            }
+            if (size != fileDto.getSize()) {
+                throw new IOException("Upload of " + fileDto.getName() + " is incomplete: expected "
+                        + fileDto.getSize() + " bytes, got " + size);
+            }
+            return new StoredBlob(temp, size, HexFormat.of().formatHex(digest.digest()));
         } catch (IOException e) {
-            throw new RuntimeException(e);
+            deleteQuietly(temp);
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            deleteQuietly(temp);
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            LOGGER.warn("Could not delete temporary file {}", path, e);
         }
     }
 
     @Override
-    public Optional<FileDto> getFileById(int id) {
+    public Optional<FileResource> getFileById(int id) {
+        return metadata.get(id, this::loadFileResource);
+    }
+
+    @Override
+    public Optional<FileResource> getFileById(int id, ImageSize size) {
+        var original = getFileById(id);
+        if (original.isEmpty() || size == ImageSize.ORIGINAL) {
+            return original;
+        }
+        return Optional.of(imageVariantService.findVariant(original.get(), size).orElse(original.get()));
+    }
+
+    /**
+     * Содержимое под ключом никогда не переписывается (ключ - хэш или UUID), поэтому
+     * метаданные можно кэшировать без срока жизни до удаления файла.
+     */
+    private Optional<FileResource> loadFileResource(int id) {
         var fileOptional = fileRepository.findById(id);
         if (fileOptional.isEmpty()) {
             return Optional.empty();
         }
-        var content = readFileAsBytes(fileOptional.get().getPath());
-        return Optional.of(new FileDto(fileOptional.get().getName(), content));
+        var file = fileOptional.get();
+        var stored = fileStorage.stat(file.getPath());
+        if (stored.isEmpty()) {
+            return Optional.empty();
+        }
+        var object = stored.get();
+        var etag = file.getHash() != null
+                ? file.getHash()
+                : FileResource.etagOf(object.getKey(), object.getSize(), object.getLastModified());
+        return Optional.of(new FileResource(file.getName(), object.getKey(), fileStorage.getResource(object),
+                object.getSize(), object.getLastModified(), etag, ImageSize.ORIGINAL));
     }
 
-    private byte[] readFileAsBytes(String path) {
+    /**
+     * Снимает одну ссылку на файл. Сам блоб удаляется из хранилища только вместе с последней
+     * ссылкой и только после фиксации транзакции - иначе откат вернул бы строку без содержимого.
+     */
+    @Override
+    public void deleteById(int id) {
+        var fileOptional = fileRepository.findById(id);
+        if (fileOptional.isEmpty()) {
+            return;
+        }
+        var file = fileOptional.get();
+        metadata.invalidate(id);
         try {
-            return Files.readAllBytes(Path.of(path));
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+            if (fileRepository.release(id)) {
+                unitOfWork.afterCommit(() -> deleteContent(file));
+            }
+        } finally {
+            unitOfWork.afterCompletion(() -> metadata.invalidate(id));
         }
     }
 
+    /**
+     * Пока транзакция с удалением шла, то же содержимое могли загрузить заново под тем же ключом -
+     * тогда блоб уже принадлежит новой записи или понадобится загрузке, которая её ещё не создала.
+     * Обе проверки и удаление идут под блокировкой хэша, под которой stage отмечает загрузку.
+     */
     @Override
-    public void deleteById(int id) {
-            var fileOptional = fileRepository.findById(id);
-            if (fileOptional.isPresent()) {
-                deleteFile(fileOptional.get().getPath());
-                fileRepository.deleteById(id);
-            }
+    public boolean deleteContent(File file) {
+        metadata.invalidate(file.getId());
+        if (file.getHash() == null) {
+            fileStorage.delete(file.getPath());
+            imageVariantService.deleteVariants(file.getPath());
+            return true;
         }
-        private void deleteFile(String path) {
-            try {
-                Files.deleteIfExists(Path.of(path));
-            } catch (IOException e) {
-                throw new RuntimeException(e);
+        var lock = lockFor(file.getHash());
+        lock.lock();
+        try {
+            if (fileRepository.findByHash(file.getHash()).isPresent() || isStagedByOthers(file.getHash(), 0)) {
+                return false;
             }
+            fileStorage.delete(file.getPath());
+            imageVariantService.deleteVariants(file.getPath());
+            return true;
+        } finally {
+            lock.unlock();
         }
+    }
+
+    public CacheStats getMetadataStats() {
+        return metadata.getStats();
+    }
+
+    /**
+     * Принятые байты загрузок, включая дубли, для которых новый блоб не понадобился.
+     */
+    public long getUploadedBytes() {
+        return uploadedBytes.sum();
+    }
+
+    private static class StoredBlob {
+        private final Path temp;
+        private final long size;
+        private final String sha256;
+
+        StoredBlob(Path temp, long size, String sha256) {
+            this.temp = temp;
+            this.size = size;
+            this.sha256 = sha256;
+        }
+    }
 }
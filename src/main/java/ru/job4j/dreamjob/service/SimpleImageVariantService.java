@@ -0,0 +1,248 @@
+package ru.job4j.dreamjob.service;
+
+import net.jcip.annotations.ThreadSafe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+import ru.job4j.dreamjob.dto.FileResource;
+import ru.job4j.dreamjob.dto.ImageSize;
+import ru.job4j.dreamjob.storage.FileStorage;
+
+import javax.annotation.PreDestroy;
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Строит уменьшенные JPEG/PNG копии загруженных картинок и кладёт их в хранилище рядом
+ * с оригиналом (ab/cd/hash.thumb). Работа идёт на ограниченном пуле с ограниченной очередью:
+ * при переполнении задача отбрасывается, а вариант достраивается при первом запросе.
+ */
+@ThreadSafe
+@Service
+public class SimpleImageVariantService implements ImageVariantService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SimpleImageVariantService.class);
+
+    /* защита от "бомб": 12000 x 12000 в ARGB - это уже больше полугигабайта heap */
+    private static final long MAX_PIXELS = 50_000_000L;
+
+    private final FileStorage fileStorage;
+
+    /* каталог для временных файлов, из которых варианты уходят в хранилище */
+    private final Path scratchDirectory;
+
+    private final Executor executor;
+
+    /* оригиналы, для которых задача уже в очереди или выполняется */
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public SimpleImageVariantService(FileStorage fileStorage,
+                                     @Value("${file.directory}") String scratchDirectory,
+                                     @Value("${image.variants.threads:2}") int threads,
+                                     @Value("${image.variants.queue-capacity:100}") int queueCapacity) {
+        this(fileStorage, Path.of(scratchDirectory), newExecutor(threads, queueCapacity));
+    }
+
+    public SimpleImageVariantService(FileStorage fileStorage, Path scratchDirectory, Executor executor) {
+        this.fileStorage = fileStorage;
+        this.scratchDirectory = scratchDirectory;
+        this.executor = executor;
+    }
+
+    private static ExecutorService newExecutor(int threads, int queueCapacity) {
+        var counter = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    var thread = new Thread(runnable, "image-variants-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor instanceof ExecutorService) {
+            ((ExecutorService) executor).shutdownNow();
+        }
+    }
+
+    @Override
+    public void submit(String original, String name) {
+        if (!isSupported(name) || !pending.add(original)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    generate(original);
+                } finally {
+                    pending.remove(original);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.remove(original);
+            LOGGER.debug("Variant queue is full, {} will be resized on demand", original);
+        }
+    }
+
+    @Override
+    public Optional<FileResource> findVariant(FileResource original, ImageSize size) {
+        if (size == ImageSize.ORIGINAL) {
+            return Optional.of(original);
+        }
+        var stored = fileStorage.stat(variantKey(original.getKey(), size));
+        if (stored.isEmpty()) {
+            submit(original.getKey(), original.getName());
+            return Optional.empty();
+        }
+        var variant = stored.get();
+        return Optional.of(new FileResource(original.getName(), variant.getKey(), fileStorage.getResource(variant),
+                variant.getSize(), variant.getLastModified(), original.getEtag() + "-" + size.getSuffix(), size));
+    }
+
+    @Override
+    public void deleteVariants(String original) {
+        for (var size : ImageSize.values()) {
+            if (size == ImageSize.ORIGINAL) {
+                continue;
+            }
+            try {
+                fileStorage.delete(variantKey(original, size));
+            } catch (RuntimeException e) {
+                LOGGER.warn("Could not delete {} variant of {}", size.getSuffix(), original, e);
+            }
+        }
+    }
+
+    private static boolean isSupported(String name) {
+        var mediaType = MediaTypeFactory.getMediaType(name).orElse(MediaType.APPLICATION_OCTET_STREAM);
+        return MediaType.IMAGE_JPEG.equals(mediaType) || MediaType.IMAGE_PNG.equals(mediaType);
+    }
+
+    static String variantKey(String original, ImageSize size) {
+        return original + "." + size.getSuffix();
+    }
+
+    /**
+     * Картинка декодируется один раз, сразу с прореживанием до размера чуть больше MEDIUM,
+     * чтобы не держать в памяти многомегапиксельный оригинал. THUMB строится из MEDIUM.
+     */
+    private void generate(String original) {
+        if (fileStorage.stat(variantKey(original, ImageSize.MEDIUM)).isPresent()
+                && fileStorage.stat(variantKey(original, ImageSize.THUMB)).isPresent()) {
+            return;
+        }
+        var stored = fileStorage.stat(original);
+        if (stored.isEmpty()) {
+            return;
+        }
+        var content = fileStorage.getResource(stored.get());
+        try (var stream = content.getInputStream();
+             var input = ImageIO.createImageInputStream(stream)) {
+            if (input == null) {
+                return;
+            }
+            var readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return;
+            }
+            var reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                var format = reader.getFormatName().toLowerCase(Locale.ROOT);
+                var outputFormat = "png".equals(format) ? "png"
+                        : "jpeg".equals(format) || "jpg".equals(format) ? "jpeg" : null;
+                if (outputFormat == null) {
+                    return;
+                }
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > MAX_PIXELS) {
+                    LOGGER.warn("Skipping variants of {}: {}x{} is too large", original, width, height);
+                    return;
+                }
+                var param = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, Math.max(width, height) / (ImageSize.MEDIUM.getMaxDimension() * 2));
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                var medium = scale(reader.read(0, param), ImageSize.MEDIUM.getMaxDimension(), outputFormat);
+                write(medium, outputFormat, variantKey(original, ImageSize.MEDIUM));
+                var thumb = scale(medium, ImageSize.THUMB.getMaxDimension(), outputFormat);
+                write(thumb, outputFormat, variantKey(original, ImageSize.THUMB));
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Could not build variants of {}", original, e);
+        }
+    }
+
+    /**
+     * Уменьшает большую сторону до maxDimension. Билинейная интерполяция даёт артефакты при
+     * сжатии больше чем вдвое, поэтому уменьшаем шагами не больше чем в два раза.
+     */
+    private static BufferedImage scale(BufferedImage source, int maxDimension, String format) {
+        var ratio = Math.min(1.0, (double) maxDimension / Math.max(source.getWidth(), source.getHeight()));
+        int targetWidth = Math.max(1, (int) Math.round(source.getWidth() * ratio));
+        int targetHeight = Math.max(1, (int) Math.round(source.getHeight() * ratio));
+        var image = source;
+        do {
+            int width = Math.max(targetWidth, image.getWidth() / 2);
+            int height = Math.max(targetHeight, image.getHeight() / 2);
+            image = draw(image, width, height, format);
+        } while (image.getWidth() != targetWidth || image.getHeight() != targetHeight);
+        return image;
+    }
+
+    private static BufferedImage draw(BufferedImage source, int width, int height, String format) {
+        var jpeg = "jpeg".equals(format);
+        var target = new BufferedImage(width, height, jpeg ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+        var graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            if (jpeg) {
+                graphics.setColor(Color.WHITE);
+                graphics.fillRect(0, 0, width, height);
+            }
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private void write(BufferedImage image, String format, String key) throws IOException {
+        var temp = Files.createTempFile(scratchDirectory, ".variant-", ".tmp");
+        try {
+            if (!ImageIO.write(image, format, temp.toFile())) {
+                throw new IOException("No ImageIO writer for " + format);
+            }
+            fileStorage.put(key, temp);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package ru.job4j.dreamjob.service;
+
+import net.jcip.annotations.ThreadSafe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.job4j.dreamjob.dto.ImportReport;
+import ru.job4j.dreamjob.imports.ImportFormat;
+import ru.job4j.dreamjob.imports.ImportKind;
+import ru.job4j.dreamjob.imports.Row;
+import ru.job4j.dreamjob.model.Candidate;
+import ru.job4j.dreamjob.model.City;
+import ru.job4j.dreamjob.model.Vacancy;
+import ru.job4j.dreamjob.repository.ImportRepository;
+import ru.job4j.dreamjob.repository.UnitOfWork;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Массовая загрузка вакансий и кандидатов из CSV или NDJSON. Файл читается потоком,
+ * каждая запись проверяется, город ищется по названию (колонка city) или по id (city_id).
+ * Записи с ошибками пропускаются и попадают в отчёт, остальные вставляются пачками
+ * по chunkSize в отдельных транзакциях. В той же транзакции сдвигается точка продолжения
+ * в таблице imports, поэтому после сбоя повторный запуск с тем же именем продолжит с первой
+ * незафиксированной записи, не задвоив уже загруженные.
+ *
+ * Колонки вакансий: title, description, city или city_id, visible (по умолчанию true),
+ * creation_date (ISO, дата или дата и время; по умолчанию - момент загрузки).
+ * Колонки кандидатов: name, description, city или city_id, creation_date.
+ */
+@ThreadSafe
+@Service
+public class SimpleImportService implements ImportService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SimpleImportService.class);
+
+    private final ImportRepository importRepository;
+    private final CityService cityService;
+    private final SearchService searchService;
+    private final UnitOfWork unitOfWork;
+    private final int chunkSize;
+    private final int maxReportedErrors;
+
+    @Autowired
+    public SimpleImportService(ImportRepository sql2oImportRepository,
+                               CityService cityService,
+                               SearchService searchService,
+                               UnitOfWork unitOfWork,
+                               @Value("${import.chunk-size:1000}") int chunkSize,
+                               @Value("${import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.importRepository = sql2oImportRepository;
+        this.cityService = cityService;
+        this.searchService = searchService;
+        this.unitOfWork = unitOfWork;
+        this.chunkSize = chunkSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    @Override
+    public ImportReport importRows(String name, ImportKind kind, ImportFormat format, Reader source) {
+        var started = System.nanoTime();
+        var report = new ImportReport(name, kind.name().toLowerCase(Locale.ROOT), maxReportedErrors);
+        /* ошибка клиента, а не сбой загрузки: вне try, чтобы не превратиться в aborted */
+        var committed = importRepository.start(name, kind);
+        report.resumedFrom(committed);
+        try (var reader = format.open(source)) {
+            var chunk = new Chunk(name, kind, committed, citiesByName());
+            Row row;
+            while ((row = reader.next()) != null) {
+                if (row.getNumber() <= committed) {
+                    continue;
+                }
+                chunk.add(row, report);
+                if (chunk.size() == chunkSize) {
+                    chunk.commit(report);
+                }
+            }
+            chunk.commit(report);
+        } catch (IOException | RuntimeException e) {
+            report.abort(e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage());
+            LOGGER.warn("Import {} stopped, it resumes after row {}", name, report.getCommittedRows(), e);
+        } finally {
+            report.finish(Duration.ofNanos(System.nanoTime() - started));
+        }
+        LOGGER.info("Import finished: {}", report);
+        return report;
+    }
+
+    private Map<String, Integer> citiesByName() {
+        var result = new HashMap<String, Integer>();
+        for (City city : cityService.findAll()) {
+            result.put(city.getName().strip().toLowerCase(Locale.ROOT), city.getId());
+        }
+        return result;
+    }
+
+    /**
+     * Записи текущей пачки. Отбракованные записи тоже сдвигают точку продолжения:
+     * при повторном запуске они не проверяются снова.
+     * Если пачку отклонила база (ограничение, слишком длинное значение), она загружается
+     * заново по одной записи: иначе каждый повторный запуск упирался бы в ту же пачку.
+     * Записи, которые база не приняла и поодиночке, считаются отбракованными.
+     */
+    private class Chunk {
+        private final String name;
+        private final ImportKind kind;
+        private final Map<String, Integer> cities;
+        private final List<Vacancy> vacancies = new ArrayList<>();
+        private final List<Candidate> candidates = new ArrayList<>();
+        /* номера записей файла, параллельно vacancies или candidates */
+        private final List<Integer> rows = new ArrayList<>();
+        private int committedRows;
+        private int lastRow;
+        private int failed;
+
+        Chunk(String name, ImportKind kind, int committedRows, Map<String, Integer> cities) {
+            this.name = name;
+            this.kind = kind;
+            this.committedRows = committedRows;
+            this.lastRow = committedRows;
+            this.cities = cities;
+        }
+
+        int size() {
+            return lastRow - committedRows;
+        }
+
+        void add(Row row, ImportReport report) {
+            lastRow = row.getNumber();
+            try {
+                if (row.getError() != null) {
+                    throw new IllegalArgumentException(row.getError());
+                }
+                if (kind == ImportKind.VACANCIES) {
+                    vacancies.add(vacancy(row));
+                } else {
+                    candidates.add(candidate(row));
+                }
+                rows.add(row.getNumber());
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                failed++;
+                report.failed(row.getNumber(), e.getMessage());
+            }
+        }
+
+        void commit(ImportReport report) {
+            if (size() == 0) {
+                return;
+            }
+            try {
+                write(vacancies, candidates, lastRow, failed);
+                report.committed(lastRow, rows.size());
+                index(vacancies, candidates);
+            } catch (ConcurrentRunException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                LOGGER.warn("Import {} chunk after row {} was rejected, retrying row by row", name, committedRows, e);
+                commitRowByRow(report);
+            }
+            vacancies.clear();
+            candidates.clear();
+            rows.clear();
+            committedRows = lastRow;
+            failed = 0;
+        }
+
+        /**
+         * Каждая запись - своя транзакция со сдвигом точки продолжения до неё.
+         * Если база недоступна, упадёт и завершающий сдвиг: загрузка остановится,
+         * а повторный запуск начнёт с первой записи, которую не удалось зафиксировать.
+         */
+        private void commitRowByRow(ImportReport report) {
+            for (int i = 0; i < rows.size(); i++) {
+                var row = rows.get(i);
+                var vacancy = kind == ImportKind.VACANCIES ? List.of(vacancies.get(i)) : List.<Vacancy>of();
+                var candidate = kind == ImportKind.VACANCIES ? List.<Candidate>of() : List.of(candidates.get(i));
+                try {
+                    write(vacancy, candidate, row, failed);
+                } catch (ConcurrentRunException e) {
+                    throw e;
+                } catch (RuntimeException e) {
+                    failed++;
+                    report.failed(row, e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage());
+                    continue;
+                }
+                report.committed(row, 1);
+                index(vacancy, candidate);
+                committedRows = row;
+                failed = 0;
+            }
+            if (committedRows != lastRow) {
+                write(List.of(), List.of(), lastRow, failed);
+                report.committed(lastRow, 0);
+            }
+        }
+
+        private void write(List<Vacancy> vacancies, List<Candidate> candidates, int toRow, int failedRows) {
+            unitOfWork.execute(() -> {
+                importRepository.insertVacancies(vacancies);
+                importRepository.insertCandidates(candidates);
+                if (!importRepository.advance(name, committedRows, toRow, failedRows)) {
+                    throw new ConcurrentRunException("Import " + name + " is being run concurrently");
+                }
+                return null;
+            });
+        }
+
+        private void index(List<Vacancy> vacancies, List<Candidate> candidates) {
+            for (var vacancy : vacancies) {
+                if (vacancy.getId() != 0) {
+                    searchService.indexVacancy(vacancy);
+                }
+            }
+            for (var candidate : candidates) {
+                if (candidate.getId() != 0) {
+                    searchService.indexCandidate(candidate);
+                }
+            }
+        }
+
+        private Vacancy vacancy(Row row) {
+            return new Vacancy(0, required(row, "title"), required(row, "description"),
+                    creationDate(row.get("creation_date")), visible(row.get("visible")), cityId(row), 0);
+        }
+
+        private Candidate candidate(Row row) {
+            return new Candidate(0, required(row, "name"), required(row, "description"),
+                    creationDate(row.get("creation_date")), cityId(row), 0);
+        }
+
+        private int cityId(Row row) {
+            var cityName = row.get("city");
+            if (cityName != null) {
+                var id = cities.get(cityName.toLowerCase(Locale.ROOT));
+                if (id == null) {
+                    throw new IllegalArgumentException("Unknown city: " + cityName);
+                }
+                return id;
+            }
+            var value = required(row, "city_id");
+            try {
+                var id = Integer.parseInt(value);
+                if (cityService.findById(id).isEmpty()) {
+                    throw new IllegalArgumentException("Unknown city_id: " + value);
+                }
+                return id;
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Malformed city_id: " + value);
+            }
+        }
+    }
+
+    /**
+     * Точку продолжения сдвинул другой запуск того же импорта - поштучная загрузка тут не поможет.
+     */
+    private static class ConcurrentRunException extends IllegalStateException {
+        ConcurrentRunException(String message) {
+            super(message);
+        }
+    }
+
+    private static String required(Row row, String column) {
+        var value = row.get(column);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing " + column);
+        }
+        return value;
+    }
+
+    private static boolean visible(String value) {
+        if (value == null) {
+            return true;
+        }
+        return switch (value.toLowerCase(Locale.ROOT)) {
+            case "true", "yes", "1" -> true;
+            case "false", "no", "0" -> false;
+            default -> throw new IllegalArgumentException("Malformed visible: " + value);
+        };
+    }
+
+    private static LocalDateTime creationDate(String value) {
+        if (value == null) {
+            return LocalDateTime.now();
+        }
+        return value.length() == 10 ? LocalDate.parse(value).atStartOfDay() : LocalDateTime.parse(value);
+    }
+}
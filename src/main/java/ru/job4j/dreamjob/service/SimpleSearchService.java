@@ -0,0 +1,116 @@
+package ru.job4j.dreamjob.service;
+
+import net.jcip.annotations.ThreadSafe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import ru.job4j.dreamjob.model.Candidate;
+import ru.job4j.dreamjob.model.Vacancy;
+import ru.job4j.dreamjob.repository.CandidateRepository;
+import ru.job4j.dreamjob.repository.VacancyRepository;
+import ru.job4j.dreamjob.search.InvertedIndex;
+import ru.job4j.dreamjob.search.SearchHit;
+import ru.job4j.dreamjob.search.Tokenizer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+
+@ThreadSafe
+@Service
+@ConditionalOnProperty(name = "search.mode", havingValue = "memory", matchIfMissing = true)
+public class SimpleSearchService implements SearchService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SimpleSearchService.class);
+
+    private final VacancyRepository vacancyRepository;
+    private final CandidateRepository candidateRepository;
+    private final InvertedIndex vacancyIndex = new InvertedIndex();
+    private final InvertedIndex candidateIndex = new InvertedIndex();
+
+    public SimpleSearchService(VacancyRepository cachingVacancyRepository, CandidateRepository cachingCandidateRepository) {
+        this.vacancyRepository = cachingVacancyRepository;
+        this.candidateRepository = cachingCandidateRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        vacancyIndex.beginLoad();
+        candidateIndex.beginLoad();
+        var vacancies = CompletableFuture.runAsync(
+                () -> load(vacancyIndex, vacancyRepository.findAll(), Vacancy::getId, SimpleSearchService::vacancyTokens));
+        var candidates = CompletableFuture.runAsync(
+                () -> load(candidateIndex, candidateRepository.findAll(), Candidate::getId, SimpleSearchService::candidateTokens));
+        CompletableFuture.allOf(vacancies, candidates).join();
+        LOGGER.info("Search index rebuilt: {} vacancies, {} candidates", vacancyIndex.size(), candidateIndex.size());
+    }
+
+    private static <T> void load(InvertedIndex index, Collection<T> documents,
+                                 Function<T, Integer> idOf, Function<T, List<String>> tokensOf) {
+        var snapshot = documents.parallelStream()
+                .collect(Collectors.toMap(idOf, tokensOf, (first, second) -> second));
+        index.load(snapshot);
+    }
+
+    /* заголовок весит вдвое больше описания: его термы попадают в документ дважды */
+    private static List<String> vacancyTokens(Vacancy vacancy) {
+        return weighted(vacancy.getTitle(), vacancy.getDescription());
+    }
+
+    private static List<String> candidateTokens(Candidate candidate) {
+        return weighted(candidate.getName(), candidate.getDescription());
+    }
+
+    private static List<String> weighted(String title, String description) {
+        var titleTokens = Tokenizer.tokenize(title);
+        var tokens = new ArrayList<String>(titleTokens);
+        tokens.addAll(titleTokens);
+        tokens.addAll(Tokenizer.tokenize(description));
+        return tokens;
+    }
+
+    @Override
+    public List<Vacancy> searchVacancies(String query, int limit) {
+        return resolve(vacancyIndex.search(Tokenizer.tokenize(query), limit), vacancyRepository::findById);
+    }
+
+    @Override
+    public List<Candidate> searchCandidates(String query, int limit) {
+        return resolve(candidateIndex.search(Tokenizer.tokenize(query), limit), candidateRepository::findById);
+    }
+
+    private static <T> List<T> resolve(List<SearchHit> hits, IntFunction<Optional<T>> finder) {
+        var result = new ArrayList<T>(hits.size());
+        for (var hit : hits) {
+            finder.apply(hit.getId()).ifPresent(result::add);
+        }
+        return result;
+    }
+
+    @Override
+    public void indexVacancy(Vacancy vacancy) {
+        vacancyIndex.add(vacancy.getId(), vacancyTokens(vacancy));
+    }
+
+    @Override
+    public void removeVacancy(int id) {
+        vacancyIndex.remove(id);
+    }
+
+    @Override
+    public void indexCandidate(Candidate candidate) {
+        candidateIndex.add(candidate.getId(), candidateTokens(candidate));
+    }
+
+    @Override
+    public void removeCandidate(int id) {
+        candidateIndex.remove(id);
+    }
+}
@@ -2,10 +2,18 @@ package ru.job4j.dreamjob.service;
 
 import net.jcip.annotations.ThreadSafe;
 import org.springframework.stereotype.Service;
+import ru.job4j.dreamjob.dto.CityFacet;
 import ru.job4j.dreamjob.dto.FileDto;
+import ru.job4j.dreamjob.dto.ListFilter;
+import ru.job4j.dreamjob.dto.Page;
+import ru.job4j.dreamjob.dto.PageRequest;
+import ru.job4j.dreamjob.dto.StagedFile;
+import ru.job4j.dreamjob.dto.VacancySummary;
 import ru.job4j.dreamjob.model.Vacancy;
+import ru.job4j.dreamjob.repository.UnitOfWork;
 import ru.job4j.dreamjob.repository.VacancyRepository;
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @ThreadSafe
@@ -13,43 +21,85 @@ import java.util.Optional;
 public class SimpleVacancyService implements VacancyService {
     private final VacancyRepository vacancyRepository;
     private final FileService fileService;
+    private final SearchService searchService;
+    private final UnitOfWork unitOfWork;
 
-    public SimpleVacancyService(VacancyRepository sql2oVacancyRepository, FileService fileService) {
-        this.vacancyRepository = sql2oVacancyRepository;
+    public SimpleVacancyService(VacancyRepository cachingVacancyRepository, FileService fileService,
+                                SearchService searchService, UnitOfWork unitOfWork) {
+        this.vacancyRepository = cachingVacancyRepository;
         this.fileService = fileService;
+        this.searchService = searchService;
+        this.unitOfWork = unitOfWork;
     }
 
+    /**
+     * Файл кладётся в хранилище до транзакции, в ней остаются только строки БД.
+     */
     @Override
     public Vacancy save(Vacancy vacancy, FileDto image) {
-        saveNewFile(vacancy, image);
-        return vacancyRepository.save(vacancy);
+        var staged = fileService.stage(image);
+        Vacancy savedVacancy;
+        try {
+            savedVacancy = unitOfWork.execute(() -> {
+                registerNewFile(vacancy, staged);
+                return vacancyRepository.save(vacancy);
+            });
+        } finally {
+            fileService.discard(staged);
+        }
+        searchService.indexVacancy(savedVacancy);
+        return savedVacancy;
     }
 
-    private void saveNewFile(Vacancy vacancy, FileDto image) {
-        var file = fileService.save(image);
+    private void registerNewFile(Vacancy vacancy, StagedFile staged) {
+        var file = fileService.register(staged);
         vacancy.setFileId(file.getId());
     }
 
     @Override
     public boolean deleteById(int id) {
-        var fileOptional = findById(id);
-        if (fileOptional.isPresent()) {
-            fileService.deleteById(fileOptional.get().getFileId());
+        /* сначала строка, которая ссылается на файл, потом сам файл - иначе нарушится внешний ключ */
+        var isDeleted = unitOfWork.execute(() -> {
+            var vacancyOptional = vacancyRepository.findById(id);
+            var deleted = vacancyRepository.deleteById(id);
+            if (deleted && vacancyOptional.isPresent()) {
+                fileService.deleteById(vacancyOptional.get().getFileId());
+            }
+            return deleted;
+        });
+        if (isDeleted) {
+            searchService.removeVacancy(id);
         }
-        return vacancyRepository.deleteById(id);
+        return isDeleted;
     }
 
     @Override
     public boolean update(Vacancy vacancy, FileDto image) {
-        boolean isNewFileEmpty = image.getContent().length == 0;
+        boolean isNewFileEmpty = image.isEmpty();
         if (isNewFileEmpty) {
-            return vacancyRepository.update(vacancy);
+            return reindexIfUpdated(vacancy, vacancyRepository.update(vacancy));
         }
-        /* если передан новый не пустой файл, то старый удаляем, а новый сохраняем */
+        /* если передан новый не пустой файл, то старый удаляем, а новый сохраняем - одной транзакцией */
         int oldFileId = vacancy.getFileId();
-        saveNewFile(vacancy, image);
-        boolean isUpdated = vacancyRepository.update(vacancy);
-        fileService.deleteById(oldFileId);
+        var staged = fileService.stage(image);
+        boolean isUpdated;
+        try {
+            isUpdated = unitOfWork.execute(() -> {
+                registerNewFile(vacancy, staged);
+                var updated = vacancyRepository.update(vacancy);
+                fileService.deleteById(updated ? oldFileId : vacancy.getFileId());
+                return updated;
+            });
+        } finally {
+            fileService.discard(staged);
+        }
+        return reindexIfUpdated(vacancy, isUpdated);
+    }
+
+    private boolean reindexIfUpdated(Vacancy vacancy, boolean isUpdated) {
+        if (isUpdated) {
+            searchService.indexVacancy(vacancy);
+        }
         return isUpdated;
     }
 
@@ -62,4 +112,14 @@ public class SimpleVacancyService implements VacancyService {
     public Collection<Vacancy> findAll() {
         return vacancyRepository.findAll();
     }
+
+    @Override
+    public Page<VacancySummary> findSummaryPage(ListFilter filter, PageRequest request) {
+        return vacancyRepository.findSummaryPage(filter, request);
+    }
+
+    @Override
+    public List<CityFacet> countByCity(ListFilter filter, int limit) {
+        return vacancyRepository.countByCity(filter, limit);
+    }
 }
@@ -1,8 +1,14 @@
 package ru.job4j.dreamjob.service;
 
+import ru.job4j.dreamjob.dto.CityFacet;
 import ru.job4j.dreamjob.dto.FileDto;
+import ru.job4j.dreamjob.dto.ListFilter;
+import ru.job4j.dreamjob.dto.Page;
+import ru.job4j.dreamjob.dto.PageRequest;
+import ru.job4j.dreamjob.dto.VacancySummary;
 import ru.job4j.dreamjob.model.Vacancy;
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface VacancyService {
@@ -11,4 +17,11 @@ public interface VacancyService {
     boolean update(Vacancy vacancy, FileDto image);
     Optional<Vacancy> findById(int id);
     Collection<Vacancy> findAll();
+
+    /**
+     * Страница списка: только колонки, которые на нём показываются.
+     */
+    Page<VacancySummary> findSummaryPage(ListFilter filter, PageRequest request);
+
+    List<CityFacet> countByCity(ListFilter filter, int limit);
 }
@@ -0,0 +1,36 @@
+package ru.job4j.dreamjob.storage;
+
+import org.springframework.core.io.Resource;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Место, где физически лежит содержимое файлов. Сервис оперирует только ключами вида
+ * ab/cd/hash (см. StorageKeys) и не знает, диск это или объектное хранилище.
+ */
+public interface FileStorage {
+    /**
+     * Кладёт содержимое локального временного файла под ключ. Файл source забирается
+     * хранилищем: после вызова его больше нет. Под ключом никогда не бывает недописанного содержимого.
+     */
+    void put(String key, Path source);
+
+    Optional<StoredObject> stat(String key);
+
+    /**
+     * Содержимое для отдачи клиенту. Для локального диска это FileSystemResource, что позволяет sendfile.
+     */
+    Resource getResource(StoredObject object);
+
+    /**
+     * @return false, если под ключом ничего не было
+     */
+    boolean delete(String key);
+
+    /**
+     * Объекты с ключами под "каталогом" prefix (например, "ab/"), отсортированные по ключу.
+     * Поток нужно закрыть.
+     */
+    Stream<StoredObject> list(String prefix);
+}
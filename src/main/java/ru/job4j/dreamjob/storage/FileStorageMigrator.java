@@ -0,0 +1,198 @@
+package ru.job4j.dreamjob.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+import ru.job4j.dreamjob.dto.ImageSize;
+import ru.job4j.dreamjob.model.File;
+import ru.job4j.dreamjob.repository.FileRepository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Одноразовый перенос файлов в текущее хранилище: запускается с --file.storage.migrate=true,
+ * обходит таблицу files пачками по id, кладёт содержимое под ключ ab/cd/hash, переписывает
+ * files.path и удаляет старую копию, после чего приложение завершается.
+ * Источник - локальный каталог file.directory, то есть и плоская раскладка files/uuidname,
+ * и переход с локального диска на S3. Повторный запуск пропускает уже перенесённые записи.
+ */
+@Component
+@ConditionalOnProperty(name = "file.storage.migrate", havingValue = "true")
+public class FileStorageMigrator implements ApplicationRunner {
+    private static final Logger LOGGER = LoggerFactory.getLogger(FileStorageMigrator.class);
+
+    private final FileRepository fileRepository;
+    private final LocalFileStorage source;
+    private final FileStorage target;
+    private final Path scratchDirectory;
+    private final int batchSize;
+    private final ApplicationContext context;
+
+    @Autowired
+    public FileStorageMigrator(FileRepository sql2oFileRepository,
+                               FileStorage fileStorage,
+                               @Value("${file.directory}") String storageDirectory,
+                               @Value("${file.storage.migrate-batch-size:500}") int batchSize,
+                               ApplicationContext context) {
+        this.fileRepository = sql2oFileRepository;
+        this.source = new LocalFileStorage(storageDirectory);
+        this.target = fileStorage;
+        this.scratchDirectory = Path.of(storageDirectory);
+        this.batchSize = batchSize;
+        this.context = context;
+    }
+
+    public FileStorageMigrator(FileRepository fileRepository, LocalFileStorage source, FileStorage target,
+                               Path scratchDirectory, int batchSize) {
+        this.fileRepository = fileRepository;
+        this.source = source;
+        this.target = target;
+        this.scratchDirectory = scratchDirectory;
+        this.batchSize = batchSize;
+        this.context = null;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        var failed = migrate();
+        System.exit(SpringApplication.exit(context, () -> failed == 0 ? 0 : 1));
+    }
+
+    /**
+     * @return число записей, которые перенести не удалось (подробности в логе)
+     */
+    public long migrate() {
+        var lastId = 0;
+        long moved = 0;
+        long skipped = 0;
+        long failed = 0;
+        while (true) {
+            var batch = fileRepository.findAfter(lastId, batchSize);
+            if (batch.isEmpty()) {
+                break;
+            }
+            for (var file : batch) {
+                lastId = file.getId();
+                try {
+                    if (migrate(file)) {
+                        moved++;
+                    } else {
+                        skipped++;
+                    }
+                } catch (RuntimeException e) {
+                    failed++;
+                    LOGGER.warn("Could not migrate file {} ({})", file.getId(), file.getPath(), e);
+                }
+            }
+            LOGGER.info("Files migrated up to id {}: {} moved, {} already in place, {} failed",
+                    lastId, moved, skipped, failed);
+        }
+        return failed;
+    }
+
+    private boolean migrate(File file) {
+        if (StorageKeys.isCanonical(file.getPath()) && target.stat(file.getPath()).isPresent()) {
+            return false;
+        }
+        var sourcePath = source.resolve(file.getPath());
+        if (!Files.exists(sourcePath)) {
+            throw new IllegalStateException("Content is missing at " + sourcePath);
+        }
+        String key;
+        if (file.getHash() != null && target.stat(StorageKeys.of(file.getHash())).isPresent()) {
+            key = StorageKeys.of(file.getHash());
+        } else {
+            key = copy(file, sourcePath);
+        }
+        file.setPath(key);
+        fileRepository.update(file);
+        if (!isSameFile(sourcePath, key)) {
+            deleteWithVariants(sourcePath);
+        }
+        return true;
+    }
+
+    /**
+     * Копирует содержимое в хранилище через временный файл, по дороге считая SHA-256.
+     * Хэш записывается в строку, только если его ещё не заняла другая запись, иначе
+     * содержимое получает собственный ключ: слияние дублей потребовало бы переписывать ссылки
+     * из vacancies и candidates.
+     */
+    private String copy(File file, Path sourcePath) {
+        Path temp = null;
+        try {
+            temp = Files.createTempFile(scratchDirectory, ".migrate-", ".tmp");
+            var digest = MessageDigest.getInstance("SHA-256");
+            try (var input = new DigestInputStream(Files.newInputStream(sourcePath), digest);
+                 var output = Files.newOutputStream(temp)) {
+                input.transferTo(output);
+            }
+            var sha256 = HexFormat.of().formatHex(digest.digest());
+            if (file.getHash() == null && fileRepository.findByHash(sha256).isEmpty()) {
+                file.setHash(sha256);
+            }
+            var key = sha256.equals(file.getHash())
+                    ? StorageKeys.of(sha256)
+                    : StorageKeys.unique(sha256, String.valueOf(file.getId()));
+            target.put(key, temp);
+            return key;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            deleteQuietly(temp);
+        }
+    }
+
+    /**
+     * Старые строки вида files/ab/cd/hash после переноса на тот же диск указывают на тот же файл,
+     * что и новый ключ - его удалять нельзя.
+     */
+    private boolean isSameFile(Path sourcePath, String key) {
+        var stored = target.stat(key);
+        if (stored.isEmpty()) {
+            return false;
+        }
+        var resource = target.getResource(stored.get());
+        try {
+            return resource.isFile() && Files.isSameFile(resource.getFile().toPath(), sourcePath);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static void deleteWithVariants(Path sourcePath) {
+        for (var size : ImageSize.values()) {
+            var path = size == ImageSize.ORIGINAL
+                    ? sourcePath
+                    : sourcePath.resolveSibling(sourcePath.getFileName() + "." + size.getSuffix());
+            deleteQuietly(path);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            LOGGER.warn("Could not delete {}", path, e);
+        }
+    }
+}
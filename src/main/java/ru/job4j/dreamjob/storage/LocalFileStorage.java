@@ -0,0 +1,108 @@
+package ru.job4j.dreamjob.storage;
+
+import net.jcip.annotations.ThreadSafe;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Хранилище на локальном диске под file.directory. Временные файлы загрузок создаются
+ * в том же каталоге, поэтому put - это атомарное переименование без копирования.
+ */
+@ThreadSafe
+@Component
+@ConditionalOnProperty(name = "file.storage.type", havingValue = "local", matchIfMissing = true)
+public class LocalFileStorage implements FileStorage {
+    private final Path root;
+
+    public LocalFileStorage(@Value("${file.directory}") String storageDirectory) {
+        this.root = Path.of(storageDirectory);
+    }
+
+    /**
+     * Строки, записанные в files.path до появления хранилища, уже содержат каталог
+     * хранилища (files/...) - они читаются как есть, пока их не перепишет FileStorageMigrator.
+     */
+    public Path resolve(String key) {
+        var path = Path.of(key);
+        return path.isAbsolute() || path.startsWith(root) ? path : root.resolve(path);
+    }
+
+    @Override
+    public void put(String key, Path source) {
+        var target = resolve(key);
+        try {
+            Files.createDirectories(target.getParent());
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public Optional<StoredObject> stat(String key) {
+        try {
+            var attributes = Files.readAttributes(resolve(key), BasicFileAttributes.class);
+            return Optional.of(new StoredObject(key, attributes.size(), attributes.lastModifiedTime().toInstant()));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public Resource getResource(StoredObject object) {
+        return new FileSystemResource(resolve(object.getKey()));
+    }
+
+    @Override
+    public boolean delete(String key) {
+        try {
+            return Files.deleteIfExists(resolve(key));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Один шард - это несколько тысяч файлов даже при миллионах загрузок, поэтому он
+     * сортируется в памяти. Временные файлы (.upload-*, .variant-*) в выдачу не попадают.
+     */
+    @Override
+    public Stream<StoredObject> list(String prefix) {
+        var directory = root.resolve(prefix);
+        if (!Files.isDirectory(directory)) {
+            return Stream.empty();
+        }
+        try (var paths = Files.find(directory, Integer.MAX_VALUE,
+                (path, attributes) -> attributes.isRegularFile()
+                        && !path.getFileName().toString().startsWith("."))) {
+            return paths.map(path -> new StoredObject(
+                            root.relativize(path).toString().replace(File.separatorChar, '/'),
+                            path.toFile().length(),
+                            Instant.ofEpochMilli(path.toFile().lastModified())))
+                    .sorted(Comparator.comparing(StoredObject::getKey))
+                    .collect(Collectors.toList())
+                    .stream();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package ru.job4j.dreamjob.storage;
+
+import net.jcip.annotations.ThreadSafe;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import org.w3c.dom.Element;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Хранилище в S3-совместимом объектном хранилище (AWS S3, MinIO, Ceph RGW) поверх
+ * java.net.http без AWS SDK. Используется path-style адресация (endpoint/bucket/key),
+ * которую понимают все реализации. Тело не подписывается (UNSIGNED-PAYLOAD), поэтому
+ * загрузка идёт потоком прямо из временного файла.
+ */
+@ThreadSafe
+@Component
+@ConditionalOnProperty(name = "file.storage.type", havingValue = "s3")
+public class S3FileStorage implements FileStorage {
+    private final HttpClient client;
+    private final URI endpoint;
+    private final String bucket;
+    private final SigV4Signer signer;
+    private final Clock clock;
+    private final Duration timeout;
+
+    @Autowired
+    public S3FileStorage(@Value("${file.storage.s3.endpoint}") String endpoint,
+                         @Value("${file.storage.s3.region:us-east-1}") String region,
+                         @Value("${file.storage.s3.bucket}") String bucket,
+                         @Value("${file.storage.s3.access-key}") String accessKey,
+                         @Value("${file.storage.s3.secret-key}") String secretKey,
+                         @Value("${file.storage.s3.timeout:PT30S}") Duration timeout) {
+        this(HttpClient.newBuilder().connectTimeout(timeout).build(), URI.create(endpoint), bucket,
+                new SigV4Signer(accessKey, secretKey, region, "s3"), Clock.systemUTC(), timeout);
+    }
+
+    public S3FileStorage(HttpClient client, URI endpoint, String bucket, SigV4Signer signer,
+                         Clock clock, Duration timeout) {
+        this.client = client;
+        this.endpoint = endpoint;
+        this.bucket = bucket;
+        this.signer = signer;
+        this.clock = clock;
+        this.timeout = timeout;
+    }
+
+    @Override
+    public void put(String key, Path source) {
+        try {
+            var response = send(request("PUT", key, HttpRequest.BodyPublishers.ofFile(source)),
+                    HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() / 100 != 2) {
+                throw new IOException("PUT " + key + " failed with status " + response.statusCode());
+            }
+            Files.deleteIfExists(source);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public Optional<StoredObject> stat(String key) {
+        try {
+            var response = send(request("HEAD", key, HttpRequest.BodyPublishers.noBody()),
+                    HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() == 404) {
+                return Optional.empty();
+            }
+            if (response.statusCode() / 100 != 2) {
+                throw new IOException("HEAD " + key + " failed with status " + response.statusCode());
+            }
+            var size = response.headers().firstValueAsLong("Content-Length").orElse(0);
+            var lastModified = response.headers().firstValue("Last-Modified")
+                    .map(value -> ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant())
+                    .orElse(Instant.EPOCH);
+            return Optional.of(new StoredObject(key, size, lastModified));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public Resource getResource(StoredObject object) {
+        return new ObjectResource(object);
+    }
+
+    @Override
+    public boolean delete(String key) {
+        try {
+            var response = send(request("DELETE", key, HttpRequest.BodyPublishers.noBody()),
+                    HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() == 404) {
+                return false;
+            }
+            if (response.statusCode() / 100 != 2) {
+                throw new IOException("DELETE " + key + " failed with status " + response.statusCode());
+            }
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * ListObjectsV2 постранично (до 1000 ключей за запрос). S3 отдаёт ключи в порядке байтов UTF-8,
+     * что для ASCII-ключей совпадает с порядком String.
+     */
+    @Override
+    public Stream<StoredObject> list(String prefix) {
+        var objects = new ArrayList<StoredObject>();
+        String continuation = null;
+        try {
+            do {
+                var query = new TreeMap<String, String>();
+                query.put("list-type", "2");
+                query.put("prefix", prefix);
+                if (continuation != null) {
+                    query.put("continuation-token", continuation);
+                }
+                var response = send(request("GET", bucketUri(query), HttpRequest.BodyPublishers.noBody()),
+                        HttpResponse.BodyHandlers.ofInputStream());
+                try (var body = response.body()) {
+                    if (response.statusCode() / 100 != 2) {
+                        throw new IOException("LIST " + prefix + " failed with status " + response.statusCode());
+                    }
+                    continuation = parseListPage(body, objects);
+                }
+            } while (continuation != null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return objects.stream();
+    }
+
+    /**
+     * @return токен следующей страницы или null, если страница последняя
+     */
+    private static String parseListPage(InputStream body, List<StoredObject> objects) throws IOException {
+        try {
+            var factory = DocumentBuilderFactory.newInstance();
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            factory.setNamespaceAware(false);
+            var document = factory.newDocumentBuilder().parse(body);
+            var contents = document.getElementsByTagName("Contents");
+            for (int i = 0; i < contents.getLength(); i++) {
+                var element = (Element) contents.item(i);
+                objects.add(new StoredObject(text(element, "Key"),
+                        Long.parseLong(text(element, "Size")),
+                        Instant.parse(text(element, "LastModified"))));
+            }
+            var root = document.getDocumentElement();
+            return "true".equals(text(root, "IsTruncated")) ? text(root, "NextContinuationToken") : null;
+        } catch (ParserConfigurationException | SAXException e) {
+            throw new IOException("Malformed ListObjectsV2 response", e);
+        }
+    }
+
+    private static String text(Element parent, String tag) {
+        var nodes = parent.getElementsByTagName(tag);
+        return nodes.getLength() == 0 ? null : nodes.item(0).getTextContent();
+    }
+
+    private InputStream open(String key) throws IOException {
+        var response = send(request("GET", key, HttpRequest.BodyPublishers.noBody()),
+                HttpResponse.BodyHandlers.ofInputStream());
+        if (response.statusCode() == 404) {
+            response.body().close();
+            throw new FileNotFoundException(key);
+        }
+        if (response.statusCode() / 100 != 2) {
+            response.body().close();
+            throw new IOException("GET " + key + " failed with status " + response.statusCode());
+        }
+        return response.body();
+    }
+
+    private URI uri(String key) {
+        var path = Arrays.stream(key.split("/"))
+                .map(SigV4Signer::encode)
+                .collect(Collectors.joining("/"));
+        return URI.create(base() + SigV4Signer.encode(bucket) + "/" + path);
+    }
+
+    /**
+     * Параметры кодируются так же, как их кодирует подпись, и идут в отсортированном порядке.
+     */
+    private URI bucketUri(SortedMap<String, String> query) {
+        var rawQuery = query.entrySet().stream()
+                .map(parameter -> SigV4Signer.encode(parameter.getKey()) + "=" + SigV4Signer.encode(parameter.getValue()))
+                .collect(Collectors.joining("&"));
+        return URI.create(base() + SigV4Signer.encode(bucket) + "?" + rawQuery);
+    }
+
+    private String base() {
+        return endpoint.toString().endsWith("/") ? endpoint.toString() : endpoint + "/";
+    }
+
+    /**
+     * Host не выставляется вручную - HttpClient делает это сам, но он входит в подпись,
+     * поэтому значение вычисляется так же: порт только если он указан в endpoint.
+     */
+    private HttpRequest request(String method, String key, HttpRequest.BodyPublisher body) {
+        return request(method, uri(key), body);
+    }
+
+    private HttpRequest request(String method, URI uri, HttpRequest.BodyPublisher body) {
+        var now = clock.instant();
+        var headers = new TreeMap<String, String>();
+        headers.put("host", uri.getPort() == -1 ? uri.getHost() : uri.getHost() + ":" + uri.getPort());
+        headers.put("x-amz-content-sha256", SigV4Signer.UNSIGNED_PAYLOAD);
+        headers.put("x-amz-date", SigV4Signer.amzDate(now));
+        return HttpRequest.newBuilder(uri)
+                .timeout(timeout)
+                .method(method, body)
+                .header("x-amz-content-sha256", SigV4Signer.UNSIGNED_PAYLOAD)
+                .header("x-amz-date", SigV4Signer.amzDate(now))
+                .header("Authorization", signer.authorization(method, uri, headers, SigV4Signer.UNSIGNED_PAYLOAD, now))
+                .build();
+    }
+
+    private <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler) throws IOException {
+        try {
+            return client.send(request, handler);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while calling " + request.uri(), e);
+        }
+    }
+
+    /**
+     * Объект отдаётся клиенту потоком из ответа GET. Размер известен из HEAD,
+     * поэтому Spring не читает тело ради Content-Length.
+     */
+    private class ObjectResource extends AbstractResource {
+        private final StoredObject object;
+
+        ObjectResource(StoredObject object) {
+            this.object = object;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return open(object.getKey());
+        }
+
+        @Override
+        public boolean exists() {
+            return true;
+        }
+
+        @Override
+        public long contentLength() {
+            return object.getSize();
+        }
+
+        @Override
+        public long lastModified() {
+            return object.getLastModified().toEpochMilli();
+        }
+
+        @Override
+        public String getDescription() {
+            return "S3 object [" + bucket + "/" + object.getKey() + "]";
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package ru.job4j.dreamjob.storage;
+
+import java.util.regex.Pattern;
+
+/**
+ * Ключи хранилища: первые две пары символов SHA-256 - два уровня каталогов (ab/cd/abcd...),
+ * так что в одном каталоге оказывается не больше нескольких сотен файлов даже при миллионах загрузок.
+ */
+public final class StorageKeys {
+    private static final Pattern CANONICAL = Pattern.compile("[0-9a-f]{2}/[0-9a-f]{2}/[0-9a-f]{64}(-[0-9a-z-]+)?");
+
+    private StorageKeys() {
+    }
+
+    public static String of(String sha256) {
+        return sha256.substring(0, 2) + "/" + sha256.substring(2, 4) + "/" + sha256;
+    }
+
+    /**
+     * Ключ для содержимого, которое не делится с другими записями (дедупликация выключена
+     * или хэш уже занят): шардируется так же, но уникален.
+     */
+    public static String unique(String sha256, String suffix) {
+        return of(sha256) + "-" + suffix;
+    }
+
+    /**
+     * false для путей, записанных до появления хранилища (files/uuidname.png, files/ab/cd/hash).
+     */
+    public static boolean isCanonical(String key) {
+        return CANONICAL.matcher(key).matches();
+    }
+}
@@ -0,0 +1,90 @@
+package ru.job4j.cache;
+
+import org.junit.jupiter.api.Test;
+import ru.job4j.dreamjob.cache.EntityCache;
+import ru.job4j.dreamjob.cache.EvictionPolicy;
+import ru.job4j.dreamjob.model.City;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EntityCacheTest {
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private Optional<City> load(int id) {
+        loads.incrementAndGet();
+        return Optional.of(new City(id, "city" + id));
+    }
+
+    private EntityCache<City> cache(int maxEntries, Duration ttl, EvictionPolicy policy) {
+        return new EntityCache<>(maxEntries, ttl, policy, city -> new City(city.getId(), city.getName()), now::get);
+    }
+
+    @Test
+    public void whenGetTwiceThenLoadedOnceAndCopyReturned() {
+        var cache = cache(10, Duration.ZERO, EvictionPolicy.LRU);
+        var first = cache.get(1, this::load).get();
+        var second = cache.get(1, this::load).get();
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(second).isNotSameAs(first);
+        assertThat(cache.getStats().getHits()).isEqualTo(1);
+        assertThat(cache.getStats().getMisses()).isEqualTo(1);
+    }
+
+    @Test
+    public void whenInvalidateThenReloaded() {
+        var cache = cache(10, Duration.ZERO, EvictionPolicy.LRU);
+        cache.get(1, this::load);
+        cache.invalidate(1);
+        cache.get(1, this::load);
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void whenTtlPassedThenReloaded() {
+        var cache = cache(10, Duration.ofSeconds(1), EvictionPolicy.LRU);
+        cache.get(1, this::load);
+        now.addAndGet(Duration.ofSeconds(2).toNanos());
+        cache.get(1, this::load);
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void whenFullThenLeastRecentlyUsedEvicted() {
+        var cache = cache(2, Duration.ZERO, EvictionPolicy.LRU);
+        cache.get(1, this::load);
+        cache.get(2, this::load);
+        cache.get(1, this::load);
+        cache.get(3, this::load);
+        cache.get(1, this::load);
+        assertThat(loads.get()).isEqualTo(3);
+        assertThat(cache.getStats().getEvictions()).isEqualTo(1);
+    }
+
+    @Test
+    public void whenFullThenFirstInEvictedRegardlessOfAccess() {
+        var cache = cache(2, Duration.ZERO, EvictionPolicy.FIFO);
+        cache.get(1, this::load);
+        cache.get(2, this::load);
+        cache.get(1, this::load);
+        cache.get(3, this::load);
+        cache.get(1, this::load);
+        assertThat(loads.get()).isEqualTo(4);
+    }
+
+    @Test
+    public void whenInvalidatedDuringLoadThenStaleValueNotCached() {
+        var cache = cache(10, Duration.ZERO, EvictionPolicy.LRU);
+        cache.get(1, id -> {
+            cache.invalidate(id);
+            return load(id);
+        });
+        cache.get(1, this::load);
+        assertThat(loads.get()).isEqualTo(2);
+    }
+}
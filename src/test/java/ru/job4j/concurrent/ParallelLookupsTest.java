@@ -0,0 +1,99 @@
+package ru.job4j.concurrent;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.job4j.dreamjob.concurrent.ParallelLookups;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ParallelLookupsTest {
+    private ExecutorService executor;
+    private ParallelLookups parallelLookups;
+
+    @BeforeEach
+    public void initLookups() {
+        executor = Executors.newFixedThreadPool(4);
+        parallelLookups = new ParallelLookups(executor, Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static <T> T slow(T value, long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return value;
+    }
+
+    @Test
+    public void whenLookupsIndependentThenTheyRunConcurrently() {
+        var lookups = parallelLookups.start();
+        var first = lookups.required("first", () -> slow(1, 300));
+        var second = lookups.required("second", () -> slow(2, 300));
+        var third = lookups.optional("third", () -> slow(3, 300), 0);
+        var started = System.nanoTime();
+        lookups.await();
+        var elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+        assertThat(first.get() + second.get() + third.get()).isEqualTo(6);
+        assertThat(elapsedMillis).isLessThan(800);
+    }
+
+    @Test
+    public void whenOptionalLookupFailsOrTimesOutThenFallbackIsUsed() {
+        var lookups = parallelLookups.start();
+        var value = lookups.required("value", () -> "value");
+        var failed = lookups.optional("failed", () -> {
+            throw new IllegalStateException("boom");
+        }, "fallback");
+        var late = lookups.optional("late", () -> slow("late", 2000), "fallback", Duration.ofMillis(50));
+        lookups.await();
+        assertThat(value.get()).isEqualTo("value");
+        assertThat(failed.get()).isEqualTo("fallback");
+        assertThat(late.get()).isEqualTo("fallback");
+    }
+
+    @Test
+    public void whenRequiredLookupTimesOutThenAwaitThrows() {
+        var lookups = parallelLookups.start();
+        lookups.required("late", () -> slow("late", 2000), Duration.ofMillis(50));
+        assertThatThrownBy(lookups::await)
+                .isInstanceOf(ParallelLookups.LookupException.class)
+                .hasMessageContaining("late");
+    }
+
+    @Test
+    public void whenReadBeforeAwaitThenIllegalState() {
+        var lookups = parallelLookups.start();
+        var value = lookups.required("value", () -> "value");
+        assertThatThrownBy(value::get).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void whenLookupTimesOutThenItsThreadIsInterrupted() throws InterruptedException {
+        var interrupted = new CountDownLatch(1);
+        var lookups = parallelLookups.start();
+        lookups.optional("stuck", () -> {
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return "stuck";
+        }, "fallback", Duration.ofMillis(50));
+        lookups.await();
+        assertThat(interrupted.await(1, TimeUnit.SECONDS)).isTrue();
+    }
+}
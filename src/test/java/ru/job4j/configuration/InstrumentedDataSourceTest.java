@@ -0,0 +1,67 @@
+package ru.job4j.configuration;
+
+import org.junit.jupiter.api.Test;
+import ru.job4j.dreamjob.configuration.DatasourceConfiguration;
+
+import ru.job4j.dreamjob.configuration.InstrumentedDataSource;
+
+import java.sql.SQLException;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class InstrumentedDataSourceTest {
+
+    private static InstrumentedDataSource createDataSource() throws Exception {
+        var properties = new Properties();
+        try (var inputStream = InstrumentedDataSourceTest.class.getClassLoader().getResourceAsStream("connection.properties")) {
+            properties.load(inputStream);
+        }
+        return new DatasourceConfiguration().connectionPool(properties.getProperty("datasource.url"),
+                properties.getProperty("datasource.username"), properties.getProperty("datasource.password"));
+    }
+
+    @Test
+    public void whenConnectionsBorrowedThenCountedInStats() throws Exception {
+        var dataSource = createDataSource();
+        try {
+            try (var first = dataSource.getConnection(); var second = dataSource.getConnection()) {
+                var stats = dataSource.getStats();
+                assertThat(stats.getActive()).isEqualTo(2);
+                assertThat(stats.getCheckouts()).isEqualTo(2);
+            }
+            var stats = dataSource.getStats();
+            assertThat(stats.getActive()).isZero();
+            assertThat(stats.getIdle()).isEqualTo(2);
+            assertThat(stats.getWaiters()).isZero();
+            assertThat(stats.getFailedCheckouts()).isZero();
+            assertThat(stats.getWaitHistogram().values().stream().mapToLong(Long::longValue).sum()).isEqualTo(2);
+        } finally {
+            dataSource.close();
+        }
+    }
+
+    @Test
+    public void whenLimitReachedAndQueueFullThenRejectedUntilConnectionClosed() throws Exception {
+        var dataSource = createDataSource();
+        dataSource.setMaxTotal(1);
+        dataSource.setConcurrencyLimit(true);
+        dataSource.setMaxQueuedWaiters(0);
+        try {
+            var first = dataSource.getConnection();
+            assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLException.class);
+            first.close();
+            first.close();
+            try (var second = dataSource.getConnection()) {
+                assertThat(second.isValid(1)).isTrue();
+            }
+            try (var third = dataSource.getConnection()) {
+                assertThat(third.isClosed()).isFalse();
+            }
+            assertThat(dataSource.getStats().getFailedCheckouts()).isEqualTo(1);
+        } finally {
+            dataSource.close();
+        }
+    }
+}
@@ -6,8 +6,11 @@ import org.mockito.ArgumentCaptor;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.ui.ConcurrentModel;
 import org.springframework.web.multipart.MultipartFile;
+import ru.job4j.dreamjob.concurrent.ParallelLookups;
 import ru.job4j.dreamjob.controller.CandidateController;
+import ru.job4j.dreamjob.dto.CandidateSummary;
 import ru.job4j.dreamjob.dto.FileDto;
+import ru.job4j.dreamjob.dto.Page;
 import ru.job4j.dreamjob.model.Candidate;
 import ru.job4j.dreamjob.model.City;
 import ru.job4j.dreamjob.service.CandidateService;
@@ -18,6 +21,7 @@ import java.util.List;
 import java.util.Optional;
 import static java.time.LocalDateTime.now;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -31,18 +35,18 @@ public class CandidateControllerTest {
     public void init() {
         candidateService = mock(CandidateService.class);
         cityService = mock(CityService.class);
-        candidateController = new CandidateController(candidateService, cityService);
+        candidateController = new CandidateController(candidateService, cityService, ParallelLookups.direct());
         testFile = new MockMultipartFile("test.img", new byte[] {1, 2, 3});
     }
 
     @Test
     public void whenRequestCandidateList() {
-        Candidate candidate1 = new Candidate(1, "Petrov", "Descr1", now(), 1, 1);
-        Candidate candidate2 = new Candidate(2, "Ivanov", "Descr2", now(), 2, 2);
-        Collection<Candidate> expectedCandidates = List.of(candidate1, candidate2);
-        when(candidateService.findAll()).thenReturn(expectedCandidates);
+        var candidate1 = new CandidateSummary(1, "Petrov", now(), "Москва", 1, "photo.png");
+        var candidate2 = new CandidateSummary(2, "Ivanov", now(), "Санкт-Петербург", 0, null);
+        Collection<CandidateSummary> expectedCandidates = List.of(candidate1, candidate2);
+        when(candidateService.findSummaryPage(any(), any())).thenReturn(new Page<>(List.copyOf(expectedCandidates), null, null));
         ConcurrentModel model = new ConcurrentModel();
-        String view = candidateController.getAll(model);
+        String view = candidateController.getAll(model, null, null, null, null, null);
         Object actualCandidates = model.getAttribute("candidates");
         assertThat(view).isEqualTo("candidates/list");
         assertThat(actualCandidates).isEqualTo(expectedCandidates);
@@ -64,7 +68,7 @@ public class CandidateControllerTest {
     @Test
     public void whenPostCandidateWithFileAndRedirectToCandidatePage() throws IOException {
         Candidate candidate1 = new Candidate(1, "Petrov", "Descr1", now(), 1, 1);
-        FileDto fileDto = new FileDto(testFile.getOriginalFilename(), testFile.getBytes());
+        FileDto fileDto = new FileDto(testFile.getOriginalFilename(), testFile, testFile.getSize());
         ArgumentCaptor<Candidate> candidateArgumentCaptor = ArgumentCaptor.forClass(Candidate.class);
         ArgumentCaptor<FileDto> fileDtoArgumentCaptor = ArgumentCaptor.forClass(FileDto.class);
         when(candidateService.save(candidateArgumentCaptor.capture(), fileDtoArgumentCaptor.capture())).thenReturn(candidate1);
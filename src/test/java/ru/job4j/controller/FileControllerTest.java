@@ -1,26 +1,109 @@
 package ru.job4j.controller;
 
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
 import ru.job4j.dreamjob.controller.FileController;
-import ru.job4j.dreamjob.dto.FileDto;
+import ru.job4j.dreamjob.dto.FileResource;
+import ru.job4j.dreamjob.dto.ImageSize;
 import ru.job4j.dreamjob.service.FileService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
 import java.util.Optional;
+
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 public class FileControllerTest {
+    private FileService fileService;
+    private FileController fileController;
+
+    @BeforeEach
+    public void init() {
+        fileService = mock(FileService.class);
+        fileController = new FileController(fileService);
+    }
+
+    @Test
+    public void whenGetByIdThenStreamFromDisk(@TempDir Path directory) throws IOException {
+        var path = Files.write(directory.resolve("test.png"), new byte[] {1, 2, 3});
+        when(fileService.getFileById(1, ImageSize.ORIGINAL)).thenReturn(Optional.of(new FileResource("test.png", path, 3, Instant.now())));
+        var response = fileController.getById(1, null, new MockHttpServletRequest());
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.IMAGE_PNG);
+        assertThat(response.getBody()).isEqualTo(new FileSystemResource(path));
+    }
+
+    @Test
+    public void whenContainerSupportsSendfileThenNoBody(@TempDir Path directory) throws IOException {
+        var size = 1024 * 1024;
+        var path = Files.write(directory.resolve("big.pdf"), new byte[size]);
+        when(fileService.getFileById(1, ImageSize.ORIGINAL)).thenReturn(Optional.of(new FileResource("big.pdf", path, size, Instant.now())));
+        var request = new MockHttpServletRequest();
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        var response = fileController.getById(1, null, request);
+        assertThat(response.getBody()).isNull();
+        assertThat(response.getHeaders().getContentLength()).isEqualTo((long) size);
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.filename")).isEqualTo(path.toAbsolutePath().toString());
+    }
+
+    @Test
+    public void whenGetByIdThenValidatorsAndImmutableCaching(@TempDir Path directory) throws IOException {
+        var path = Files.write(directory.resolve("test.png"), new byte[] {1, 2, 3});
+        var modified = Instant.parse("2024-01-01T10:00:00.500Z");
+        when(fileService.getFileById(1, ImageSize.ORIGINAL)).thenReturn(Optional.of(new FileResource("test.png", path, 3, modified, "abc")));
+        var response = fileController.getById(1, null, new MockHttpServletRequest());
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"abc\"");
+        assertThat(response.getHeaders().getLastModified()).isEqualTo(Instant.parse("2024-01-01T10:00:00Z").toEpochMilli());
+        assertThat(response.getHeaders().getCacheControl()).contains("immutable");
+    }
+
+    @Test
+    public void whenIfNoneMatchMatchesThenNotModifiedWithoutBody(@TempDir Path directory) {
+        var path = directory.resolve("gone.png");
+        when(fileService.getFileById(1, ImageSize.ORIGINAL)).thenReturn(Optional.of(new FileResource("gone.png", path, 3, Instant.now(), "abc")));
+        var request = new MockHttpServletRequest();
+        request.addHeader("If-None-Match", "\"xyz\", W/\"abc\"");
+        var response = fileController.getById(1, null, request);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(response.getBody()).isNull();
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"abc\"");
+    }
+
+    @Test
+    public void whenIfModifiedSinceThenEtagMismatchStillWins(@TempDir Path directory) throws IOException {
+        var path = Files.write(directory.resolve("test.png"), new byte[] {1, 2, 3});
+        var modified = Instant.parse("2024-01-01T10:00:00Z");
+        when(fileService.getFileById(1, ImageSize.ORIGINAL)).thenReturn(Optional.of(new FileResource("test.png", path, 3, modified, "abc")));
+        var sinceRequest = new MockHttpServletRequest();
+        sinceRequest.addHeader("If-Modified-Since", modified.toEpochMilli());
+        assertThat(fileController.getById(1, null, sinceRequest).getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        var bothRequest = new MockHttpServletRequest();
+        bothRequest.addHeader("If-Modified-Since", modified.toEpochMilli());
+        bothRequest.addHeader("If-None-Match", "\"old\"");
+        assertThat(fileController.getById(1, null, bothRequest).getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    public void whenVariantNotReadyThenOriginalWithoutLongCaching(@TempDir Path directory) throws IOException {
+        var path = Files.write(directory.resolve("test.png"), new byte[] {1, 2, 3});
+        when(fileService.getFileById(1, ImageSize.THUMB)).thenReturn(Optional.of(new FileResource("test.png", path, 3, Instant.now())));
+        var response = fileController.getById(1, "thumb", new MockHttpServletRequest());
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getCacheControl()).isEqualTo("no-cache");
+    }
 
     @Test
-    public void whenGetById() {
-        FileService fileService = mock(FileService.class);
-        FileController fileController = new FileController(fileService);
-        FileDto fileDto = new FileDto("test", new byte[] {1, 2, 3});
-        when(fileService.getFileById(1)).thenReturn(Optional.of(fileDto));
-        ResponseEntity<?> responseExpected = new ResponseEntity<>(fileDto.getContent(), HttpStatus.OK);
-        ResponseEntity<?> actualResponse = fileController.getById(1);
-        assertThat(actualResponse).isEqualTo(responseExpected);
+    public void whenFileAbsentThenNotFound() {
+        var response = fileController.getById(1, null, new MockHttpServletRequest());
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
     }
 }
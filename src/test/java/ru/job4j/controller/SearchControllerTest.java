@@ -0,0 +1,52 @@
+package ru.job4j.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ui.ConcurrentModel;
+import ru.job4j.dreamjob.controller.SearchController;
+import ru.job4j.dreamjob.model.Candidate;
+import ru.job4j.dreamjob.model.Vacancy;
+import ru.job4j.dreamjob.service.SearchService;
+
+import java.util.List;
+
+import static java.time.LocalDateTime.now;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+public class SearchControllerTest {
+    private SearchService searchService;
+    private SearchController searchController;
+
+    @BeforeEach
+    public void init() {
+        searchService = mock(SearchService.class);
+        searchController = new SearchController(searchService);
+    }
+
+    @Test
+    public void whenSearchThenGetPageWithVacanciesAndCandidates() {
+        var vacancies = List.of(new Vacancy(1, "Java", "desc", now(), true, 1, 1));
+        var candidates = List.of(new Candidate(2, "Petrov", "Java", now(), 1, 1));
+        when(searchService.searchVacancies(anyString(), anyInt())).thenReturn(vacancies);
+        when(searchService.searchCandidates(anyString(), anyInt())).thenReturn(candidates);
+        var model = new ConcurrentModel();
+        var view = searchController.search(model, "java");
+        assertThat(view).isEqualTo("search/list");
+        assertThat(model.getAttribute("vacancies")).isEqualTo(vacancies);
+        assertThat(model.getAttribute("candidates")).isEqualTo(candidates);
+    }
+
+    @Test
+    public void whenBlankQueryThenServiceNotCalled() {
+        var model = new ConcurrentModel();
+        var view = searchController.search(model, " ");
+        assertThat(view).isEqualTo("search/list");
+        assertThat(model.getAttribute("vacancies")).isEqualTo(List.of());
+        verifyNoInteractions(searchService);
+    }
+}
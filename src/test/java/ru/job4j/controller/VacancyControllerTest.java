@@ -6,14 +6,21 @@ import org.mockito.ArgumentCaptor;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.ui.ConcurrentModel;
 import org.springframework.web.multipart.MultipartFile;
+import ru.job4j.dreamjob.concurrent.ParallelLookups;
 import ru.job4j.dreamjob.controller.VacancyController;
+import ru.job4j.dreamjob.dto.CityFacet;
 import ru.job4j.dreamjob.dto.FileDto;
+import ru.job4j.dreamjob.dto.ListFilter;
+import ru.job4j.dreamjob.dto.Page;
+import ru.job4j.dreamjob.dto.VacancySummary;
 import ru.job4j.dreamjob.model.City;
 import ru.job4j.dreamjob.model.Vacancy;
 import ru.job4j.dreamjob.service.CityService;
 import ru.job4j.dreamjob.service.VacancyService;
 
 import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
@@ -21,6 +28,7 @@ import java.util.Optional;
 import static java.time.LocalDateTime.now;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -34,21 +42,42 @@ public class VacancyControllerTest {
     public void initService() {
         vacancyService = mock(VacancyService.class);
         cityService = mock(CityService.class);
-        vacancyController = new VacancyController(vacancyService, cityService);
+        vacancyController = new VacancyController(vacancyService, cityService, ParallelLookups.direct());
         testFile = new MockMultipartFile("testFile.img", new byte[]{1, 2, 3});
     }
 
     @Test
     public void whenRequestVacancyListPageThenGetPageWithVacancies() {
-        Vacancy vacancy1 = new Vacancy(1, "test1", "desc1", now(), true, 1, 2);
-        Vacancy vacancy2 = new Vacancy(2, "test2", "desc2", now(), false, 3, 4);
-        Collection<Vacancy> expectedVacancies = List.of(vacancy1, vacancy2);
-        when(vacancyService.findAll()).thenReturn(expectedVacancies);
+        var vacancy1 = new VacancySummary(1, "test1", true, now(), "Москва", 2, "photo.png");
+        var vacancy2 = new VacancySummary(2, "test2", false, now(), "Екатеринбург", 0, null);
+        Collection<VacancySummary> expectedVacancies = List.of(vacancy1, vacancy2);
+        var expectedPage = new Page<>(List.copyOf(expectedVacancies), null, null);
+        when(vacancyService.findSummaryPage(any(), any())).thenReturn(expectedPage);
         ConcurrentModel model = new ConcurrentModel();
-        String view = vacancyController.getAll(model);
+        String view = vacancyController.getAll(model, null, null, null, null, null, null);
         Object actualVacancies = model.getAttribute("vacancies");
         assertThat(view).isEqualTo("vacancies/list");
         assertThat(actualVacancies).isEqualTo(expectedVacancies);
+        assertThat(model.getAttribute("page")).isEqualTo(expectedPage);
+    }
+
+    @Test
+    public void whenFilterVacancyListThenPassFilterAndGetCityFacets() {
+        var facets = List.of(new CityFacet(1, "Москва", 3), new CityFacet(2, "Санкт-Петербург", 0));
+        var filterCaptor = ArgumentCaptor.forClass(ListFilter.class);
+        when(vacancyService.findSummaryPage(filterCaptor.capture(), any())).thenReturn(new Page<>(List.of(), null, null));
+        when(vacancyService.countByCity(any(), anyInt())).thenReturn(facets);
+        var model = new ConcurrentModel();
+        var view = vacancyController.getAll(model, null, null, 1, true,
+                LocalDate.of(2024, 5, 1), LocalDate.of(2024, 5, 31));
+        var filter = filterCaptor.getValue();
+        assertThat(view).isEqualTo("vacancies/list");
+        assertThat(filter.getCityId()).contains(1);
+        assertThat(filter.getVisible()).contains(true);
+        assertThat(filter.getFrom()).contains(LocalDateTime.of(2024, 5, 1, 0, 0));
+        assertThat(filter.getTo()).contains(LocalDateTime.of(2024, 6, 1, 0, 0));
+        assertThat(model.getAttribute("facets")).isEqualTo(facets);
+        assertThat(model.getAttribute("cityId")).isEqualTo(1);
     }
 
     @Test
@@ -67,7 +96,7 @@ public class VacancyControllerTest {
     @Test
     public void whenPostVacancyWithFileThenSameDataAndRedirectToVacanciesPage() throws Exception {
         var vacancy = new Vacancy(1, "test1", "desc1", now(), true, 1, 2);
-        FileDto fileDto = new FileDto(testFile.getOriginalFilename(), testFile.getBytes());
+        FileDto fileDto = new FileDto(testFile.getOriginalFilename(), testFile, testFile.getSize());
         ArgumentCaptor<Vacancy> vacancyArgumentCaptor = ArgumentCaptor.forClass(Vacancy.class);
         ArgumentCaptor<FileDto> fileDtoArgumentCaptor = ArgumentCaptor.forClass(FileDto.class);
         when(vacancyService.save(vacancyArgumentCaptor.capture(), fileDtoArgumentCaptor.capture())).thenReturn(vacancy);
@@ -102,6 +131,17 @@ public class VacancyControllerTest {
         assertThat(actualVacancy).isEqualTo(vacancy1);
     }
 
+    @Test
+    public void whenCitiesLookupFailsThenEditPageIsNotRendered() {
+        Vacancy vacancy1 = new Vacancy(1, "test1", "desc1", now(), true, 1, 2);
+        when(vacancyService.findById(1)).thenReturn(Optional.of(vacancy1));
+        when(cityService.findAll()).thenThrow(new IllegalStateException("cities are unavailable"));
+        ConcurrentModel model = new ConcurrentModel();
+        String view = vacancyController.getById(model, 1);
+        assertThat(view).isEqualTo("errors/404");
+        assertThat(model.getAttribute("cities")).isNull();
+    }
+
     @Test
     public void whenUpdateThenRedirectToVacanciesPage() throws IOException {
         Vacancy vacancy1 = new Vacancy(1, "test1", "desc1", now(), true, 1, 2);
@@ -0,0 +1,54 @@
+package ru.job4j.imports;
+
+import org.junit.jupiter.api.Test;
+import ru.job4j.dreamjob.imports.CsvRowReader;
+import ru.job4j.dreamjob.imports.NdjsonRowReader;
+
+import java.io.StringReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CsvRowReaderTest {
+
+    @Test
+    public void whenQuotedFieldsThenCommasQuotesAndNewlinesKept() throws Exception {
+        var csv = "Title,Description\n"
+                + "Java,\"Spring, SQL\"\n"
+                + "\"Senior \"\"Go\"\"\",\"line one\nline two\"\n";
+        try (var reader = new CsvRowReader(new StringReader(csv))) {
+            var first = reader.next();
+            assertThat(first.getNumber()).isEqualTo(1);
+            assertThat(first.get("title")).isEqualTo("Java");
+            assertThat(first.get("description")).isEqualTo("Spring, SQL");
+            var second = reader.next();
+            assertThat(second.getNumber()).isEqualTo(2);
+            assertThat(second.get("title")).isEqualTo("Senior \"Go\"");
+            assertThat(second.get("description")).isEqualTo("line one\nline two");
+            assertThat(reader.next()).isNull();
+        }
+    }
+
+    @Test
+    public void whenWrongFieldCountThenRowMalformedAndReadingContinues() throws Exception {
+        var csv = "title,description\nJava\n\nGo,Kafka\n";
+        try (var reader = new CsvRowReader(new StringReader(csv))) {
+            assertThat(reader.next().getError()).contains("Expected 2 fields");
+            var row = reader.next();
+            assertThat(row.getNumber()).isEqualTo(2);
+            assertThat(row.get("title")).isEqualTo("Go");
+        }
+    }
+
+    @Test
+    public void whenNdjsonLineBrokenThenRowMalformedAndReadingContinues() throws Exception {
+        var ndjson = "{\"title\": \"Java\", \"visible\": false}\n{broken\n{\"title\": \"Go\"}\n";
+        try (var reader = new NdjsonRowReader(new StringReader(ndjson))) {
+            var first = reader.next();
+            assertThat(first.get("title")).isEqualTo("Java");
+            assertThat(first.get("visible")).isEqualTo("false");
+            assertThat(reader.next().getError()).startsWith("Malformed JSON");
+            assertThat(reader.next().get("title")).isEqualTo("Go");
+            assertThat(reader.next()).isNull();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package ru.job4j.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import ru.job4j.dreamjob.cache.EvictionPolicy;
+import ru.job4j.dreamjob.metrics.MethodTimingAspect;
+import ru.job4j.dreamjob.model.Vacancy;
+import ru.job4j.dreamjob.repository.CachingVacancyRepository;
+import ru.job4j.dreamjob.repository.UnitOfWork;
+import ru.job4j.dreamjob.repository.VacancyRepository;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class MethodTimingAspectTest {
+
+    private static VacancyRepository proxy(VacancyRepository target, SimpleMeterRegistry registry) {
+        var factory = new AspectJProxyFactory(target);
+        factory.addAspect(new MethodTimingAspect(registry));
+        return factory.getProxy();
+    }
+
+    @Test
+    public void whenRepositoryMethodCalledThenTimedPerClassAndMethod() {
+        var registry = new SimpleMeterRegistry();
+        var delegate = mock(VacancyRepository.class);
+        when(delegate.findById(1)).thenReturn(Optional.of(new Vacancy()));
+        var repository = proxy(new CachingVacancyRepository(delegate, UnitOfWork.none(), 10, Duration.ZERO,
+                EvictionPolicy.LRU), registry);
+        repository.findById(1);
+        repository.findById(1);
+        var timer = registry.get("dreamjob.repository")
+                .tag("class", "CachingVacancyRepository")
+                .tag("method", "findById")
+                .tag("exception", "none")
+                .timer();
+        assertThat(timer.count()).isEqualTo(2);
+    }
+
+    @Test
+    public void whenMethodThrowsThenTimedWithExceptionTag() {
+        var registry = new SimpleMeterRegistry();
+        var delegate = mock(VacancyRepository.class);
+        when(delegate.findAll()).thenThrow(new IllegalStateException("down"));
+        var repository = proxy(new CachingVacancyRepository(delegate, UnitOfWork.none(), 10, Duration.ZERO,
+                EvictionPolicy.LRU), registry);
+        assertThatThrownBy(repository::findAll).isInstanceOf(IllegalStateException.class);
+        var timer = registry.get("dreamjob.repository")
+                .tag("method", "findAll")
+                .tag("exception", "IllegalStateException")
+                .timer();
+        assertThat(timer.count()).isEqualTo(1);
+    }
+}
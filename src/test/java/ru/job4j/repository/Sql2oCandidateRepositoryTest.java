@@ -9,10 +9,16 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import ru.job4j.dreamjob.configuration.DatasourceConfiguration;
+import ru.job4j.dreamjob.dto.CandidateSummary;
+import ru.job4j.dreamjob.dto.CityFacet;
+import ru.job4j.dreamjob.dto.ListFilter;
+import ru.job4j.dreamjob.dto.PageCursor;
+import ru.job4j.dreamjob.dto.PageRequest;
 import ru.job4j.dreamjob.model.Candidate;
 import ru.job4j.dreamjob.model.File;
 import ru.job4j.dreamjob.repository.Sql2oCandidateRepository;
 import ru.job4j.dreamjob.repository.Sql2oFileRepository;
+import ru.job4j.dreamjob.repository.Sql2oUnitOfWork;
 
 import static java.time.LocalDateTime.now;
 import static java.util.Collections.emptyList;
@@ -38,8 +44,9 @@ public class Sql2oCandidateRepositoryTest {
         var datasource = configuration.connectionPool(url, username, password);
         var sql2o = configuration.databaseClient(datasource);
 
-        sql2oCandidateRepository = new Sql2oCandidateRepository(sql2o);
-        sql2oFileRepository = new Sql2oFileRepository(sql2o);
+        var unitOfWork = new Sql2oUnitOfWork(sql2o);
+        sql2oCandidateRepository = new Sql2oCandidateRepository(sql2o, unitOfWork);
+        sql2oFileRepository = new Sql2oFileRepository(unitOfWork);
 
         file = new File("test1", "test1");
         sql2oFileRepository.save(file);
@@ -118,4 +125,53 @@ public class Sql2oCandidateRepositoryTest {
         var isUpdated = sql2oCandidateRepository.update(candidate);
         assertThat(isUpdated).isFalse();
     }
+
+    @Test
+    public void whenPageThroughThenGetNewestFirst() {
+        var creationDate = now().truncatedTo(ChronoUnit.MINUTES);
+        var candidate1 = sql2oCandidateRepository.save(new Candidate(0, "name1", "description1", creationDate, 1, file.getId()));
+        var candidate2 = sql2oCandidateRepository.save(new Candidate(0, "name2", "description2", creationDate, 1, file.getId()));
+        var candidate3 = sql2oCandidateRepository.save(new Candidate(0, "name3", "description3", creationDate, 1, file.getId()));
+        var summary1 = CandidateSummary.of(candidate1, "Москва", file.getName());
+        var summary2 = CandidateSummary.of(candidate2, "Москва", file.getName());
+        var summary3 = CandidateSummary.of(candidate3, "Москва", file.getName());
+        var firstPage = sql2oCandidateRepository.findSummaryPage(ListFilter.none(), PageRequest.first(2));
+        var secondPage = sql2oCandidateRepository.findSummaryPage(ListFilter.none(),
+                PageRequest.after(PageCursor.decode(firstPage.getNextToken()).get(), 2));
+        assertThat(firstPage.getItems()).isEqualTo(List.of(summary3, summary2));
+        assertThat(secondPage.getItems()).isEqualTo(List.of(summary1));
+        assertThat(secondPage.hasNext()).isFalse();
+    }
+
+    @Test
+    public void whenSummaryPageThenGetListColumnsWithCityAndFileNames() {
+        var creationDate = now().truncatedTo(ChronoUnit.MINUTES);
+        var candidate1 = sql2oCandidateRepository.save(new Candidate(0, "name1", "description1", creationDate.minusDays(1), 1, file.getId()));
+        var candidate2 = sql2oCandidateRepository.save(new Candidate(0, "name2", "description2", creationDate, 3, file.getId()));
+        var summary1 = CandidateSummary.of(candidate1, "Москва", file.getName());
+        var summary2 = CandidateSummary.of(candidate2, "Екатеринбург", file.getName());
+        var firstPage = sql2oCandidateRepository.findSummaryPage(ListFilter.none(), PageRequest.first(1));
+        var secondPage = sql2oCandidateRepository.findSummaryPage(ListFilter.none(),
+                PageRequest.after(PageCursor.decode(firstPage.getNextToken()).get(), 1));
+        assertThat(firstPage.getItems()).isEqualTo(List.of(summary2));
+        assertThat(secondPage.getItems()).isEqualTo(List.of(summary1));
+    }
+
+    @Test
+    public void whenFilterByCityAndDateThenGetMatchesAndCityCounts() {
+        var creationDate = now().truncatedTo(ChronoUnit.MINUTES);
+        var candidate1 = sql2oCandidateRepository.save(new Candidate(0, "name1", "description1", creationDate.minusDays(10), 1, file.getId()));
+        var candidate2 = sql2oCandidateRepository.save(new Candidate(0, "name2", "description2", creationDate, 1, file.getId()));
+        sql2oCandidateRepository.save(new Candidate(0, "name3", "description3", creationDate, 3, file.getId()));
+        var filter = new ListFilter(1, null, creationDate.minusDays(1), null);
+        var page = sql2oCandidateRepository.findSummaryPage(filter, PageRequest.first(10));
+        var inCity = sql2oCandidateRepository.findSummaryPage(new ListFilter(1, null, null, null), PageRequest.first(10));
+        assertThat(page.getItems()).isEqualTo(List.of(CandidateSummary.of(candidate2, "Москва", file.getName())));
+        assertThat(inCity.getItems()).isEqualTo(List.of(
+                CandidateSummary.of(candidate2, "Москва", file.getName()),
+                CandidateSummary.of(candidate1, "Москва", file.getName())));
+        assertThat(sql2oCandidateRepository.countByCity(filter, 10)).isEqualTo(List.of(
+                new CityFacet(3, "Екатеринбург", 1),
+                new CityFacet(1, "Москва", 1)));
+    }
 }
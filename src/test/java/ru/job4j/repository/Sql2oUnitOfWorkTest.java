@@ -0,0 +1,118 @@
+package ru.job4j.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import ru.job4j.dreamjob.configuration.DatasourceConfiguration;
+import ru.job4j.dreamjob.model.File;
+import ru.job4j.dreamjob.model.Vacancy;
+import ru.job4j.dreamjob.repository.Sql2oFileRepository;
+import ru.job4j.dreamjob.repository.Sql2oUnitOfWork;
+import ru.job4j.dreamjob.repository.Sql2oVacancyRepository;
+
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import static java.time.LocalDateTime.now;
+import static java.util.Collections.emptyList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class Sql2oUnitOfWorkTest {
+    private static Sql2oUnitOfWork unitOfWork;
+    private static Sql2oVacancyRepository sql2oVacancyRepository;
+    private static Sql2oFileRepository sql2oFileRepository;
+
+    @BeforeAll
+    public static void initRepositories() throws Exception {
+        var properties = new Properties();
+        try (var inputStream = Sql2oUnitOfWorkTest.class.getClassLoader().getResourceAsStream("connection.properties")) {
+            properties.load(inputStream);
+        }
+        var configuration = new DatasourceConfiguration();
+        var datasource = configuration.connectionPool(properties.getProperty("datasource.url"),
+                properties.getProperty("datasource.username"), properties.getProperty("datasource.password"));
+        var sql2o = configuration.databaseClient(datasource);
+        unitOfWork = new Sql2oUnitOfWork(sql2o);
+        sql2oVacancyRepository = new Sql2oVacancyRepository(sql2o, unitOfWork);
+        sql2oFileRepository = new Sql2oFileRepository(unitOfWork);
+    }
+
+    @AfterEach
+    public void clear() {
+        for (var vacancy : sql2oVacancyRepository.findAll()) {
+            sql2oVacancyRepository.deleteById(vacancy.getId());
+            sql2oFileRepository.deleteById(vacancy.getFileId());
+        }
+    }
+
+    private static Vacancy vacancy(int fileId) {
+        return new Vacancy(0, "title", "description", now().truncatedTo(ChronoUnit.MINUTES), true, 1, fileId);
+    }
+
+    @Test
+    public void whenCommittedThenFileAndVacancySavedAndCommitHooksRun() {
+        var events = new ArrayList<String>();
+        var vacancy = unitOfWork.execute(() -> {
+            var file = sql2oFileRepository.save(new File("name", "path"));
+            unitOfWork.afterCommit(() -> events.add("commit"));
+            unitOfWork.afterRollback(() -> events.add("rollback"));
+            return sql2oVacancyRepository.save(vacancy(file.getId()));
+        });
+        assertThat(sql2oVacancyRepository.findById(vacancy.getId())).isPresent();
+        assertThat(sql2oFileRepository.findById(vacancy.getFileId())).isPresent();
+        assertThat(events).isEqualTo(List.of("commit"));
+    }
+
+    @Test
+    public void whenWorkFailsThenEverythingRolledBackAndRollbackHooksRun() {
+        var events = new ArrayList<String>();
+        var fileIds = new ArrayList<Integer>();
+        assertThatThrownBy(() -> unitOfWork.execute(() -> {
+            var file = sql2oFileRepository.save(new File("name", "path"));
+            fileIds.add(file.getId());
+            unitOfWork.afterCommit(() -> events.add("commit"));
+            unitOfWork.afterRollback(() -> events.add("rollback"));
+            sql2oVacancyRepository.save(vacancy(file.getId()));
+            throw new IllegalStateException("fail");
+        })).isInstanceOf(IllegalStateException.class);
+        assertThat(sql2oVacancyRepository.findAll()).isEqualTo(emptyList());
+        assertThat(sql2oFileRepository.findById(fileIds.get(0))).isEmpty();
+        assertThat(events).isEqualTo(List.of("rollback"));
+    }
+
+    @Test
+    public void whenNestedThenInnerIsRolledBackWithOuter() {
+        var fileIds = new ArrayList<Integer>();
+        assertThatThrownBy(() -> unitOfWork.execute(() -> {
+            var file = unitOfWork.execute(() -> sql2oFileRepository.save(new File("name", "path")));
+            fileIds.add(file.getId());
+            throw new IllegalStateException("fail");
+        })).isInstanceOf(IllegalStateException.class);
+        assertThat(sql2oFileRepository.findById(fileIds.get(0))).isEmpty();
+    }
+
+    @Test
+    public void whenNestedThenCommitHooksWaitForOuterCommit() {
+        var events = new ArrayList<String>();
+        unitOfWork.execute(() -> {
+            unitOfWork.execute(() -> {
+                unitOfWork.afterCommit(() -> events.add("inner"));
+                return null;
+            });
+            events.add("outer");
+            return null;
+        });
+        assertThat(events).isEqualTo(List.of("outer", "inner"));
+    }
+
+    @Test
+    public void whenNoTransactionThenCommitHookRunsImmediately() {
+        var events = new ArrayList<String>();
+        unitOfWork.afterCommit(() -> events.add("commit"));
+        unitOfWork.afterRollback(() -> events.add("rollback"));
+        assertThat(events).isEqualTo(List.of("commit"));
+    }
+}
@@ -5,9 +5,16 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import ru.job4j.dreamjob.configuration.DatasourceConfiguration;
+import ru.job4j.dreamjob.dto.CityFacet;
+import ru.job4j.dreamjob.dto.ListFilter;
+import ru.job4j.dreamjob.dto.PageCursor;
+import ru.job4j.dreamjob.dto.PageRequest;
+import ru.job4j.dreamjob.dto.SearchCursor;
+import ru.job4j.dreamjob.dto.VacancySummary;
 import ru.job4j.dreamjob.model.File;
 import ru.job4j.dreamjob.model.Vacancy;
 import ru.job4j.dreamjob.repository.Sql2oFileRepository;
+import ru.job4j.dreamjob.repository.Sql2oUnitOfWork;
 import ru.job4j.dreamjob.repository.Sql2oVacancyRepository;
 
 import java.time.temporal.ChronoUnit;
@@ -38,8 +45,9 @@ public class Sql2oVacancyRepositoryTest {
         var datasource = configuration.connectionPool(url, username, password);
         var sql2o = configuration.databaseClient(datasource);
 
-        sql2oVacancyRepository = new Sql2oVacancyRepository(sql2o);
-        sql2oFileRepository = new Sql2oFileRepository(sql2o);
+        var unitOfWork = new Sql2oUnitOfWork(sql2o);
+        sql2oVacancyRepository = new Sql2oVacancyRepository(sql2o, unitOfWork);
+        sql2oFileRepository = new Sql2oFileRepository(unitOfWork);
 
         file = new File("test2", "test2");
         sql2oFileRepository.save(file);
@@ -118,4 +126,101 @@ public class Sql2oVacancyRepositoryTest {
         var isUpdated = sql2oVacancyRepository.update(vacancy);
         assertThat(isUpdated).isFalse();
     }
+
+    @Test
+    public void whenPageThroughThenGetNewestFirstAndCanGoBack() {
+        var creationDate = now().truncatedTo(ChronoUnit.MINUTES);
+        var vacancy1 = sql2oVacancyRepository.save(new Vacancy(0, "title1", "description1", creationDate.minusDays(1), true, 1, file.getId()));
+        var vacancy2 = sql2oVacancyRepository.save(new Vacancy(0, "title2", "description2", creationDate, true, 1, file.getId()));
+        var vacancy3 = sql2oVacancyRepository.save(new Vacancy(0, "title3", "description3", creationDate, true, 1, file.getId()));
+        var summary1 = VacancySummary.of(vacancy1, "Москва", file.getName());
+        var summary2 = VacancySummary.of(vacancy2, "Москва", file.getName());
+        var summary3 = VacancySummary.of(vacancy3, "Москва", file.getName());
+        var firstPage = sql2oVacancyRepository.findSummaryPage(ListFilter.none(), PageRequest.first(2));
+        var secondPage = sql2oVacancyRepository.findSummaryPage(ListFilter.none(),
+                PageRequest.after(PageCursor.decode(firstPage.getNextToken()).get(), 2));
+        var backPage = sql2oVacancyRepository.findSummaryPage(ListFilter.none(),
+                PageRequest.before(PageCursor.decode(secondPage.getPrevToken()).get(), 2));
+        assertThat(firstPage.getItems()).isEqualTo(List.of(summary3, summary2));
+        assertThat(firstPage.getPrevToken()).isNull();
+        assertThat(secondPage.getItems()).isEqualTo(List.of(summary1));
+        assertThat(secondPage.getNextToken()).isNull();
+        assertThat(backPage.getItems()).isEqualTo(List.of(summary3, summary2));
+        assertThat(backPage.getPrevToken()).isNull();
+    }
+
+    @Test
+    public void whenSummaryPageThenGetListColumnsWithCityAndFileNames() {
+        var creationDate = now().truncatedTo(ChronoUnit.MINUTES);
+        var vacancy1 = sql2oVacancyRepository.save(new Vacancy(0, "title1", "description1", creationDate.minusDays(1), false, 1, file.getId()));
+        var vacancy2 = sql2oVacancyRepository.save(new Vacancy(0, "title2", "description2", creationDate, true, 2, file.getId()));
+        var summary1 = VacancySummary.of(vacancy1, "Москва", file.getName());
+        var summary2 = VacancySummary.of(vacancy2, "Санкт-Петербург", file.getName());
+        var firstPage = sql2oVacancyRepository.findSummaryPage(ListFilter.none(), PageRequest.first(1));
+        var secondPage = sql2oVacancyRepository.findSummaryPage(ListFilter.none(),
+                PageRequest.after(PageCursor.decode(firstPage.getNextToken()).get(), 1));
+        assertThat(firstPage.getItems()).isEqualTo(List.of(summary2));
+        assertThat(secondPage.getItems()).isEqualTo(List.of(summary1));
+        assertThat(secondPage.hasNext()).isFalse();
+    }
+
+    @Test
+    public void whenFilterByCityVisibilityAndDateThenPageOnlyMatches() {
+        var creationDate = now().truncatedTo(ChronoUnit.MINUTES);
+        var vacancy1 = sql2oVacancyRepository.save(new Vacancy(0, "title1", "description1", creationDate.minusDays(10), true, 1, file.getId()));
+        sql2oVacancyRepository.save(new Vacancy(0, "title2", "description2", creationDate, false, 1, file.getId()));
+        var vacancy3 = sql2oVacancyRepository.save(new Vacancy(0, "title3", "description3", creationDate, true, 2, file.getId()));
+        var visible = new ListFilter(null, true, null, null);
+        var firstPage = sql2oVacancyRepository.findSummaryPage(visible, PageRequest.first(1));
+        var secondPage = sql2oVacancyRepository.findSummaryPage(visible,
+                PageRequest.after(PageCursor.decode(firstPage.getNextToken()).get(), 1));
+        var inCity = sql2oVacancyRepository.findSummaryPage(new ListFilter(1, true, null, null), PageRequest.first(10));
+        var recent = sql2oVacancyRepository.findSummaryPage(
+                new ListFilter(null, true, creationDate.minusDays(1), creationDate.plusDays(1)), PageRequest.first(10));
+        assertThat(firstPage.getItems()).isEqualTo(List.of(VacancySummary.of(vacancy3, "Санкт-Петербург", file.getName())));
+        assertThat(secondPage.getItems()).isEqualTo(List.of(VacancySummary.of(vacancy1, "Москва", file.getName())));
+        assertThat(secondPage.hasNext()).isFalse();
+        assertThat(inCity.getItems()).isEqualTo(List.of(VacancySummary.of(vacancy1, "Москва", file.getName())));
+        assertThat(recent.getItems()).isEqualTo(List.of(VacancySummary.of(vacancy3, "Санкт-Петербург", file.getName())));
+    }
+
+    @Test
+    public void whenCountByCityThenIgnoreSelectedCityAndSkipEmptyCities() {
+        var creationDate = now().truncatedTo(ChronoUnit.MINUTES);
+        sql2oVacancyRepository.save(new Vacancy(0, "title1", "description1", creationDate, true, 1, file.getId()));
+        sql2oVacancyRepository.save(new Vacancy(0, "title2", "description2", creationDate, false, 1, file.getId()));
+        sql2oVacancyRepository.save(new Vacancy(0, "title3", "description3", creationDate, true, 2, file.getId()));
+        sql2oVacancyRepository.save(new Vacancy(0, "title4", "description4", creationDate, true, 2, file.getId()));
+        var facets = sql2oVacancyRepository.countByCity(new ListFilter(1, true, null, null), 10);
+        assertThat(facets).isEqualTo(List.of(
+                new CityFacet(2, "Санкт-Петербург", 2),
+                new CityFacet(1, "Москва", 1)));
+    }
+
+    @Test
+    public void whenCountByCityOverLimitThenTopCitiesAndSelectedCityEvenIfEmpty() {
+        var creationDate = now().truncatedTo(ChronoUnit.MINUTES);
+        sql2oVacancyRepository.save(new Vacancy(0, "title1", "description1", creationDate, true, 1, file.getId()));
+        sql2oVacancyRepository.save(new Vacancy(0, "title2", "description2", creationDate, true, 2, file.getId()));
+        sql2oVacancyRepository.save(new Vacancy(0, "title3", "description3", creationDate, true, 2, file.getId()));
+        var topOnly = sql2oVacancyRepository.countByCity(new ListFilter(null, true, null, null), 1);
+        var withSelected = sql2oVacancyRepository.countByCity(new ListFilter(3, true, null, null), 1);
+        assertThat(topOnly).isEqualTo(List.of(new CityFacet(2, "Санкт-Петербург", 2)));
+        assertThat(withSelected).isEqualTo(List.of(
+                new CityFacet(2, "Санкт-Петербург", 2),
+                new CityFacet(3, "Екатеринбург", 0)));
+    }
+
+    @Test
+    public void whenSearchThenTitleMatchesFirstAndCursorContinues() {
+        var creationDate = now().truncatedTo(ChronoUnit.MINUTES);
+        var inDescription = sql2oVacancyRepository.save(new Vacancy(0, "Developer", "we use Java", creationDate, true, 1, file.getId()));
+        var inTitle = sql2oVacancyRepository.save(new Vacancy(0, "Java Developer", "backend", creationDate, true, 1, file.getId()));
+        sql2oVacancyRepository.save(new Vacancy(0, "Python Developer", "backend", creationDate, true, 1, file.getId()));
+        var firstPage = sql2oVacancyRepository.search("java", null, 1);
+        var secondPage = sql2oVacancyRepository.search("java", SearchCursor.decode(firstPage.getNextToken()).get(), 1);
+        assertThat(firstPage.getItems()).isEqualTo(List.of(inTitle));
+        assertThat(secondPage.getItems()).isEqualTo(List.of(inDescription));
+        assertThat(secondPage.hasNext()).isFalse();
+    }
 }
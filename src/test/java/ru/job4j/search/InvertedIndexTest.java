@@ -0,0 +1,89 @@
+package ru.job4j.search;
+
+import org.junit.jupiter.api.Test;
+import ru.job4j.dreamjob.search.InvertedIndex;
+import ru.job4j.dreamjob.search.SearchHit;
+import ru.job4j.dreamjob.search.Tokenizer;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class InvertedIndexTest {
+
+    @Test
+    public void whenTokenizeThenLowerCaseWithoutStopWordsAndYo() {
+        assertThat(Tokenizer.tokenize("Ещё Java-разработчик и Senior, в Москве!"))
+                .containsExactly("еще", "java", "разработчик", "senior", "москве");
+    }
+
+    @Test
+    public void whenSearchThenRareTermRanksHigher() {
+        var index = new InvertedIndex();
+        index.add(1, Tokenizer.tokenize("java developer"));
+        index.add(2, Tokenizer.tokenize("java kotlin developer"));
+        index.add(3, Tokenizer.tokenize("python developer"));
+        var hits = index.search(Tokenizer.tokenize("kotlin developer"), 10);
+        assertThat(hits.get(0).getId()).isEqualTo(2);
+        assertThat(ids(hits)).containsExactlyInAnyOrder(1, 2, 3);
+    }
+
+    @Test
+    public void whenUpdateOrRemoveThenOldTermsGone() {
+        var index = new InvertedIndex();
+        index.add(1, Tokenizer.tokenize("java developer"));
+        index.add(1, Tokenizer.tokenize("go developer"));
+        index.add(2, Tokenizer.tokenize("java tester"));
+        index.remove(2);
+        assertThat(index.search(Tokenizer.tokenize("java"), 10)).isEmpty();
+        assertThat(ids(index.search(Tokenizer.tokenize("go"), 10))).containsExactly(1);
+    }
+
+    @Test
+    public void whenChangedDuringLoadThenSnapshotDoesNotOverwrite() {
+        var index = new InvertedIndex();
+        index.beginLoad();
+        index.add(1, Tokenizer.tokenize("fresh title"));
+        index.remove(2);
+        index.load(Map.of(
+                1, Tokenizer.tokenize("stale title"),
+                2, Tokenizer.tokenize("deleted title"),
+                3, Tokenizer.tokenize("other title")));
+        assertThat(ids(index.search(Tokenizer.tokenize("title"), 10))).containsExactlyInAnyOrder(1, 3);
+        assertThat(index.search(Tokenizer.tokenize("stale"), 10)).isEmpty();
+    }
+
+    @Test
+    public void whenLimitBelowMatchesThenBestFirstAndTiesById() {
+        var index = new InvertedIndex();
+        index.add(5, Tokenizer.tokenize("java developer"));
+        index.add(3, Tokenizer.tokenize("java developer"));
+        index.add(9, Tokenizer.tokenize("java java developer"));
+        index.add(1, Tokenizer.tokenize("python developer"));
+        index.remove(1);
+        index.add(7, Tokenizer.tokenize("java developer"));
+        assertThat(ids(index.search(Tokenizer.tokenize("java"), 3))).containsExactly(9, 3, 5);
+        assertThat(index.search(Tokenizer.tokenize("python"), 3)).isEmpty();
+    }
+
+    @Test
+    public void whenMostDocumentsRemovedThenRestStillFoundAndReAddWorks() {
+        var index = new InvertedIndex();
+        for (int id = 1; id <= 10; id++) {
+            index.add(id, Tokenizer.tokenize("java developer"));
+        }
+        for (int id = 1; id <= 8; id++) {
+            index.remove(id);
+        }
+        assertThat(ids(index.search(Tokenizer.tokenize("java"), 10))).containsExactly(9, 10);
+        index.add(4, Tokenizer.tokenize("java"));
+        assertThat(ids(index.search(Tokenizer.tokenize("java"), 10))).containsExactlyInAnyOrder(4, 9, 10);
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    private static List<Integer> ids(List<SearchHit> hits) {
+        return hits.stream().map(SearchHit::getId).collect(Collectors.toList());
+    }
+}
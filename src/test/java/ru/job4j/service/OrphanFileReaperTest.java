@@ -0,0 +1,137 @@
+package ru.job4j.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.job4j.dreamjob.dto.FileDto;
+import ru.job4j.dreamjob.dto.FileUsage;
+import ru.job4j.dreamjob.repository.FileRepository;
+import ru.job4j.dreamjob.repository.UnitOfWork;
+import ru.job4j.dreamjob.service.ImageVariantService;
+import ru.job4j.dreamjob.service.OrphanFileReaper;
+import ru.job4j.dreamjob.service.SimpleFileService;
+import ru.job4j.dreamjob.storage.LocalFileStorage;
+import ru.job4j.dreamjob.storage.StorageKeys;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HexFormat;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class OrphanFileReaperTest {
+    private static final Instant NOW = Instant.parse("2024-06-01T03:30:00Z");
+    private static final Instant OLD = NOW.minus(Duration.ofDays(2));
+
+    private final Clock clock = Clock.fixed(NOW, ZoneOffset.UTC);
+    private FileRepository fileRepository;
+    private LocalFileStorage storage;
+    private SimpleFileService fileService;
+    private Path directory;
+
+    @BeforeEach
+    public void init(@TempDir Path directory) {
+        this.directory = directory;
+        fileRepository = mock(FileRepository.class);
+        when(fileRepository.findUsages(anyString())).thenReturn(List.of());
+        storage = new LocalFileStorage(directory.toString());
+        fileService = new SimpleFileService(fileRepository, storage, mock(ImageVariantService.class),
+                UnitOfWork.none(), directory.resolve("uploads").toString(), true, 10);
+    }
+
+    private String blob(char fill, Instant modified) throws IOException {
+        var key = StorageKeys.of(String.valueOf(fill).repeat(64));
+        var path = storage.resolve(key);
+        Files.createDirectories(path.getParent());
+        Files.write(path, new byte[] {1, 2, 3});
+        Files.setLastModifiedTime(path, FileTime.from(modified));
+        return key;
+    }
+
+    private OrphanFileReaper reaper(boolean dryRun) {
+        return new OrphanFileReaper(fileRepository, storage, fileService, dryRun, Duration.ofHours(24), 10,
+                Duration.ZERO, clock);
+    }
+
+    @Test
+    public void whenUntrackedBlobOlderThanGraceThenDeleted() throws IOException {
+        var old = blob('a', OLD);
+        var fresh = blob('b', NOW.minusSeconds(60));
+        var report = reaper(false).reconcile();
+        assertThat(storage.resolve(old)).doesNotExist();
+        assertThat(storage.resolve(fresh)).exists();
+        assertThat(report.getUntrackedBlobs()).isEqualTo(1);
+        assertThat(report.getDeletedBlobs()).isEqualTo(1);
+        assertThat(report.getReclaimedBytes()).isEqualTo(3);
+    }
+
+    @Test
+    public void whenDryRunThenNothingDeleted() throws IOException {
+        var old = blob('a', OLD);
+        var report = reaper(true).reconcile();
+        assertThat(storage.resolve(old)).exists();
+        assertThat(report.getUntrackedBlobs()).isEqualTo(1);
+        assertThat(report.getDeletedBlobs()).isZero();
+    }
+
+    @Test
+    public void whenRowUnreferencedThenRowAndBlobDeleted() throws IOException {
+        var key = blob('c', OLD);
+        var created = LocalDateTime.ofInstant(OLD, ZoneOffset.UTC);
+        when(fileRepository.findUsages("cc/")).thenReturn(List.of(new FileUsage(7, key, "c".repeat(64), 1, 0, created)));
+        when(fileRepository.deleteOrphan(eq(7), eq(1), any())).thenReturn(true);
+        var report = reaper(false).reconcile();
+        assertThat(storage.resolve(key)).doesNotExist();
+        assertThat(report.getOrphanRows()).isEqualTo(1);
+        assertThat(report.getDeletedRows()).isEqualTo(1);
+    }
+
+    @Test
+    public void whenRowReferencedThenKept() throws IOException {
+        var key = blob('d', OLD);
+        var created = LocalDateTime.ofInstant(OLD, ZoneOffset.UTC);
+        when(fileRepository.findUsages("dd/")).thenReturn(List.of(new FileUsage(8, key, "d".repeat(64), 2, 1, created)));
+        var report = reaper(false).reconcile();
+        assertThat(storage.resolve(key)).exists();
+        assertThat(report.getRefCountDrift()).isEqualTo(1);
+        verify(fileRepository, never()).deleteOrphan(anyInt(), anyInt(), any());
+    }
+
+    @Test
+    public void whenOrphanRowContentStagedByUploadThenBlobKept() throws Exception {
+        var content = new byte[] {4, 5, 6};
+        var hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        var key = StorageKeys.of(hash);
+        var path = storage.resolve(key);
+        Files.createDirectories(path.getParent());
+        Files.write(path, content);
+        Files.setLastModifiedTime(path, FileTime.from(OLD));
+        var created = LocalDateTime.ofInstant(OLD, ZoneOffset.UTC);
+        when(fileRepository.findUsages(hash.substring(0, 2) + "/"))
+                .thenReturn(List.of(new FileUsage(9, key, hash, 1, 0, created)));
+        when(fileRepository.deleteOrphan(eq(9), eq(1), any())).thenReturn(true);
+        var staged = fileService.stage(new FileDto("photo.png", content));
+        var report = reaper(false).reconcile();
+        assertThat(storage.resolve(key)).exists();
+        assertThat(report.getDeletedRows()).isEqualTo(1);
+        assertThat(report.getDeletedBlobs()).isZero();
+        fileService.discard(staged);
+    }
+}
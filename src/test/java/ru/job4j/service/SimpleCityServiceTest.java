@@ -0,0 +1,92 @@
+package ru.job4j.service;
+
+import org.junit.jupiter.api.Test;
+import ru.job4j.dreamjob.model.City;
+import ru.job4j.dreamjob.repository.CityRepository;
+import ru.job4j.dreamjob.service.SimpleCityService;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class SimpleCityServiceTest {
+
+    @Test
+    public void whenReadSeveralTimesThenRepositoryQueriedOnce() {
+        var cityRepository = mock(CityRepository.class);
+        var moscow = new City(1, "Москва");
+        var spb = new City(2, "Санкт-Петербург");
+        when(cityRepository.findAll()).thenReturn(List.of(moscow, spb));
+        var cityService = new SimpleCityService(cityRepository);
+        assertThat(cityService.findAll()).containsExactly(moscow, spb);
+        assertThat(cityService.findById(2)).isEqualTo(Optional.of(spb));
+        assertThat(cityService.findById(5)).isEmpty();
+        verify(cityRepository, times(1)).findAll();
+        assertThat(cityService.getStats().getMisses()).isEqualTo(2);
+        assertThat(cityService.getStats().getHits()).isEqualTo(1);
+    }
+
+    @Test
+    public void whenUnknownIdOnLoadedCatalogueThenOnlyOneMiss() {
+        var cityRepository = mock(CityRepository.class);
+        when(cityRepository.findAll()).thenReturn(List.of(new City(1, "Москва")));
+        var cityService = new SimpleCityService(cityRepository);
+        cityService.refresh();
+        assertThat(cityService.findById(7)).isEmpty();
+        assertThat(cityService.getStats().getMisses()).isEqualTo(1);
+        assertThat(cityService.getStats().getHits()).isZero();
+    }
+
+    @Test
+    public void whenIdsSparseThenCitiesStillFound() {
+        var cityRepository = mock(CityRepository.class);
+        var moscow = new City(1, "Москва");
+        var remote = new City(Integer.MAX_VALUE, "Анадырь");
+        when(cityRepository.findAll()).thenReturn(List.of(moscow, remote));
+        var cityService = new SimpleCityService(cityRepository);
+        assertThat(cityService.findById(Integer.MAX_VALUE)).contains(remote);
+        assertThat(cityService.findById(1)).contains(moscow);
+        assertThat(cityService.findById(2)).isEmpty();
+    }
+
+    @Test
+    public void whenRefreshThenReloaded() {
+        var cityRepository = mock(CityRepository.class);
+        var moscow = new City(1, "Москва");
+        var kazan = new City(2, "Казань");
+        when(cityRepository.findAll()).thenReturn(List.of(moscow)).thenReturn(List.of(moscow, kazan));
+        var cityService = new SimpleCityService(cityRepository);
+        assertThat(cityService.findAll()).containsExactly(moscow);
+        cityService.refresh();
+        assertThat(cityService.findAll()).containsExactly(moscow, kazan);
+        verify(cityRepository, times(2)).findAll();
+    }
+
+    @Test
+    public void whenSlowRefreshFinishesLastThenNewerSnapshotKept() throws Exception {
+        var cityRepository = mock(CityRepository.class);
+        var stale = List.of(new City(1, "Москва"));
+        var fresh = List.of(new City(1, "Москва"), new City(2, "Казань"));
+        var refreshReading = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        when(cityRepository.findAll()).thenAnswer(invocation -> {
+            refreshReading.countDown();
+            release.await();
+            return stale;
+        }).thenReturn(fresh);
+        var cityService = new SimpleCityService(cityRepository);
+        var refresh = new Thread(cityService::refresh);
+        refresh.start();
+        refreshReading.await();
+        assertThat(cityService.findAll()).containsExactlyElementsOf(fresh);
+        release.countDown();
+        refresh.join();
+        assertThat(cityService.findAll()).containsExactlyElementsOf(fresh);
+    }
+}
@@ -0,0 +1,129 @@
+package ru.job4j.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import ru.job4j.dreamjob.configuration.DatasourceConfiguration;
+import ru.job4j.dreamjob.exports.ExportFormat;
+import ru.job4j.dreamjob.imports.CsvRowReader;
+import ru.job4j.dreamjob.model.Vacancy;
+import ru.job4j.dreamjob.repository.Sql2oExportRepository;
+import ru.job4j.dreamjob.repository.Sql2oUnitOfWork;
+import ru.job4j.dreamjob.repository.Sql2oVacancyRepository;
+import ru.job4j.dreamjob.service.SimpleExportService;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Properties;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SimpleExportServiceTest {
+    private static Properties properties;
+    private static Sql2oVacancyRepository vacancyRepository;
+    private static SimpleExportService exportService;
+
+    @BeforeAll
+    public static void initService() throws Exception {
+        properties = new Properties();
+        try (var inputStream = SimpleExportServiceTest.class.getClassLoader().getResourceAsStream("connection.properties")) {
+            properties.load(inputStream);
+        }
+        var configuration = new DatasourceConfiguration();
+        var dataSource = configuration.connectionPool(properties.getProperty("datasource.url"),
+                properties.getProperty("datasource.username"), properties.getProperty("datasource.password"));
+        var sql2o = configuration.databaseClient(dataSource);
+        vacancyRepository = new Sql2oVacancyRepository(sql2o, new Sql2oUnitOfWork(sql2o));
+        exportService = new SimpleExportService(new Sql2oExportRepository(configuration.exportDatabaseClient(
+                properties.getProperty("datasource.url"), properties.getProperty("datasource.username"),
+                properties.getProperty("datasource.password")), 1000));
+    }
+
+    @AfterEach
+    public void clearVacancies() {
+        for (var vacancy : vacancyRepository.findAll()) {
+            vacancyRepository.deleteById(vacancy.getId());
+        }
+    }
+
+    @Test
+    public void whenExportRangeAsGzipCsvThenOnlyRangeWrittenAndReadableByImport() throws Exception {
+        var day = LocalDateTime.of(2024, 5, 1, 0, 0);
+        vacancyRepository.save(new Vacancy(0, "before", "desc", day.minusHours(1), true, 1, 0));
+        vacancyRepository.save(new Vacancy(0, "Senior \"Java\"", "Spring, SQL\nPostgreSQL", day.plusHours(1), true, 1, 0));
+        vacancyRepository.save(new Vacancy(0, "inside", "desc", day.plusHours(2), false, 2, 0));
+        vacancyRepository.save(new Vacancy(0, "after", "desc", day.plusDays(1), true, 1, 0));
+        var output = new ByteArrayOutputStream();
+
+        var count = exportService.exportVacancies(ExportFormat.CSV, day, day.plusDays(1), new GZIPOutputStream(output));
+
+        assertThat(count).isEqualTo(2);
+        var titles = new ArrayList<String>();
+        try (var reader = new CsvRowReader(new InputStreamReader(
+                new GZIPInputStream(new ByteArrayInputStream(output.toByteArray())), StandardCharsets.UTF_8))) {
+            var first = reader.next();
+            assertThat(first.get("description")).isEqualTo("Spring, SQL\nPostgreSQL");
+            assertThat(first.get("file_id")).isNull();
+            titles.add(first.get("title"));
+            titles.add(reader.next().get("title"));
+            assertThat(reader.next()).isNull();
+        }
+        assertThat(titles).containsExactly("Senior \"Java\"", "inside");
+    }
+
+    @Test
+    public void whenExportNdjsonWithoutRangeThenLinePerRow() {
+        vacancyRepository.save(new Vacancy(0, "first", "desc", LocalDateTime.now(), true, 1, 0));
+        vacancyRepository.save(new Vacancy(0, "second", "desc", LocalDateTime.now(), true, 1, 0));
+        var output = new ByteArrayOutputStream();
+
+        exportService.exportVacancies(ExportFormat.NDJSON, null, null, output);
+
+        var lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).contains("\"title\":\"first\"").contains("\"file_id\":null");
+    }
+
+    @Test
+    public void whenExportOutlivesAbandonTimeoutThenPoolDoesNotCutItShort() throws Exception {
+        var configuration = new DatasourceConfiguration();
+        try (var pool = configuration.connectionPool(properties.getProperty("datasource.url"),
+                properties.getProperty("datasource.username"), properties.getProperty("datasource.password"))) {
+            pool.setRemoveAbandonedOnMaintenance(true);
+            pool.setRemoveAbandonedTimeout(1);
+            pool.setTimeBetweenEvictionRunsMillis(100);
+            var pooledSql2o = configuration.databaseClient(pool);
+            var pooledVacancies = new Sql2oVacancyRepository(pooledSql2o, new Sql2oUnitOfWork(pooledSql2o));
+            pooledVacancies.save(new Vacancy(0, "slow", "desc", LocalDateTime.now(), true, 1, 0));
+            pooledVacancies.save(new Vacancy(0, "next", "desc", LocalDateTime.now(), true, 1, 0));
+            var exportRepository = new Sql2oExportRepository(configuration.exportDatabaseClient(
+                    properties.getProperty("datasource.url"), properties.getProperty("datasource.username"),
+                    properties.getProperty("datasource.password")), 1);
+            var titles = new ArrayList<String>();
+            var pooledInUse = new ArrayList<Integer>();
+
+            var count = exportRepository.forEachVacancy(null, null, vacancy -> {
+                titles.add(vacancy.getTitle());
+                pooledInUse.add(pool.getNumActive());
+                if (titles.size() == 1) {
+                    /* дольше removeAbandonedTimeout, и эвиктор успевает пройти несколько раз */
+                    try {
+                        Thread.sleep(1300);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+
+            assertThat(count).isEqualTo(2);
+            assertThat(titles).containsExactly("slow", "next");
+            assertThat(pooledInUse).containsOnly(0);
+        }
+    }
+}
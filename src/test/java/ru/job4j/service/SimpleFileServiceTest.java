@@ -0,0 +1,120 @@
+package ru.job4j.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ByteArrayResource;
+import ru.job4j.dreamjob.dto.FileDto;
+import ru.job4j.dreamjob.repository.MemoryFileRepository;
+import ru.job4j.dreamjob.repository.UnitOfWork;
+import ru.job4j.dreamjob.service.SimpleFileService;
+import ru.job4j.dreamjob.service.SimpleImageVariantService;
+import ru.job4j.dreamjob.storage.LocalFileStorage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SimpleFileServiceTest {
+
+    private static SimpleFileService fileService(Path directory, boolean deduplicate) {
+        var storage = new LocalFileStorage(directory.toString());
+        var variants = new SimpleImageVariantService(storage, directory, Runnable::run);
+        return new SimpleFileService(new MemoryFileRepository(), storage, variants, UnitOfWork.none(),
+                directory.toString(), deduplicate, 100);
+    }
+
+    private static List<Path> storedFiles(Path directory) throws IOException {
+        try (var files = Files.walk(directory)) {
+            return files.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    public void whenSaveThenContentOnDiskAndNoTemporaryFilesLeft(@TempDir Path directory) throws IOException {
+        var fileService = fileService(directory, true);
+        var file = fileService.save(new FileDto("logo.png", new byte[] {1, 2, 3}));
+        assertThat(Files.readAllBytes(directory.resolve(file.getPath()))).containsExactly(1, 2, 3);
+        assertThat(storedFiles(directory)).containsExactly(directory.resolve(file.getPath()));
+        assertThat(file.getPath()).matches("[0-9a-f]{2}/[0-9a-f]{2}/[0-9a-f]{64}");
+    }
+
+    @Test
+    public void whenUploadShorterThanDeclaredThenNothingStored(@TempDir Path directory) throws IOException {
+        var fileService = fileService(directory, true);
+        var truncated = new FileDto("logo.png", new ByteArrayResource(new byte[] {1, 2}), 3);
+        assertThatThrownBy(() -> fileService.save(truncated)).hasMessageContaining("incomplete");
+        assertThat(storedFiles(directory)).isEmpty();
+    }
+
+    @Test
+    public void whenSameContentSavedTwiceThenOneBlobUntilLastDelete(@TempDir Path directory) throws IOException {
+        var fileService = fileService(directory, true);
+        var first = fileService.save(new FileDto("logo.png", new byte[] {1, 2, 3}));
+        var second = fileService.save(new FileDto("copy.png", new byte[] {1, 2, 3}));
+        assertThat(second.getId()).isEqualTo(first.getId());
+        assertThat(storedFiles(directory)).containsExactly(directory.resolve(first.getPath()));
+        fileService.deleteById(first.getId());
+        assertThat(fileService.getFileById(first.getId())).isPresent();
+        fileService.deleteById(second.getId());
+        assertThat(fileService.getFileById(first.getId())).isEmpty();
+        assertThat(storedFiles(directory)).isEmpty();
+    }
+
+    @Test
+    public void whenDeduplicationDisabledThenEveryUploadGetsOwnFile(@TempDir Path directory) throws IOException {
+        var fileService = fileService(directory, false);
+        var first = fileService.save(new FileDto("logo.png", new byte[] {1, 2, 3}));
+        var second = fileService.save(new FileDto("logo.png", new byte[] {1, 2, 3}));
+        assertThat(second.getId()).isNotEqualTo(first.getId());
+        assertThat(storedFiles(directory)).hasSize(2);
+    }
+
+    @Test
+    public void whenLastReferenceDeletedWhileSameContentStagedThenBlobKept(@TempDir Path directory) throws IOException {
+        var fileService = fileService(directory, true);
+        var first = fileService.save(new FileDto("logo.png", new byte[] {1, 2, 3}));
+        var staged = fileService.stage(new FileDto("copy.png", new byte[] {1, 2, 3}));
+        fileService.deleteById(first.getId());
+        var second = fileService.register(staged);
+        fileService.discard(staged);
+        assertThat(Files.readAllBytes(directory.resolve(second.getPath()))).containsExactly(1, 2, 3);
+        assertThat(storedFiles(directory)).containsExactly(directory.resolve(second.getPath()));
+    }
+
+    @Test
+    public void whenRegistrationRolledBackThenStagedBlobDeleted(@TempDir Path directory) throws IOException {
+        var rollbackHooks = new ArrayList<Runnable>();
+        var unitOfWork = new UnitOfWork() {
+            @Override
+            public <T> T execute(Supplier<T> work) {
+                return work.get();
+            }
+
+            @Override
+            public void afterCommit(Runnable action) {
+            }
+
+            @Override
+            public void afterRollback(Runnable action) {
+                rollbackHooks.add(action);
+            }
+        };
+        var storage = new LocalFileStorage(directory.toString());
+        var variants = new SimpleImageVariantService(storage, directory, Runnable::run);
+        var fileService = new SimpleFileService(new MemoryFileRepository(), storage, variants, unitOfWork,
+                directory.toString(), true, 100);
+        var staged = fileService.stage(new FileDto("logo.png", new byte[] {1, 2, 3}));
+        fileService.register(staged);
+        fileService.discard(staged);
+        assertThat(storedFiles(directory)).hasSize(1);
+        rollbackHooks.forEach(Runnable::run);
+        assertThat(storedFiles(directory)).isEmpty();
+    }
+}
@@ -0,0 +1,51 @@
+package ru.job4j.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+import ru.job4j.dreamjob.dto.FileResource;
+import ru.job4j.dreamjob.dto.ImageSize;
+import ru.job4j.dreamjob.service.SimpleImageVariantService;
+import ru.job4j.dreamjob.storage.LocalFileStorage;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SimpleImageVariantServiceTest {
+
+    @Test
+    public void whenPngSubmittedThenVariantsStoredNextToOriginal(@TempDir Path directory) throws IOException {
+        var original = directory.resolve("photo");
+        ImageIO.write(new BufferedImage(2000, 1000, BufferedImage.TYPE_INT_ARGB), "png", original.toFile());
+        var service = new SimpleImageVariantService(new LocalFileStorage(directory.toString()), directory, Runnable::run);
+        service.submit("photo", "photo.png");
+        var resource = new FileResource("photo.png", "photo", new FileSystemResource(original), Files.size(original),
+                Instant.now(), "abc", ImageSize.ORIGINAL);
+        var thumb = service.findVariant(resource, ImageSize.THUMB).orElseThrow();
+        var image = ImageIO.read(thumb.getContent().getInputStream());
+        assertThat(thumb.getKey()).isEqualTo("photo.thumb");
+        assertThat(thumb.getEtag()).isEqualTo("abc-thumb");
+        assertThat(image.getWidth()).isEqualTo(200);
+        assertThat(image.getHeight()).isEqualTo(100);
+        assertThat(ImageIO.read(directory.resolve("photo.medium").toFile()).getWidth()).isEqualTo(640);
+    }
+
+    @Test
+    public void whenNotAnImageThenNoVariants(@TempDir Path directory) throws IOException {
+        var original = Files.write(directory.resolve("cv"), new byte[] {1, 2, 3});
+        var service = new SimpleImageVariantService(new LocalFileStorage(directory.toString()), directory, Runnable::run);
+        service.submit("cv", "cv.png");
+        var resource = new FileResource("cv.png", "cv", new FileSystemResource(original), 3,
+                Instant.now(), "abc", ImageSize.ORIGINAL);
+        assertThat(service.findVariant(resource, ImageSize.THUMB)).isEmpty();
+        try (var files = Files.list(directory)) {
+            assertThat(files.count()).isEqualTo(1);
+        }
+    }
+}
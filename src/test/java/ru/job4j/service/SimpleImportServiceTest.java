@@ -0,0 +1,172 @@
+package ru.job4j.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sql2o.Sql2o;
+import ru.job4j.dreamjob.configuration.DatasourceConfiguration;
+import ru.job4j.dreamjob.imports.ImportFormat;
+import ru.job4j.dreamjob.imports.ImportKind;
+import ru.job4j.dreamjob.model.Candidate;
+import ru.job4j.dreamjob.model.Vacancy;
+import ru.job4j.dreamjob.repository.ImportRepository;
+import ru.job4j.dreamjob.repository.Sql2oCityRepository;
+import ru.job4j.dreamjob.repository.Sql2oImportRepository;
+import ru.job4j.dreamjob.repository.Sql2oUnitOfWork;
+import ru.job4j.dreamjob.repository.Sql2oVacancyRepository;
+import ru.job4j.dreamjob.service.SearchService;
+import ru.job4j.dreamjob.service.SimpleCityService;
+import ru.job4j.dreamjob.service.SimpleImportService;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class SimpleImportServiceTest {
+    private static final String CSV = """
+            title,description,city,visible,creation_date
+            Java Developer,Spring,Москва,true,2024-01-10
+            Go Developer,Kafka,Атлантида,true,
+            QA Engineer,JUnit,екатеринбург,no,2024-01-11T10:15:30
+            Data Engineer,,Москва,true,
+            DevOps,Kubernetes,Санкт-Петербург,,
+            """;
+
+    private static Sql2o sql2o;
+    private static Sql2oVacancyRepository vacancyRepository;
+    private static Sql2oUnitOfWork unitOfWork;
+    private SimpleImportService importService;
+    private SearchService searchService;
+
+    @BeforeAll
+    public static void initService() throws Exception {
+        var properties = new Properties();
+        try (var inputStream = SimpleImportServiceTest.class.getClassLoader().getResourceAsStream("connection.properties")) {
+            properties.load(inputStream);
+        }
+        var configuration = new DatasourceConfiguration();
+        var dataSource = configuration.connectionPool(properties.getProperty("datasource.url"),
+                properties.getProperty("datasource.username"), properties.getProperty("datasource.password"));
+        sql2o = configuration.databaseClient(dataSource);
+        unitOfWork = new Sql2oUnitOfWork(sql2o);
+        vacancyRepository = new Sql2oVacancyRepository(sql2o, unitOfWork);
+    }
+
+    @BeforeEach
+    public void initImportService() {
+        searchService = mock(SearchService.class);
+        importService = new SimpleImportService(new Sql2oImportRepository(unitOfWork),
+                new SimpleCityService(new Sql2oCityRepository(sql2o)), searchService, unitOfWork, 2, 10);
+    }
+
+    @AfterEach
+    public void clear() {
+        for (var vacancy : vacancyRepository.findAll()) {
+            vacancyRepository.deleteById(vacancy.getId());
+        }
+        try (var connection = sql2o.open()) {
+            connection.createQuery("DELETE FROM imports").executeUpdate();
+        }
+    }
+
+    @Test
+    public void whenRowsInvalidThenSkippedAndReported() {
+        var report = importService.importRows("partner-1", ImportKind.VACANCIES, ImportFormat.CSV, new StringReader(CSV));
+        assertThat(report.isAborted()).isFalse();
+        assertThat(report.getCommittedRows()).isEqualTo(5);
+        assertThat(report.getImportedRows()).isEqualTo(3);
+        assertThat(report.getFailedRows()).isEqualTo(2);
+        assertThat(report.getErrors()).extracting("row").containsExactly(2, 4);
+        var vacancies = vacancyRepository.findAll();
+        assertThat(vacancies).extracting("title").containsExactlyInAnyOrder("Java Developer", "QA Engineer", "DevOps");
+        assertThat(vacancies).allMatch(vacancy -> vacancy.getId() != 0 && vacancy.getFileId() == 0);
+        verify(searchService, times(3)).indexVacancy(any());
+    }
+
+    @Test
+    public void whenImportStoppedThenRerunResumesWithoutDuplicates() {
+        var broken = new StringReader(CSV) {
+            private int read;
+
+            @Override
+            public int read(char[] buffer, int offset, int length) throws IOException {
+                if (read > 150) {
+                    throw new IOException("connection reset");
+                }
+                var count = super.read(buffer, offset, Math.min(length, 10));
+                read += Math.max(count, 0);
+                return count;
+            }
+        };
+        var first = importService.importRows("partner-2", ImportKind.VACANCIES, ImportFormat.CSV, broken);
+        assertThat(first.isAborted()).isTrue();
+        assertThat(first.getCommittedRows()).isEqualTo(2);
+
+        var second = importService.importRows("partner-2", ImportKind.VACANCIES, ImportFormat.CSV, new StringReader(CSV));
+        assertThat(second.isAborted()).isFalse();
+        assertThat(second.getResumedFrom()).isEqualTo(2);
+        assertThat(second.getCommittedRows()).isEqualTo(5);
+        assertThat(vacancyRepository.findAll()).extracting("title")
+                .containsExactlyInAnyOrder("Java Developer", "QA Engineer", "DevOps");
+    }
+
+    @Test
+    public void whenSameNameUsedForOtherKindThenRejected() {
+        importService.importRows("partner-3", ImportKind.VACANCIES, ImportFormat.CSV, new StringReader(CSV));
+        assertThatThrownBy(() -> importService.importRows("partner-3", ImportKind.CANDIDATES, ImportFormat.CSV,
+                new StringReader(CSV)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("partner-3");
+    }
+
+    @Test
+    public void whenDatabaseRejectsRowThenChunkRetriedRowByRowAndRowCountedAsFailed() {
+        var imports = new Sql2oImportRepository(unitOfWork);
+        var rejecting = new ImportRepository() {
+            @Override
+            public int start(String name, ImportKind kind) {
+                return imports.start(name, kind);
+            }
+
+            @Override
+            public boolean advance(String name, int expectedRows, int committedRows, int failedRows) {
+                return imports.advance(name, expectedRows, committedRows, failedRows);
+            }
+
+            @Override
+            public void insertVacancies(List<Vacancy> vacancies) {
+                if (vacancies.stream().anyMatch(vacancy -> vacancy.getTitle().startsWith("QA"))) {
+                    throw new IllegalStateException("value too long for title");
+                }
+                imports.insertVacancies(vacancies);
+            }
+
+            @Override
+            public void insertCandidates(List<Candidate> candidates) {
+                imports.insertCandidates(candidates);
+            }
+        };
+        var service = new SimpleImportService(rejecting, new SimpleCityService(new Sql2oCityRepository(sql2o)),
+                searchService, unitOfWork, 2, 10);
+        var report = service.importRows("partner-4", ImportKind.VACANCIES, ImportFormat.CSV, new StringReader(CSV));
+        assertThat(report.isAborted()).isFalse();
+        assertThat(report.getCommittedRows()).isEqualTo(5);
+        assertThat(report.getImportedRows()).isEqualTo(2);
+        assertThat(report.getErrors()).extracting("row").containsExactlyInAnyOrder(2, 3, 4);
+        assertThat(vacancyRepository.findAll()).extracting("title").containsExactlyInAnyOrder("Java Developer", "DevOps");
+        try (var connection = sql2o.open()) {
+            var failedRows = connection.createQuery("SELECT failed_rows FROM imports WHERE name = 'partner-4'")
+                    .executeScalar(Integer.class);
+            assertThat(failedRows).isEqualTo(3);
+        }
+    }
+}
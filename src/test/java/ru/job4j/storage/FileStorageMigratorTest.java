@@ -0,0 +1,56 @@
+package ru.job4j.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.job4j.dreamjob.model.File;
+import ru.job4j.dreamjob.repository.MemoryFileRepository;
+import ru.job4j.dreamjob.storage.FileStorageMigrator;
+import ru.job4j.dreamjob.storage.LocalFileStorage;
+import ru.job4j.dreamjob.storage.StorageKeys;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FileStorageMigratorTest {
+
+    @Test
+    public void whenFlatLayoutThenMovedUnderHashKeys(@TempDir Path directory) throws IOException {
+        var repository = new MemoryFileRepository();
+        var first = Files.write(directory.resolve("1b4f0e98-logo.png"), new byte[] {1, 2, 3});
+        var duplicate = Files.write(directory.resolve("7c9e6679-logo.png"), new byte[] {1, 2, 3});
+        var firstFile = repository.save(new File("logo.png", first.toString()));
+        var duplicateFile = repository.save(new File("logo.png", duplicate.toString()));
+        var storage = new LocalFileStorage(directory.toString());
+        var migrator = new FileStorageMigrator(repository, storage, storage, directory, 1);
+
+        assertThat(migrator.migrate()).isZero();
+
+        var migrated = repository.findById(firstFile.getId()).orElseThrow();
+        assertThat(StorageKeys.isCanonical(migrated.getPath())).isTrue();
+        assertThat(migrated.getHash()).isNotNull();
+        assertThat(migrated.getPath()).isEqualTo(StorageKeys.of(migrated.getHash()));
+        var migratedDuplicate = repository.findById(duplicateFile.getId()).orElseThrow();
+        assertThat(migratedDuplicate.getHash()).isNull();
+        assertThat(migratedDuplicate.getPath()).isEqualTo(StorageKeys.unique(migrated.getHash(), "2"));
+        assertThat(Files.readAllBytes(storage.resolve(migratedDuplicate.getPath()))).containsExactly(1, 2, 3);
+        assertThat(first).doesNotExist();
+        assertThat(duplicate).doesNotExist();
+    }
+
+    @Test
+    public void whenRowAlreadyMigratedThenSkipped(@TempDir Path directory) throws IOException {
+        var repository = new MemoryFileRepository();
+        var storage = new LocalFileStorage(directory.toString());
+        var key = StorageKeys.of("a".repeat(64));
+        var blob = storage.resolve(key);
+        Files.createDirectories(blob.getParent());
+        Files.write(blob, new byte[] {1});
+        repository.save(new File("logo.png", key, "a".repeat(64)));
+
+        assertThat(new FileStorageMigrator(repository, storage, storage, directory, 10).migrate()).isZero();
+        assertThat(blob).exists();
+    }
+}
@@ -0,0 +1,105 @@
+package ru.job4j.storage;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.job4j.dreamjob.storage.S3FileStorage;
+import ru.job4j.dreamjob.storage.SigV4Signer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * S3FileStorage против минимальной in-process заглушки S3 (PUT/HEAD/GET/DELETE по path-style URL).
+ * Подпись здесь не проверяется - её покрывает SigV4SignerTest, а против настоящего API
+ * хранилище проверяется на MinIO.
+ */
+public class S3FileStorageTest {
+    private HttpServer server;
+    private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+    private final List<String> authorizations = new CopyOnWriteArrayList<>();
+    private S3FileStorage storage;
+
+    @BeforeEach
+    public void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            authorizations.add(exchange.getRequestHeaders().getFirst("Authorization"));
+            var path = exchange.getRequestURI().getPath();
+            var body = objects.get(path);
+            switch (exchange.getRequestMethod()) {
+                case "PUT":
+                    objects.put(path, exchange.getRequestBody().readAllBytes());
+                    exchange.sendResponseHeaders(200, -1);
+                    break;
+                case "HEAD":
+                    if (body == null) {
+                        exchange.sendResponseHeaders(404, -1);
+                    } else {
+                        exchange.getResponseHeaders().add("Content-Length", String.valueOf(body.length));
+                        exchange.getResponseHeaders().add("Last-Modified", "Wed, 21 Oct 2015 07:28:00 GMT");
+                        exchange.sendResponseHeaders(200, -1);
+                    }
+                    break;
+                case "GET":
+                    if (body == null) {
+                        exchange.sendResponseHeaders(404, -1);
+                    } else {
+                        exchange.sendResponseHeaders(200, body.length);
+                        exchange.getResponseBody().write(body);
+                    }
+                    break;
+                case "DELETE":
+                    exchange.sendResponseHeaders(objects.remove(path) == null ? 404 : 204, -1);
+                    break;
+                default:
+                    exchange.sendResponseHeaders(405, -1);
+            }
+            exchange.close();
+        });
+        server.start();
+        var endpoint = URI.create("http://127.0.0.1:" + server.getAddress().getPort());
+        storage = new S3FileStorage(HttpClient.newHttpClient(), endpoint, "dreamjob",
+                new SigV4Signer("minio", "minio123", "us-east-1", "s3"), Clock.systemUTC(), Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    public void stop() {
+        server.stop(0);
+    }
+
+    @Test
+    public void whenPutThenStatReadAndDelete(@TempDir Path directory) throws IOException {
+        var source = Files.write(directory.resolve("upload.tmp"), new byte[] {1, 2, 3});
+        storage.put("ab/cd/abcd", source);
+        assertThat(source).doesNotExist();
+        assertThat(objects).containsOnlyKeys("/dreamjob/ab/cd/abcd");
+        var stored = storage.stat("ab/cd/abcd").orElseThrow();
+        assertThat(stored.getSize()).isEqualTo(3);
+        try (var input = storage.getResource(stored).getInputStream()) {
+            assertThat(input.readAllBytes()).containsExactly(1, 2, 3);
+        }
+        assertThat(storage.delete("ab/cd/abcd")).isTrue();
+        assertThat(storage.stat("ab/cd/abcd")).isEmpty();
+        assertThat(authorizations).allMatch(value -> value.startsWith("AWS4-HMAC-SHA256 Credential=minio/"));
+    }
+
+    @Test
+    public void whenDeleteAbsentThenFalse() {
+        assertThat(storage.delete("ab/cd/missing")).isFalse();
+    }
+}